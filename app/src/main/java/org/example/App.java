@@ -1,38 +1,226 @@
 package org.example;
 
+import org.example.ticket.api.BookingApi;
+import org.example.ticket.api.HttpApiServer;
+import org.example.ticket.batch.BatchBookingRunner;
 import org.example.ticket.menus.AppMenu;
+import org.example.ticket.persistence.GroupCommitter;
+import org.example.ticket.persistence.SnapshotFormat;
+import org.example.ticket.server.SessionServer;
 import org.example.ticket.services.LoginService;
+import org.example.ticket.services.TicketRepository;
+import org.example.ticket.services.TicketService;
 import org.example.ticket.utils.ColorUtils;
+import org.example.ticket.utils.Terminal;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.concurrent.TimeUnit;
 
 /**
  * Entry point of the IRCTC Ticket Application.
  * <p>
  * Shows landing menu by default and delegates all options to AppMenu.
+ * <p>
+ * Batch mode: {@code --batch <requests.jsonl|requests.csv> [--out <results.jsonl>] [--threads <n>]}
+ * books every request in the file without prompts and exits.
+ * <p>
+ * Server mode: {@code --server [port]} serves the menus to many telnet clients on localhost
+ * (default port {@value SessionServer#DEFAULT_PORT}), one virtual thread per session.
+ * <p>
+ * API mode: {@code --http [port]} serves the JSON API described in {@link HttpApiServer}
+ * on localhost (default port {@value HttpApiServer#DEFAULT_PORT}).
+ * <p>
+ * Colours are left out with {@code --no-color} (in any position) or when {@code NO_COLOR} is set,
+ * and on the process console when stdout is not a terminal.
+ * <p>
+ * Snapshots are JSON by default; {@code -Dirctc.snapshot.format=smile} switches them to the
+ * binary {@link SnapshotFormat#SMILE} format on the next start, and back again the same way.
  */
 public class App {
 
     public static void main(String[] args) {
-        // Initialize services
-        LoginService loginService = new LoginService();
+        if (Arrays.asList(args).contains("--no-color")) {
+            ColorUtils.setEnabled(false);
+            args = Arrays.stream(args).filter(arg -> !arg.equals("--no-color")).toArray(String[]::new);
+        }
+        Terminal.installConsoleOutput();
+
+        // Initialize services (one background writer persists users, tickets and bookings)
+        long startedAt = System.nanoTime();
+        GroupCommitter committer = new GroupCommitter();
+        LoginService loginService = new LoginService(committer);
+        TicketRepository ticketRepository = new TicketRepository(committer);
+        ticketRepository.migrateFrom(loginService);
+        reportHashingOnShutdown(loginService);
+
+        if (args.length > 0 && args[0].equals("--batch")) {
+            System.exit(runBatch(args, loginService, ticketRepository, committer, startedAt));
+        }
+
+        // One ticket service for every session; it holds no per-user state
+        TicketService ticketService = new TicketService(committer, ticketRepository);
+        printStartupTime(startedAt);
+        snapshotOnShutdown(ticketService, ticketRepository, committer);
 
-        // Initialize app menu
-        AppMenu appMenu = new AppMenu(loginService);
+        if (args.length > 0 && args[0].equals("--server")) {
+            System.exit(runServer(args, loginService, ticketService, committer));
+        }
+        if (args.length > 0 && args[0].equals("--http")) {
+            System.exit(runHttp(args, loginService, ticketService, committer));
+        }
 
-        int option;
-        do {
-            option = appMenu.showLandingOptions();
+        // Initialize app menu and loop until Exit is chosen
+        new AppMenu(loginService, ticketService).run();
+        exitApp();
+    }
 
-            switch (option) {
-                case 1, 2 -> appMenu.handleLandingOption(option); // Create user or login
-                case 3 -> exitApp(); // Exit the app
-                default -> System.out.println(ColorUtils.RED + "⚠️ Invalid option! Try again." + ColorUtils.RESET);
+    /**
+     * Runs the multi-session server until the process is stopped. Returns the process exit code.
+     */
+    private static int runServer(String[] args, LoginService loginService, TicketService ticketService,
+                                 GroupCommitter committer) {
+        int port = args.length > 1 ? parsePort(args[1]) : SessionServer.DEFAULT_PORT;
+        if (port < 0) {
+            System.out.println(ColorUtils.RED + "Usage: --server [port] (port 1-65535)" + ColorUtils.RESET);
+            return 2;
+        }
+
+        try (SessionServer server = new SessionServer(loginService, ticketService, port)) {
+            server.serve();
+            return 0;
+        } catch (IOException e) {
+            System.out.println(ColorUtils.RED + "❌ Server stopped: " + e.getMessage() + ColorUtils.RESET);
+            return 2;
+        } finally {
+            committer.close();
+        }
+    }
+
+
+    /**
+     * Serves the JSON API until the process is stopped. Returns the process exit code.
+     */
+    private static int runHttp(String[] args, LoginService loginService, TicketService ticketService,
+                               GroupCommitter committer) {
+        int port = args.length > 1 ? parsePort(args[1]) : HttpApiServer.DEFAULT_PORT;
+        if (port < 0) {
+            System.out.println(ColorUtils.RED + "Usage: --http [port] (port 1-65535)" + ColorUtils.RESET);
+            return 2;
+        }
+
+        try (HttpApiServer server = new HttpApiServer(new BookingApi(loginService, ticketService), port)) {
+            server.start();
+            Thread.currentThread().join(); // The server runs on its own threads until the process is stopped
+            return 0;
+        } catch (IOException e) {
+            System.out.println(ColorUtils.RED + "❌ API server stopped: " + e.getMessage() + ColorUtils.RESET);
+            return 2;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 1;
+        } finally {
+            committer.close();
+        }
+    }
+
+    /**
+     * Runs the headless batch booking mode. Returns the process exit code.
+     */
+    private static int runBatch(String[] args, LoginService loginService, TicketRepository ticketRepository,
+                                GroupCommitter committer, long startedAt) {
+        if (args.length < 2) {
+            System.out.println(ColorUtils.RED + "Usage: --batch <requests.jsonl|requests.csv> [--out <results.jsonl>] [--threads <n>]" + ColorUtils.RESET);
+            return 2;
+        }
+        Path input = Path.of(args[1]);
+        Path output = Path.of(args[1] + ".results.jsonl");
+        int threads = Runtime.getRuntime().availableProcessors();
+        for (int i = 2; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--out" -> output = Path.of(args[i + 1]);
+                case "--threads" -> threads = parseThreads(args[i + 1]);
+                default -> System.out.println(ColorUtils.YELLOW + "⚠ Ignoring unknown option " + args[i] + ColorUtils.RESET);
             }
+        }
+        if (threads < 1) {
+            System.out.println(ColorUtils.RED + "❌ --threads must be a whole number of at least 1" + ColorUtils.RESET);
+            return 2;
+        }
+        if (!Files.isRegularFile(input)) {
+            System.out.println(ColorUtils.RED + "❌ Batch file not found: " + input + ColorUtils.RESET);
+            return 2;
+        }
+
+        TicketService ticketService = new TicketService(committer, ticketRepository);
+        printStartupTime(startedAt);
+        snapshotOnShutdown(ticketService, ticketRepository, committer);
+        try {
+            boolean allBooked = new BatchBookingRunner(loginService, ticketService, threads).run(input, output);
+            return allBooked ? 0 : 1;
+        } catch (IOException e) {
+            System.out.println(ColorUtils.RED + "❌ Batch booking failed: " + e.getMessage() + ColorUtils.RESET);
+            return 2;
+        } finally {
+            committer.close();
+        }
+    }
+
+    /**
+     * Parses the {@code --threads} argument. Returns -1 when it is not a number.
+     */
+    private static int parseThreads(String value) {
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
 
-        } while (option != 3); // Loop until Exit is chosen
+    /**
+     * Parses a TCP port argument. Returns -1 when it is not a number between 1 and 65535.
+     */
+    private static int parsePort(String value) {
+        try {
+            int port = Integer.parseInt(value);
+            return port >= 1 && port <= 65535 ? port : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Prints how long loading users, tickets and trains took, and the snapshot format in use.
+     */
+    private static void printStartupTime(long startedAt) {
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+        System.out.println(ColorUtils.CYAN + "⏱ Loaded data in " + millis + " ms ("
+                + SnapshotFormat.configured().getExtension() + " snapshots)" + ColorUtils.RESET);
     }
 
+    /**
+     * On exit, makes queued changes durable and folds the journals into fresh snapshots,
+     * so the next start only reads snapshots.
+     */
+    private static void snapshotOnShutdown(TicketService ticketService, TicketRepository ticketRepository,
+                                           GroupCommitter committer) {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            committer.flush().join();
+            ticketService.compact();
+            ticketRepository.compact();
+        }, "shutdown-snapshot"));
+    }
+
+    /**
+     * On exit, prints the password hashing pool's counters and latencies, to size
+     * {@code irctc.bcrypt.threads} and {@code irctc.bcrypt.queue} against real logins.
+     */
+    private static void reportHashingOnShutdown(LoginService loginService) {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> System.out.println(ColorUtils.CYAN + "🔐 Password hashing: "
+                + loginService.getPasswordHasher().metricsReport() + ColorUtils.RESET), "shutdown-hashing-report"));
+    }
 
     /**
      * Gracefully exits the application with countdown.
@@ -0,0 +1,59 @@
+package org.example.ticket.api;
+
+/**
+ * A request the API turns down, with the HTTP status to answer it with. The message is shown
+ * to the client, so it never carries internal details.
+ * <p>
+ * Only {@link BookingApi} and {@link HttpApiServer} routing throw it; any other exception
+ * reaching the server is reported as a 500.
+ */
+public class ApiException extends RuntimeException {
+
+    private final int status;
+
+    public ApiException(int status, String message) {
+        super(message);
+        this.status = status;
+    }
+
+    public ApiException(int status, String message, Throwable cause) {
+        super(message, cause);
+        this.status = status;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    // ------------------- Factories -------------------
+
+    /** Invalid input: 400. */
+    public static ApiException badRequest(String message) {
+        return new ApiException(400, message);
+    }
+
+    /** Failed login or missing token: 401. */
+    public static ApiException unauthorized(String message) {
+        return new ApiException(401, message);
+    }
+
+    /** Unknown train, ticket or endpoint: 404. */
+    public static ApiException notFound(String message) {
+        return new ApiException(404, message);
+    }
+
+    /** Endpoint exists but not for this method: 405. */
+    public static ApiException methodNotAllowed(String method) {
+        return new ApiException(405, "Method " + method + " not allowed here");
+    }
+
+    /** Valid request that conflicts with current state, e.g. no seats left: 409. */
+    public static ApiException conflict(String message) {
+        return new ApiException(409, message);
+    }
+
+    /** Valid request that cannot be served right now, e.g. a full queue: 503. */
+    public static ApiException unavailable(String message) {
+        return new ApiException(503, message);
+    }
+}
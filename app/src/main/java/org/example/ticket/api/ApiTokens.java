@@ -0,0 +1,53 @@
+package org.example.ticket.api;
+
+import org.example.ticket.utils.SecureTokenGenerator;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bearer tokens issued at API login, kept in memory only.
+ * <p>
+ * Tokens are 32 Crockford characters (160 random bits) and expire after
+ * {@code irctc.api.tokenTtlMinutes} (default 12 hours). Expired tokens are dropped when they
+ * are next presented, and swept whenever the map has grown by another {@link #SWEEP_INTERVAL}.
+ */
+class ApiTokens {
+
+    static final int TOKEN_LENGTH = 32;
+    private static final int SWEEP_INTERVAL = 10_000;
+
+    record Token(String value, String userId, Instant expiresAt) {
+        boolean isExpired() {
+            return Instant.now().isAfter(expiresAt);
+        }
+    }
+
+    private final Duration ttl = Duration.ofMinutes(Long.getLong("irctc.api.tokenTtlMinutes", 12 * 60));
+    private final Map<String, Token> tokens = new ConcurrentHashMap<>();
+
+    Token issue(String userId) {
+        Token token = new Token(SecureTokenGenerator.nextToken(TOKEN_LENGTH), userId, Instant.now().plus(ttl));
+        tokens.put(token.value(), token);
+        if (tokens.size() % SWEEP_INTERVAL == 0) tokens.values().removeIf(Token::isExpired);
+        return token;
+    }
+
+    /** Returns the user ID of a live token, or null. */
+    String userIdFor(String value) {
+        if (value == null) return null;
+        Token token = tokens.get(value);
+        if (token == null) return null;
+        if (token.isExpired()) {
+            tokens.remove(value, token);
+            return null;
+        }
+        return token.userId();
+    }
+
+    void revoke(String value) {
+        if (value != null) tokens.remove(value);
+    }
+}
@@ -0,0 +1,360 @@
+package org.example.ticket.api;
+
+import org.example.ticket.entities.Coach;
+import org.example.ticket.entities.Leg;
+import org.example.ticket.entities.Passenger;
+import org.example.ticket.entities.Ticket;
+import org.example.ticket.entities.Train;
+import org.example.ticket.entities.User;
+import org.example.ticket.services.AdmissionGate;
+import org.example.ticket.services.BookingService;
+import org.example.ticket.services.LoginService;
+import org.example.ticket.services.Page;
+import org.example.ticket.services.ServerBusyException;
+import org.example.ticket.services.TicketService;
+import org.example.ticket.services.TrainSort;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Booking operations without any console I/O, for the HTTP API and batch mode.
+ * <p>
+ * Takes and returns plain records and reports problems with an {@link ApiException} carrying
+ * the HTTP status: 400 for bad input, 401 for failed logins or tokens, 404 for unknown trains
+ * or tickets, 409 when the request conflicts with current state (no seats, already cancelled)
+ * and 503 when it cannot be served right now (busy queue). Input errors found by the services
+ * are passed on as 400s; anything else they throw is left for the caller to treat as internal.
+ * Bookings return only once they are durable.
+ */
+public class BookingApi {
+
+    /** Longest an API booking waits in a flash-sale queue by default. */
+    public static final long DEFAULT_ADMISSION_TIMEOUT_SECONDS = 30;
+
+    private static final String EMAIL_PATTERN = "^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+$";
+
+    // ------------------- Requests and Responses -------------------
+
+    public record RegisterRequest(String email, String name, String password) {
+    }
+
+    public record LoginRequest(String email, String password) {
+    }
+
+    public record LoginResponse(String token, Instant expiresAt, UserView user) {
+    }
+
+    /** Fields left null are not changed. */
+    public record UpdateUserRequest(String name, String phoneNumber, String aadhaarUid) {
+    }
+
+    public record UserView(String id, String name, String email, String phoneNumber, boolean verified) {
+        static UserView of(User user) {
+            return new UserView(user.getId(), user.getName(), user.getEmail(), user.getPhoneNumber(), user.hasVerified());
+        }
+    }
+
+    public record TrainSummary(String id, String name, String source, String destination, LocalTime departureTime,
+                               int distanceKm, LocalDate journeyDate, double lowestFare, int totalSeats, int availableSeats) {
+    }
+
+    public record CoachAvailability(String coachId, String type, double fare, int totalSeats,
+                                    int availableSeats, int waitlistLength) {
+    }
+
+    /** Availability for the part of the run between two stops; {@code from} and {@code to} are stop codes. */
+    public record Availability(String trainId, LocalDate journeyDate, String from, String to, List<CoachAvailability> coaches) {
+    }
+
+    public record PassengerRequest(String name, int age) {
+    }
+
+    /** {@code from} and {@code to} are the stops all passengers board and alight at; null for the ends of the run. */
+    public record BookingRequest(String trainId, String coachId, LocalDate journeyDate, List<PassengerRequest> passengers,
+                                 String from, String to) {
+        public BookingRequest(String trainId, String coachId, LocalDate journeyDate, List<PassengerRequest> passengers) {
+            this(trainId, coachId, journeyDate, passengers, null, null);
+        }
+    }
+
+    public record CancelRequest(String securityNumber) {
+    }
+
+    /** {@code from} and {@code to} are null when the passenger boards at the source or alights at the destination. */
+    public record PassengerView(String name, int age, String coachId, int seatNumber, String from, String to) {
+    }
+
+    /** A ticket as its booker sees it. {@code securityNumber} is needed to cancel. */
+    public record TicketView(String id, String trainId, LocalDate journeyDate, String status, String coachType,
+                             double fare, String securityNumber, List<PassengerView> passengers) {
+        static TicketView of(Ticket ticket) {
+            String status = ticket.isHasCancelled() ? "CANCELLED" : ticket.isWaitlisted() ? "WAITLISTED" : "CONFIRMED";
+            List<PassengerView> passengers = ticket.getPassengersSafe().values().stream()
+                    .sorted(Comparator.comparing(Passenger::getCoach).thenComparingInt(Passenger::getSeatNumber))
+                    .map(p -> new PassengerView(p.getName(), p.getAge(), p.getCoach(), p.getSeatNumber(), p.getFrom(), p.getTo()))
+                    .toList();
+            return new TicketView(ticket.getId(), ticket.getTrainId(), ticket.getJourneyDate(), status,
+                    ticket.getCoachType(), ticket.getTotalPrice(), ticket.getSecurityNumber(), passengers);
+        }
+    }
+
+    private final LoginService loginService;
+    private final TicketService ticketService;
+    private final long admissionTimeoutSeconds;
+    private final ApiTokens tokens = new ApiTokens();
+
+    public BookingApi(LoginService loginService, TicketService ticketService) {
+        this(loginService, ticketService, DEFAULT_ADMISSION_TIMEOUT_SECONDS);
+    }
+
+    public BookingApi(LoginService loginService, TicketService ticketService, long admissionTimeoutSeconds) {
+        this.loginService = loginService;
+        this.ticketService = ticketService;
+        this.admissionTimeoutSeconds = admissionTimeoutSeconds;
+    }
+
+    // ------------------- Users -------------------
+
+    public UserView register(RegisterRequest request) {
+        if (request.email() == null || !request.email().trim().matches(EMAIL_PATTERN)) {
+            throw ApiException.badRequest("Invalid email format");
+        }
+        if (request.name() == null || request.name().isBlank()) throw ApiException.badRequest("Name is required");
+        if (request.password() == null || request.password().length() < 6) {
+            throw ApiException.badRequest("Password must be at least 6 characters");
+        }
+        try {
+            return UserView.of(validated(() -> loginService.registerUser(request.email(), request.name(), request.password())));
+        } catch (ServerBusyException e) {
+            throw ApiException.unavailable(e.getMessage());
+        }
+    }
+
+    /** Checks the password and issues a bearer token. */
+    public LoginResponse login(LoginRequest request) {
+        if (request.email() == null || request.password() == null) throw ApiException.badRequest("Email and password are required");
+        User user;
+        try {
+            user = loginService.login(request.email(), request.password());
+        } catch (ServerBusyException e) {
+            throw ApiException.unavailable(e.getMessage());
+        } catch (RuntimeException e) {
+            throw e; // Not a login failure, e.g. an unreadable user shard
+        } catch (Exception e) {
+            throw ApiException.unauthorized("Invalid email or password");
+        }
+        ApiTokens.Token token = tokens.issue(user.getId());
+        return new LoginResponse(token.value(), token.expiresAt(), UserView.of(user));
+    }
+
+    public void logout(String token) {
+        tokens.revoke(token);
+    }
+
+    /** Resolves a bearer token to its user. */
+    public User authenticate(String token) {
+        String userId = tokens.userIdFor(token);
+        User user = userId != null ? loginService.findUserById(userId) : null;
+        if (user == null) throw ApiException.unauthorized("Missing, invalid or expired token");
+        return user;
+    }
+
+    public UserView getUser(User user) {
+        return UserView.of(user);
+    }
+
+    /** Updates name, phone number and Aadhaar number, validated like the user menu. */
+    public UserView updateUser(User user, UpdateUserRequest request) {
+        if (request.name() != null && request.name().isBlank()) throw ApiException.badRequest("Name cannot be empty");
+        if (request.phoneNumber() != null && !request.phoneNumber().matches("^[0-9]{10}$")) {
+            throw ApiException.badRequest("Phone number must have 10 digits");
+        }
+        if (request.aadhaarUid() != null && !request.aadhaarUid().matches("^[0-9]{12}$")) {
+            throw ApiException.badRequest("Aadhaar number must have 12 digits");
+        }
+        synchronized (user) {
+            if (request.name() != null) user.setName(request.name().trim());
+            if (request.phoneNumber() != null) user.setPhoneNumber(request.phoneNumber());
+            if (request.aadhaarUid() != null) user.setAadhaarUid(request.aadhaarUid());
+        }
+        awaitDurable(loginService.updateUser(user));
+        return UserView.of(user);
+    }
+
+    // ------------------- Trains -------------------
+
+    /**
+     * One page of trains whose name or ID matches, with availability on each train's next running date.
+     *
+     * @param sort   catalogue (default), departure, availability or fare
+     * @param cursor {@code nextCursor} of the previous page, or null for the first page
+     */
+    public Page<TrainSummary> searchTrains(String query, String sort, String cursor, int limit) {
+        LocalDate today = LocalDate.now();
+        return validated(() -> ticketService.searchTrains(query == null ? "" : query, TrainSort.parse(sort), cursor, limit)
+                .map(train -> summarize(train, train.nextRunningDate(today), train.getWholeRun())));
+    }
+
+    /** One page of trains from one station to another on a date, with distance, fare and seats for that leg. */
+    public Page<TrainSummary> searchTrains(String from, String to, LocalDate journeyDate,
+                                           String sort, String cursor, int limit) {
+        if (from == null || to == null) throw ApiException.badRequest("Both from and to station codes are required");
+        LocalDate date = journeyDate != null ? journeyDate : LocalDate.now();
+        return validated(() -> ticketService.searchTrains(from.toUpperCase(), to.toUpperCase(), date, TrainSort.parse(sort), cursor, limit)
+                .map(train -> summarize(train, date, train.leg(from, to))));
+    }
+
+    /** Free seats and waitlist length per coach of a train on a date, for the whole run. */
+    public Availability getAvailability(String trainId, LocalDate journeyDate) {
+        return getAvailability(trainId, journeyDate, null, null);
+    }
+
+    /**
+     * Free seats, fare and waitlist length per coach of a train on a date, for the leg between
+     * two stops; null stops stand for the source and the destination.
+     */
+    public Availability getAvailability(String trainId, LocalDate journeyDate, String from, String to) {
+        Train train = requireTrain(trainId);
+        LocalDate date = journeyDate != null ? journeyDate : train.nextRunningDate(LocalDate.now());
+        if (date == null || !train.runsOn(date)) throw ApiException.badRequest("Train does not run on " + journeyDate);
+        Leg leg = validated(() -> train.leg(from, to));
+
+        List<CoachAvailability> coaches = new ArrayList<>();
+        for (Coach coach : train.getCoaches()) {
+            coaches.add(new CoachAvailability(coach.getId(), coach.getType(),
+                    ticketService.getFareEngine().adultFare(train, coach, leg, date) / 100.0, coach.getTotalSeats(),
+                    coach.getAvailableSeats(date, leg),
+                    ticketService.getWaitlistService().getLength(train.getId(), coach.getType(), date)));
+        }
+        return new Availability(train.getId(), date, train.stopCode(leg.from()), train.stopCode(leg.to()), coaches);
+    }
+
+    // ------------------- Tickets -------------------
+
+    /** One page of the user's tickets, newest first. */
+    public Page<TicketView> getTickets(User user, String cursor, int limit) {
+        return validated(() -> ticketService.getBookedTickets(user, cursor, limit).map(TicketView::of));
+    }
+
+    public TicketView getTicket(User user, String ticketId) {
+        return TicketView.of(requireOwnTicket(user, ticketId));
+    }
+
+    /** Books confirmed seats in one coach for all passengers. Does not waitlist. */
+    public TicketView book(User user, BookingRequest request) {
+        if (request.passengers() == null) throw ApiException.badRequest("At least one passenger is required");
+        List<Passenger> passengers = new ArrayList<>();
+        for (PassengerRequest p : request.passengers()) {
+            Passenger passenger = validated(() -> new Passenger(p.name(), p.age(), request.coachId(), 0)); // Validates name and age
+            passenger.travel(request.from(), request.to());
+            passengers.add(passenger);
+        }
+        return TicketView.of(book(user, request.trainId(), request.coachId(), request.journeyDate(), passengers));
+    }
+
+    /**
+     * Validates like the interactive flow, waits for a flash-sale turn, allocates seats and
+     * waits until the booking is durable. Shared with batch mode.
+     */
+    public Ticket book(User user, String trainId, String coachId, LocalDate journeyDate, List<Passenger> passengers) {
+        if (!user.hasVerified()) throw ApiException.badRequest("User has not filled Aadhaar and phone number");
+
+        Train train = requireTrain(trainId);
+        if (journeyDate == null) throw ApiException.badRequest("Journey date is required");
+        String dateError = BookingService.checkJourneyDate(train, journeyDate);
+        if (dateError != null) throw ApiException.badRequest(dateError);
+
+        Coach coach = coachId != null ? train.getCoach(coachId) : null;
+        if (coach == null) throw ApiException.badRequest("Invalid coach ID: " + coachId);
+        if (passengers == null || passengers.isEmpty()) throw ApiException.badRequest("At least one passenger is required");
+        validated(() -> passengers.stream().map(train::legOf).toList()); // Checks the stops before queueing
+
+        admit(train);
+        Ticket ticket;
+        try {
+            ticket = validated(() -> BookingService.issueTicket(user, train, coach, journeyDate, passengers, ticketService));
+        } catch (IllegalStateException e) {
+            throw ApiException.conflict(e.getMessage()); // Not enough seats left
+        }
+        awaitDurable(ticketService.commit());
+        return ticket;
+    }
+
+    /** Cancels one of the user's tickets after checking its security number. */
+    public TicketView cancel(User user, String ticketId, CancelRequest request) {
+        Ticket ticket = requireOwnTicket(user, ticketId);
+        if (request == null || !ticket.verifySecurityNumber(request.securityNumber())) {
+            throw ApiException.badRequest("Invalid security number");
+        }
+        if (!BookingService.cancelBookedTicket(ticket, ticketService)) {
+            throw ApiException.conflict("Ticket is already cancelled");
+        }
+        awaitDurable(ticketService.commit());
+        return TicketView.of(ticket);
+    }
+
+    // ------------------- Helper Methods -------------------
+
+    private TrainSummary summarize(Train train, LocalDate date, Leg leg) {
+        return new TrainSummary(train.getId(), train.getName(), train.getSource().getCode(),
+                train.getDestination().getCode(), train.getDepartureTime(), train.distanceKm(leg), date,
+                ticketService.getFareEngine().lowestFare(train, leg, date) / 100.0, train.getTotalSeats(),
+                date != null ? train.getAvailableSeats(date, leg) : 0);
+    }
+
+    private Train requireTrain(String trainId) {
+        Train train = trainId != null ? ticketService.getTrainByNumber(trainId) : null;
+        if (train == null) throw ApiException.notFound("Train not found: " + trainId);
+        return train;
+    }
+
+    private Ticket requireOwnTicket(User user, String ticketId) {
+        Ticket ticket = ticketService.getTicketRepository().findById(ticketId);
+        if (ticket == null || !ticket.getBookerId().equals(user.getId())) {
+            throw ApiException.notFound("Ticket not found: " + ticketId);
+        }
+        return ticket;
+    }
+
+    /** Queues behind the same flash-sale gate as interactive bookings. */
+    private void admit(Train train) {
+        AdmissionGate gate = ticketService.getAdmissionGate();
+        try {
+            if (!gate.admit(train.getId(), admissionTimeoutSeconds, TimeUnit.SECONDS)) {
+                throw ApiException.unavailable("Not admitted within " + admissionTimeoutSeconds + "s (flash-sale queue)");
+            }
+        } catch (ServerBusyException e) {
+            throw ApiException.unavailable(e.getMessage()); // Queue full
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw ApiException.unavailable("Interrupted while waiting in the flash-sale queue");
+        }
+    }
+
+    /** Waits for a write; a failed one is an internal error, reported without its I/O details. */
+    private static void awaitDurable(CompletableFuture<?> write) {
+        try {
+            write.join();
+        } catch (CompletionException e) {
+            throw new ApiException(500, "Saved in memory but not on disk", e.getCause());
+        }
+    }
+
+    /** Runs a service call, passing on the invalid input it reports as a 400. */
+    private static <T> T validated(Supplier<T> call) {
+        try {
+            return call.get();
+        } catch (IllegalArgumentException e) {
+            throw ApiException.badRequest(e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package org.example.ticket.api;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.example.ticket.api.BookingApi.BookingRequest;
+import org.example.ticket.api.BookingApi.CancelRequest;
+import org.example.ticket.api.BookingApi.LoginRequest;
+import org.example.ticket.api.BookingApi.RegisterRequest;
+import org.example.ticket.api.BookingApi.UpdateUserRequest;
+import org.example.ticket.entities.User;
+import org.example.ticket.services.Page;
+import org.example.ticket.utils.ColorUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * JSON-over-HTTP front end for {@link BookingApi}, on the JDK's built-in {@link HttpServer}.
+ * <p>
+ * Each request runs on its own virtual thread. Endpoints other than register, login and train
+ * search need an {@code Authorization: Bearer <token>} header from {@code POST /api/login}.
+ * Errors come back as {@code {"error": "..."}} with the status of the {@link ApiException};
+ * any other exception is logged and answered with a 500 that does not echo its message.
+ * <p>
+ * Lists come back one page at a time as {@code {items, nextCursor}}. Pass {@code cursor=nextCursor}
+ * for the next page and {@code limit=} for its size (default 10, at most 100). Train searches
+ * also take {@code sort=departure|availability|fare}.
+ *
+ * <pre>
+ * POST   /api/users                      register {email, name, password}
+ * POST   /api/login                      {email, password} -> {token, expiresAt, user}
+ * POST   /api/logout
+ * GET    /api/me                         current user
+ * PATCH  /api/me                         {name?, phoneNumber?, aadhaarUid?}
+ * GET    /api/trains?q=                  search by name or ID
+ * GET    /api/trains?from=&amp;to=&amp;date=     search by route (date is yyyy-MM-dd)
+ * GET    /api/trains/{id}/availability?date=&amp;from=&amp;to=   from and to are optional stop codes
+ * GET    /api/tickets                    the user's tickets, newest first
+ * POST   /api/tickets                    book {trainId, coachId, journeyDate, passengers: [{name, age}], from?, to?}
+ * GET    /api/tickets/{id}
+ * POST   /api/tickets/{id}/cancel        {securityNumber}
+ * </pre>
+ */
+public class HttpApiServer implements AutoCloseable {
+
+    public static final int DEFAULT_PORT = 8080;
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+
+    private final BookingApi api;
+    private final ObjectMapper objectMapper;
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public HttpApiServer(BookingApi api, int port) throws IOException {
+        this.api = api;
+        this.objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 1024);
+        this.server.createContext("/api/", this::handle);
+        this.server.setExecutor(executor);
+    }
+
+    public void start() {
+        server.start();
+        System.out.println(ColorUtils.GREEN + "🌐 IRCTC API listening on http://" + server.getAddress().getHostString()
+                + ":" + getPort() + "/api/" + ColorUtils.RESET);
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(1);
+        executor.shutdownNow();
+    }
+
+    // ------------------- Routing -------------------
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String method = exchange.getRequestMethod();
+            String[] path = exchange.getRequestURI().getPath().replaceAll("/+$", "").split("/"); // ["", "api", ...]
+            Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+            try {
+                Object body = route(exchange, method, path, query);
+                send(exchange, method.equals("POST") && path.length == 3 && !path[2].equals("login")
+                        && !path[2].equals("logout") ? 201 : 200, body);
+            } catch (ApiException e) {
+                if (e.getStatus() >= 500) logError(exchange, e.getCause() != null ? e.getCause() : e);
+                sendError(exchange, e.getStatus(), e.getMessage());
+            } catch (RuntimeException e) {
+                logError(exchange, e);
+                sendError(exchange, 500, "Internal error");
+            }
+        }
+    }
+
+    private Object route(HttpExchange exchange, String method, String[] path, Map<String, String> query) throws IOException {
+        String resource = path.length > 2 ? path[2] : "";
+        switch (resource) {
+            case "users" -> {
+                requireMethod(method, "POST");
+                return api.register(read(exchange, RegisterRequest.class));
+            }
+            case "login" -> {
+                requireMethod(method, "POST");
+                return api.login(read(exchange, LoginRequest.class));
+            }
+            case "logout" -> {
+                requireMethod(method, "POST");
+                api.logout(bearerToken(exchange));
+                return Map.of("loggedOut", true);
+            }
+            case "me" -> {
+                User user = authenticate(exchange);
+                if (method.equals("PATCH")) return api.updateUser(user, read(exchange, UpdateUserRequest.class));
+                requireMethod(method, "GET");
+                return api.getUser(user);
+            }
+            case "trains" -> {
+                requireMethod(method, "GET");
+                if (path.length == 5 && path[4].equals("availability")) {
+                    return api.getAvailability(path[3], parseDate(query.get("date")), query.get("from"), query.get("to"));
+                }
+                if (path.length != 3) throw ApiException.notFound("No such endpoint");
+                if (query.containsKey("from") || query.containsKey("to")) {
+                    return api.searchTrains(query.get("from"), query.get("to"), parseDate(query.get("date")),
+                            query.get("sort"), query.get("cursor"), parseLimit(query.get("limit")));
+                }
+                return api.searchTrains(query.getOrDefault("q", ""), query.get("sort"), query.get("cursor"),
+                        parseLimit(query.get("limit")));
+            }
+            case "tickets" -> {
+                User user = authenticate(exchange);
+                if (path.length == 3) {
+                    if (method.equals("POST")) return api.book(user, read(exchange, BookingRequest.class));
+                    requireMethod(method, "GET");
+                    return api.getTickets(user, query.get("cursor"), parseLimit(query.get("limit")));
+                }
+                if (path.length == 4) {
+                    requireMethod(method, "GET");
+                    return api.getTicket(user, path[3]);
+                }
+                if (path.length == 5 && path[4].equals("cancel")) {
+                    requireMethod(method, "POST");
+                    return api.cancel(user, path[3], read(exchange, CancelRequest.class));
+                }
+                throw ApiException.notFound("No such endpoint");
+            }
+            default -> throw ApiException.notFound("No such endpoint");
+        }
+    }
+
+    // ------------------- Helper Methods -------------------
+
+    private User authenticate(HttpExchange exchange) {
+        return api.authenticate(bearerToken(exchange));
+    }
+
+    private static String bearerToken(HttpExchange exchange) {
+        String header = exchange.getRequestHeaders().getFirst("Authorization");
+        if (header == null || !header.regionMatches(true, 0, "Bearer ", 0, 7)) return null;
+        return header.substring(7).trim();
+    }
+
+    private static void requireMethod(String method, String expected) {
+        if (!method.equals(expected)) throw ApiException.methodNotAllowed(method);
+    }
+
+    private <T> T read(HttpExchange exchange, Class<T> type) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] body = in.readNBytes(MAX_BODY_BYTES + 1);
+            if (body.length > MAX_BODY_BYTES) throw ApiException.badRequest("Request body too large");
+            if (body.length == 0) throw ApiException.badRequest("Request body is required");
+            T value = objectMapper.readValue(body, type);
+            if (value == null) throw ApiException.badRequest("Request body is required");
+            return value;
+        } catch (com.fasterxml.jackson.core.JacksonException e) {
+            throw ApiException.badRequest("Malformed JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private void send(HttpExchange exchange, int status, Object body) throws IOException {
+        byte[] json = objectMapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, json.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(json);
+        }
+    }
+
+    private static void logError(HttpExchange exchange, Throwable error) {
+        System.out.println(ColorUtils.RED + "⚠ API error on " + exchange.getRequestURI() + ": " + error + ColorUtils.RESET);
+    }
+
+    private void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        send(exchange, status, Map.of("error", message != null ? message : "Request failed"));
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) return params;
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+            String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            params.put(key, value);
+        }
+        return params;
+    }
+
+    private static LocalDate parseDate(String value) {
+        try {
+            return value == null || value.isBlank() ? null : LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw ApiException.badRequest("date must be yyyy-MM-dd");
+        }
+    }
+
+    private static int parseLimit(String value) {
+        if (value == null || value.isBlank()) return Page.DEFAULT_SIZE;
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw ApiException.badRequest("limit must be a number");
+        }
+    }
+}
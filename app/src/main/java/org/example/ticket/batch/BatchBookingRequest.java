@@ -0,0 +1,70 @@
+package org.example.ticket.batch;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.example.ticket.entities.Passenger;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One booking in a batch file.
+ * <p>
+ * JSONL lines use the field names below, with passengers as {@code [{"name": ..., "age": ...}]}
+ * and the date as {@code yyyy-MM-dd}. A JSONL passenger may add {@code "from"} and {@code "to"}
+ * stop codes to travel part of the run; CSV rows always book the whole run. CSV rows use the columns of {@link #CSV_HEADER}, with
+ * passengers written as {@code Name:Age;Name:Age}. CSV fields cannot contain commas.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class BatchBookingRequest {
+
+    public static final String CSV_HEADER = "requestId,email,trainId,coachId,journeyDate,passengers";
+
+    private String requestId;   // Caller's reference, echoed in the results file
+    private String email;       // Registered user the ticket is booked for
+    private String trainId;
+    private String coachId;
+    private LocalDate journeyDate;
+    private List<Passenger> passengers = new ArrayList<>();
+
+    /** Parses one CSV row laid out as {@link #CSV_HEADER}. */
+    public static BatchBookingRequest fromCsv(String line) {
+        String[] fields = line.split(",", -1);
+        if (fields.length != 6) {
+            throw new IllegalArgumentException("Expected 6 CSV fields but found " + fields.length);
+        }
+
+        LocalDate journeyDate;
+        try {
+            journeyDate = fields[4].isBlank() ? null : LocalDate.parse(fields[4].trim());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid journey date '" + fields[4].trim() + "', use yyyy-MM-dd");
+        }
+
+        List<Passenger> passengers = new ArrayList<>();
+        for (String entry : fields[5].split(";")) {
+            if (entry.isBlank()) continue;
+            int colon = entry.lastIndexOf(':');
+            if (colon < 0) throw new IllegalArgumentException("Passenger '" + entry.trim() + "' must be Name:Age");
+
+            Passenger passenger = new Passenger();
+            passenger.setName(entry.substring(0, colon).trim());
+            try {
+                passenger.setAge(Integer.parseInt(entry.substring(colon + 1).trim()));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid age for passenger '" + passenger.getName() + "'");
+            }
+            passengers.add(passenger);
+        }
+
+        return new BatchBookingRequest(fields[0].trim(), fields[1].trim(), fields[2].trim(),
+                fields[3].trim(), journeyDate, passengers);
+    }
+}
@@ -0,0 +1,40 @@
+package org.example.ticket.batch;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.example.ticket.entities.Ticket;
+
+import java.util.List;
+
+/**
+ * Outcome of one batch request, written as one line of the results file.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchBookingResult {
+
+    public enum Status { BOOKED, FAILED }
+
+    private long line;              // 1-based line number in the input file
+    private String requestId;
+    private Status status;
+    private String ticketId;        // Only for BOOKED
+    private String securityNumber;  // Only for BOOKED, needed to cancel the ticket
+    private String coachId;
+    private List<Integer> seats;    // Only for BOOKED
+    private Double fare;            // Only for BOOKED
+    private String error;           // Only for FAILED
+
+    public static BatchBookingResult booked(long line, String requestId, Ticket ticket, String coachId, List<Integer> seats) {
+        return new BatchBookingResult(line, requestId, Status.BOOKED, ticket.getId(), ticket.getSecurityNumber(),
+                coachId, seats, ticket.getTotalPrice(), null);
+    }
+
+    public static BatchBookingResult failed(long line, String requestId, String error) {
+        return new BatchBookingResult(line, requestId, Status.FAILED, null, null, null, null, null, error);
+    }
+}
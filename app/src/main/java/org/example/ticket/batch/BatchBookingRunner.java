@@ -0,0 +1,167 @@
+package org.example.ticket.batch;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.example.ticket.api.BookingApi;
+import org.example.ticket.entities.Passenger;
+import org.example.ticket.entities.Ticket;
+import org.example.ticket.entities.User;
+import org.example.ticket.services.LoginService;
+import org.example.ticket.services.TicketService;
+import org.example.ticket.utils.ColorUtils;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Headless booking mode: streams booking requests from a JSONL or CSV file through the
+ * same validation and seat allocation as the interactive flow, on a pool of worker threads.
+ * <p>
+ * Lines are read one at a time and handed to the pool through a bounded queue, so memory
+ * stays flat for large files. Each outcome is appended to the results file (JSONL) once the
+ * booking is durable; payment is not simulated.
+ */
+public class BatchBookingRunner {
+
+    private static final long ADMISSION_TIMEOUT_SECONDS = 300;  // Batches can afford to wait out a flash sale
+
+    private final LoginService loginService;
+    private final TicketService ticketService;
+    private final BookingApi bookingApi;
+    private final int threads;
+    private final ObjectMapper objectMapper;
+
+    private final AtomicInteger booked = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private final AtomicLong seatsBooked = new AtomicLong();
+
+    public BatchBookingRunner(LoginService loginService, TicketService ticketService, int threads) {
+        if (threads < 1) throw new IllegalArgumentException("Thread count must be at least 1");
+        this.loginService = loginService;
+        this.ticketService = ticketService;
+        this.bookingApi = new BookingApi(loginService, ticketService, ADMISSION_TIMEOUT_SECONDS);
+        this.threads = threads;
+        this.objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    /**
+     * Processes every request in the input file and writes one result line per request.
+     *
+     * @return true if every request was booked
+     */
+    public boolean run(Path input, Path output) throws IOException {
+        boolean csv = input.getFileName().toString().toLowerCase().endsWith(".csv");
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads * 4), new ThreadPoolExecutor.CallerRunsPolicy());
+
+        System.out.println(ColorUtils.CYAN + "📦 Batch booking from " + input + " with " + threads + " threads..." + ColorUtils.RESET);
+        long start = System.nanoTime();
+        long lines = 0;
+
+        try (BufferedReader reader = Files.newBufferedReader(input, StandardCharsets.UTF_8);
+             BufferedWriter writer = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines++;
+                if (line.isBlank() || (csv && lines == 1 && line.startsWith("requestId"))) continue;
+
+                long lineNumber = lines;
+                String raw = line;
+                executor.execute(() -> writeResult(writer, process(lineNumber, raw, csv)));
+            }
+
+            executor.shutdown();
+            try {
+                executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for batch workers", e);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        printReport(System.nanoTime() - start, output);
+        return failed.get() == 0;
+    }
+
+    // ------------------- Request Processing -------------------
+
+    private BatchBookingResult process(long lineNumber, String line, boolean csv) {
+        String requestId = "line-" + lineNumber;
+        try {
+            BatchBookingRequest request = csv
+                    ? BatchBookingRequest.fromCsv(line)
+                    : objectMapper.readValue(line, BatchBookingRequest.class);
+            if (request.getRequestId() != null && !request.getRequestId().isBlank()) requestId = request.getRequestId();
+
+            BatchBookingResult result = book(lineNumber, requestId, request);
+            booked.incrementAndGet();
+            seatsBooked.addAndGet(result.getSeats().size());
+            return result;
+        } catch (IOException | RuntimeException e) {
+            failed.incrementAndGet();
+            return BatchBookingResult.failed(lineNumber, requestId, e.getMessage() != null ? e.getMessage() : e.toString());
+        }
+    }
+
+    /** Looks up the booker, then books through {@link BookingApi}, which waits until the booking is durable. */
+    private BatchBookingResult book(long lineNumber, String requestId, BatchBookingRequest request) {
+        User user = loginService.findUserByEmail(request.getEmail());
+        if (user == null) throw new IllegalArgumentException("User not found with email '" + request.getEmail() + "'");
+
+        List<Passenger> passengers = new ArrayList<>();
+        if (request.getPassengers() != null) {
+            for (Passenger p : request.getPassengers()) {
+                Passenger passenger = new Passenger(p.getName(), p.getAge(), request.getCoachId(), 0); // Validates name and age
+                passenger.travel(p.getFrom(), p.getTo());
+                passengers.add(passenger);
+            }
+        }
+
+        Ticket ticket = bookingApi.book(user, request.getTrainId(), request.getCoachId(), request.getJourneyDate(), passengers);
+        String coachId = ticketService.getTrainByNumber(ticket.getTrainId()).getCoach(request.getCoachId()).getId();
+        List<Integer> seats = passengers.stream().map(Passenger::getSeatNumber).toList();
+        return BatchBookingResult.booked(lineNumber, requestId, ticket, coachId, seats);
+    }
+
+    // ------------------- Helper Methods -------------------
+
+    private void writeResult(BufferedWriter writer, BatchBookingResult result) {
+        try {
+            String json = objectMapper.writeValueAsString(result);
+            synchronized (writer) {
+                writer.write(json);
+                writer.newLine();
+            }
+        } catch (IOException e) {
+            System.out.println(ColorUtils.RED + "❌ Error writing batch result for " + result.getRequestId()
+                    + ": " + e.getMessage() + ColorUtils.RESET);
+        }
+    }
+
+    private void printReport(long elapsedNanos, Path output) {
+        int total = booked.get() + failed.get();
+        double seconds = elapsedNanos / 1_000_000_000.0;
+        System.out.println(ColorUtils.CYAN + "====================================================" + ColorUtils.RESET);
+        System.out.println(ColorUtils.GREEN + "✅ Booked: " + booked.get() + " (" + seatsBooked.get() + " seats)" + ColorUtils.RESET);
+        System.out.println((failed.get() == 0 ? ColorUtils.GREEN : ColorUtils.RED) + "❌ Failed: " + failed.get() + ColorUtils.RESET);
+        System.out.printf("⏱ %d requests in %.2f s (%.1f requests/s)%n", total, seconds, seconds > 0 ? total / seconds : 0.0);
+        System.out.println("📄 Results written to " + output.toAbsolutePath());
+        System.out.println(ColorUtils.CYAN + "====================================================" + ColorUtils.RESET);
+    }
+}
@@ -0,0 +1,96 @@
+package org.example.ticket.entities;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Free-seat counts of one train per journey date, for the whole train and per coach type.
+ * <p>
+ * Every {@link SeatInventory} of the train reports each change to its booked-or-held count,
+ * so availability is one subtraction per query instead of a walk over all coaches. A seat
+ * booked for part of the run is counted as taken here, as it can no longer be sold for the
+ * whole run; availability for a leg is asked of the coaches. Counters
+ * are atomic because coaches of one train are booked under different locks.
+ * <p>
+ * Capacities are recomputed, and counts recounted from the inventories, only when the coach
+ * list or a coach's size changes. That must not overlap with bookings; the ticket service makes
+ * catalogue changes under its write lock.
+ */
+public class AvailabilitySummary {
+
+    private static final int TRAIN_SLOT = 0; // Slot of the whole-train counter; coach types use 1..n
+
+    private final List<Coach> coaches;
+    private volatile Map<String, Integer> typeSlots = Map.of();
+    private volatile int[] capacities = new int[1];
+    private final Map<LocalDate, AtomicIntegerArray> occupied = new ConcurrentHashMap<>(); // Booked or held seats per slot
+
+    AvailabilitySummary(List<Coach> coaches) {
+        this.coaches = coaches;
+        rebuild();
+    }
+
+    // ------------------- Queries -------------------
+
+    public int getTotalSeats() {
+        return capacities[TRAIN_SLOT];
+    }
+
+    public int getAvailableSeats(LocalDate journeyDate) {
+        return available(journeyDate, TRAIN_SLOT);
+    }
+
+    /** Free seats over all coaches of a type, or 0 if the train has no such coach. */
+    public int getAvailableSeats(LocalDate journeyDate, String coachType) {
+        Integer slot = typeSlots.get(coachType);
+        return slot == null ? 0 : available(journeyDate, slot);
+    }
+
+    // ------------------- Updates -------------------
+
+    /** Recomputes capacities and recounts every inventory. Called when coaches change. */
+    synchronized void rebuild() {
+        Map<String, Integer> slots = new HashMap<>();
+        for (Coach coach : coaches) {
+            slots.putIfAbsent(coach.getType(), slots.size() + 1);
+        }
+        int[] newCapacities = new int[slots.size() + 1];
+        for (Coach coach : coaches) {
+            int seats = Math.max(0, coach.getTotalSeats());
+            newCapacities[TRAIN_SLOT] += seats;
+            newCapacities[slots.get(coach.getType())] += seats;
+        }
+
+        occupied.clear();
+        this.typeSlots = slots;
+        this.capacities = newCapacities;
+        for (Coach coach : coaches) {
+            coach.attach(this, slots.get(coach.getType()));
+        }
+    }
+
+    /** Applies a change of {@code delta} booked-or-held seats in a coach of the given type slot. */
+    void add(LocalDate journeyDate, int slot, int delta) {
+        if (delta == 0) return;
+        AtomicIntegerArray counts = occupied.computeIfAbsent(journeyDate, d -> new AtomicIntegerArray(capacities.length));
+        counts.addAndGet(TRAIN_SLOT, delta);
+        counts.addAndGet(slot, delta);
+    }
+
+    /** Drops counts of journeys before the given date, alongside the inventories. */
+    void evictBefore(LocalDate date) {
+        occupied.keySet().removeIf(journeyDate -> journeyDate.isBefore(date));
+    }
+
+    // ------------------- Helper Methods -------------------
+
+    private int available(LocalDate journeyDate, int slot) {
+        AtomicIntegerArray counts = occupied.get(journeyDate);
+        int used = counts == null ? 0 : counts.get(slot);
+        return Math.max(0, capacities[slot] - used);
+    }
+}
@@ -1,15 +1,27 @@
 package org.example.ticket.entities;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
-import java.util.HashMap;
+import java.time.LocalDate;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntConsumer;
 
 /**
  * Represents a Coach in a Train.
  * Each coach belongs to a train, has a type, and manages its seats.
+ * <p>
+ * Seat occupancy is kept per journey date: each date gets its own {@link SeatInventory},
+ * created the first time that date is booked, with one segment per pair of consecutive stops
+ * of the train. In JSON the inventories are stored under {@code journeys} as journey date ->
+ * seat key -> passenger, in the {@link SeatInventory#toMap()} layout. The date map is concurrent;
+ * changes to one inventory are serialized by {@link org.example.ticket.services.BookingEngine}.
  */
 @Data
 @NoArgsConstructor
@@ -20,7 +32,26 @@ public class Coach {
     private String type;
     private int totalSeats;
     private double price;
-    private Map<Integer, Passenger> seats = new HashMap<>();
+
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Map<LocalDate, SeatInventory> inventories = new ConcurrentHashMap<>();
+
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private AvailabilitySummary availability; // Train-level counters this coach reports to, once attached
+
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private int availabilitySlot;
+
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private int segmentCount = 1; // Segments of the train's run, set by the train
 
     // All-args constructor
     public Coach(String id, String trainId, String type, int totalSeats, double price) {
@@ -29,41 +60,113 @@ public class Coach {
         this.type = type;
         this.totalSeats = totalSeats;
         this.price = price;
-        this.seats = new HashMap<>();
+        this.inventories = new ConcurrentHashMap<>();
+    }
+
+    // ------------------- JSON Accessors -------------------
+
+    public void setTotalSeats(int totalSeats) {
+        this.totalSeats = totalSeats;
+        inventories.values().forEach(inventory -> inventory.resize(Math.max(0, totalSeats)));
+        if (availability != null) availability.rebuild();
+    }
+
+    /** Booked seats as journey date -> seat key -> passenger. Read-only snapshot. */
+    public Map<LocalDate, Map<String, Passenger>> getJourneys() {
+        Map<LocalDate, Map<String, Passenger>> journeys = new TreeMap<>();
+        inventories.forEach((date, inventory) -> {
+            if (inventory.getBookedCount() > 0) journeys.put(date, inventory.toMap());
+        });
+        return journeys;
+    }
+
+    public void setJourneys(Map<LocalDate, Map<String, Passenger>> journeys) {
+        inventories.clear();
+        if (journeys == null) return;
+        journeys.forEach((date, seats) -> getInventory(date).load(seats));
+        if (availability != null) availability.rebuild();
+    }
+
+    /** Splits every inventory into the given number of segments, keeping bookings by stop. */
+    public void setSegmentCount(int segmentCount) {
+        this.segmentCount = Math.max(1, segmentCount);
+        inventories.values().forEach(inventory -> inventory.setSegmentCount(this.segmentCount));
     }
 
     // ------------------- Helper Methods -------------------
 
-    public int getAvailableSeats() {
-        return totalSeats - seats.size();
+    /** Returns the inventory for a journey date, creating an empty one on first use. */
+    public SeatInventory getInventory(LocalDate journeyDate) {
+        return inventories.computeIfAbsent(journeyDate, date -> {
+            SeatInventory inventory = new SeatInventory(Math.max(0, totalSeats), segmentCount);
+            if (availability != null) inventory.setOccupancyListener(occupancyListener(availability, availabilitySlot, date));
+            return inventory;
+        });
+    }
+
+    /** Returns the inventory for a journey date without creating it, or null. */
+    public SeatInventory findInventory(LocalDate journeyDate) {
+        return inventories.get(journeyDate);
+    }
+
+    public int getAvailableSeats(LocalDate journeyDate) {
+        SeatInventory inventory = inventories.get(journeyDate);
+        return inventory == null ? totalSeats : inventory.getAvailableCount();
+    }
+
+    /** Seats free for a whole leg on a journey date. */
+    public int getAvailableSeats(LocalDate journeyDate, Leg leg) {
+        SeatInventory inventory = inventories.get(journeyDate);
+        return inventory == null ? totalSeats : inventory.getAvailableCount(leg.from(), leg.to());
     }
 
-    public boolean bookSeat(int seatNumber, Passenger passenger) {
+    public boolean bookSeat(LocalDate journeyDate, int seatNumber, Passenger passenger) {
         if (seatNumber < 1 || seatNumber > totalSeats) {
             System.out.println("❌ Invalid seat number!");
             return false;
         }
-        if (seats.containsKey(seatNumber)) {
+        if (!getInventory(journeyDate).book(seatNumber, passenger)) {
             System.out.println("❌ Seat already booked!");
             return false;
         }
-        seats.put(seatNumber, passenger);
         System.out.println("✅ Seat " + seatNumber + " booked for " + passenger.getName()
                 + " | Price: ₹" + price);
         return true;
     }
 
-    public boolean cancelSeat(int seatNumber) {
-        if (!seats.containsKey(seatNumber)) {
+    public boolean cancelSeat(LocalDate journeyDate, int seatNumber) {
+        SeatInventory inventory = inventories.get(journeyDate);
+        if (inventory == null || inventory.cancel(seatNumber) == null) {
             System.out.println("❌ No booking found for this seat.");
             return false;
         }
-        seats.remove(seatNumber);
         System.out.println("✅ Seat " + seatNumber + " cancelled.");
         return true;
     }
 
-    public boolean isSeatAvailable(int seatNumber) {
-        return !seats.containsKey(seatNumber);
+    public boolean isSeatAvailable(LocalDate journeyDate, int seatNumber) {
+        SeatInventory inventory = inventories.get(journeyDate);
+        return inventory == null ? seatNumber >= 1 && seatNumber <= totalSeats : inventory.isAvailable(seatNumber);
+    }
+
+    /** Reports this coach's seat changes to a train's summary, counting the seats already taken. */
+    void attach(AvailabilitySummary summary, int slot) {
+        this.availability = summary;
+        this.availabilitySlot = slot;
+        inventories.forEach((date, inventory) -> {
+            inventory.setOccupancyListener(occupancyListener(summary, slot, date));
+            summary.add(date, slot, inventory.getOccupiedCount());
+        });
+    }
+
+    private static IntConsumer occupancyListener(AvailabilitySummary summary, int slot, LocalDate date) {
+        return delta -> summary.add(date, slot, delta);
+    }
+
+    /** Drops inventories for journeys before the given date. Returns how many were dropped. */
+    public int evictJourneysBefore(LocalDate date) {
+        int before = inventories.size();
+        inventories.keySet().removeIf(journeyDate -> journeyDate.isBefore(date));
+        return before - inventories.size();
     }
 }
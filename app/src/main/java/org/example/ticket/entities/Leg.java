@@ -0,0 +1,19 @@
+package org.example.ticket.entities;
+
+/**
+ * Part of a train's run a seat is sold for, from stop index {@code from} to stop index
+ * {@code to}. Index 0 is the source station; it covers the segments {@code [from, to)}.
+ */
+public record Leg(int from, int to) {
+
+    public Leg {
+        if (from < 0 || to <= from) {
+            throw new IllegalArgumentException("Invalid leg " + from + "-" + to);
+        }
+    }
+
+    /** Number of segments the leg covers. */
+    public int length() {
+        return to - from;
+    }
+}
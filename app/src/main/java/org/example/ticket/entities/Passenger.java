@@ -1,18 +1,22 @@
 package org.example.ticket.entities;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Data
 @NoArgsConstructor
 @JsonIgnoreProperties(ignoreUnknown = true)
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class Passenger {
 
     private String name;
     private int age;
     private String coach;
     private int seatNumber;
+    private String from;    // Boarding stop code; null boards at the source
+    private String to;      // Alighting stop code; null travels to the destination
 
     public Passenger(String name, int age, String coach,int seatNumber) {
         if (name == null || name.isBlank()) {
@@ -31,6 +35,12 @@ public class Passenger {
         this.seatNumber = seatNumber;
     }
 
+    /** Sets the stops the passenger travels between; null codes stand for the ends of the run. */
+    public void travel(String from, String to) {
+        this.from = from != null ? from.toUpperCase() : null;
+        this.to = to != null ? to.toUpperCase() : null;
+    }
+
     public void assignSeat(int seatNumber) {
         if (seatNumber <= 0) {
             throw new IllegalArgumentException("Seat number must be greater than 0");
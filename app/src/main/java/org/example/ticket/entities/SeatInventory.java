@@ -0,0 +1,580 @@
+package org.example.ticket.entities;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntConsumer;
+
+/**
+ * Primitive seat-occupancy store for a single coach on one journey date.
+ * <p>
+ * A train's run is split into segments, one between each pair of consecutive stops, and a seat
+ * can be sold separately for each part of the run. Occupancy is kept as one bitmap of 64-seat
+ * words per segment, so "is seat s free from stop i to stop j" ORs j - i words, and free-seat
+ * lookups and counts are word-level bit operations with no boxing. A booking covers the
+ * segments {@code [from, to)}; a train without intermediate stops has a single segment.
+ * Seat numbers are 1-based, like everywhere else in the app.
+ * <p>
+ * A second set of bitmaps marks seats held for a booking that is being paid for. A held seat is
+ * neither free nor booked: nobody else can take it, and {@link #confirm} turns it into a
+ * booking without it ever becoming free in between. Holds are never persisted.
+ * <p>
+ * A seat counts as occupied while any segment of it is booked or held, as it can then no longer
+ * be sold for the whole run. Every change to the number of occupied seats is reported to the
+ * occupancy listener, which keeps the train's {@link AvailabilitySummary} current.
+ * <p>
+ * Not thread-safe: concurrent changes go through {@link org.example.ticket.services.BookingEngine}.
+ */
+public class SeatInventory {
+
+    private static final int WORD_BITS = 64;
+
+    private int capacity;           // Number of seats in the coach
+    private int segments;           // Number of segments in the run, at least 1
+    private long[][] booked;        // [segment][word]: bit (seat - 1) is set when the seat is booked on that segment
+    private long[][] held;          // [segment][word]: bit (seat - 1) is set when the seat is held on that segment
+    private long[][] starts;        // [segment][word]: bit (seat - 1) is set where a booking of the seat starts
+    private long[][] holdStarts;    // [segment][word]: bit (seat - 1) is set where a hold of the seat starts
+    private long[] occupied;        // Bit (seat - 1) is set when the seat is booked or held on any segment
+    private long[] openEnded;       // Bit (seat - 1) is set when the seat's booking on the last segment runs to the terminus
+    private Passenger[][] passengers; // [segment][seat - 1]: passenger of the booking covering it; rows made on first use
+    private volatile int bookedCount;   // Bookings; volatile so availability can be read without the booking lock
+    private volatile int heldCount;     // Holds
+    private volatile int occupiedCount; // Set bits in occupied
+    private IntConsumer occupancyListener = delta -> { }; // Told of each change to occupiedCount
+
+    // ------------------- Constructors -------------------
+    public SeatInventory(int capacity) {
+        this(capacity, 1);
+    }
+
+    public SeatInventory(int capacity, int segments) {
+        if (capacity < 0) throw new IllegalArgumentException("Capacity cannot be negative");
+        if (segments < 1) throw new IllegalArgumentException("A run has at least one segment");
+        this.capacity = capacity;
+        this.segments = segments;
+        allocate();
+    }
+
+    // ------------------- Public Getters -------------------
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getSegmentCount() {
+        return segments;
+    }
+
+    /** Number of bookings; a seat sold for two parts of the run counts twice. */
+    public int getBookedCount() {
+        return bookedCount;
+    }
+
+    /** Number of holds. */
+    public int getHeldCount() {
+        return heldCount;
+    }
+
+    /** Seats free for the whole run. */
+    public int getAvailableCount() {
+        return Math.max(0, capacity - occupiedCount);
+    }
+
+    /** Seats booked or held on at least one segment. */
+    public int getOccupiedCount() {
+        return occupiedCount;
+    }
+
+    /** Seats free on every segment from stop {@code from} to stop {@code to}. */
+    public int getAvailableCount(int from, int to) {
+        checkLeg(from, to);
+        if (from == 0 && to == segments) return getAvailableCount();
+        int count = 0;
+        for (int w = 0; w < occupied.length; w++) {
+            count += Long.bitCount(freeWord(w, from, to));
+        }
+        return count;
+    }
+
+    public void setOccupancyListener(IntConsumer occupancyListener) {
+        this.occupancyListener = occupancyListener;
+    }
+
+    // ------------------- Whole Run -------------------
+
+    /** Returns true if the seat exists and is neither booked nor held on any segment. */
+    public boolean isAvailable(int seatNumber) {
+        if (seatNumber < 1 || seatNumber > capacity) return false;
+        int bit = seatNumber - 1;
+        return (occupied[bit >>> 6] & (1L << bit)) == 0;
+    }
+
+    /** Returns true if the seat is held for the whole run. */
+    public boolean isHeld(int seatNumber) {
+        return isHeld(seatNumber, 0, segments);
+    }
+
+    public boolean hold(int seatNumber) {
+        return hold(seatNumber, 0, segments);
+    }
+
+    public boolean release(int seatNumber) {
+        return release(seatNumber, 0, segments);
+    }
+
+    public boolean confirm(int seatNumber, Passenger passenger) {
+        return confirm(seatNumber, 0, segments, passenger);
+    }
+
+    public boolean book(int seatNumber, Passenger passenger) {
+        return book(seatNumber, 0, segments, passenger);
+    }
+
+    /** Frees the booking of a seat that starts at the source. Returns its passenger, or null. */
+    public Passenger cancel(int seatNumber) {
+        return cancel(seatNumber, 0);
+    }
+
+    /** Returns the passenger on a seat as the train leaves its source, or null. */
+    public Passenger getPassenger(int seatNumber) {
+        return getPassenger(seatNumber, 0);
+    }
+
+    /** Returns the lowest seat number free for the whole run, or -1 if there is none. */
+    public int firstAvailable() {
+        return nextAvailable(1);
+    }
+
+    /** Returns the lowest seat number {@code >= fromSeat} free for the whole run, or -1. */
+    public int nextAvailable(int fromSeat) {
+        int bit = Math.max(fromSeat, 1) - 1;
+        if (bit >= capacity) return -1;
+
+        int wordIndex = bit >>> 6;
+        long free = ~occupied[wordIndex] & (-1L << bit);
+        while (true) {
+            if (free != 0) {
+                int seat = wordIndex * WORD_BITS + Long.numberOfTrailingZeros(free) + 1;
+                return seat <= capacity ? seat : -1;
+            }
+            if (++wordIndex == occupied.length) return -1;
+            free = ~occupied[wordIndex];
+        }
+    }
+
+    /** Returns all seat numbers free for the whole run in ascending order. */
+    public List<Integer> availableSeatNumbers() {
+        List<Integer> seats = new ArrayList<>(getAvailableCount());
+        for (int seat = firstAvailable(); seat != -1; seat = nextAvailable(seat + 1)) {
+            seats.add(seat);
+        }
+        return seats;
+    }
+
+    // ------------------- Legs -------------------
+
+    /** Returns true if the seat exists and is free on every segment from stop {@code from} to stop {@code to}. */
+    public boolean isAvailable(int seatNumber, int from, int to) {
+        checkLeg(from, to);
+        if (seatNumber < 1 || seatNumber > capacity) return false;
+        int bit = seatNumber - 1;
+        long mask = 1L << bit;
+        for (int s = from; s < to; s++) {
+            if (((booked[s][bit >>> 6] | held[s][bit >>> 6]) & mask) != 0) return false;
+        }
+        return true;
+    }
+
+    /** Returns true if the seat is held on every segment of the leg. */
+    public boolean isHeld(int seatNumber, int from, int to) {
+        checkLeg(from, to);
+        if (seatNumber < 1 || seatNumber > capacity) return false;
+        int bit = seatNumber - 1;
+        for (int s = from; s < to; s++) {
+            if ((held[s][bit >>> 6] & (1L << bit)) == 0) return false;
+        }
+        return true;
+    }
+
+    /** Holds a seat for a leg. Returns false if the seat is invalid or not free for all of it. */
+    public boolean hold(int seatNumber, int from, int to) {
+        if (!isAvailable(seatNumber, from, to)) return false;
+        int bit = seatNumber - 1;
+        holdStarts[from][bit >>> 6] |= 1L << bit;
+        for (int s = from; s < to; s++) held[s][bit >>> 6] |= 1L << bit;
+        heldCount++;
+        updateOccupied(bit);
+        return true;
+    }
+
+    /**
+     * Frees a seat held for a leg. Returns false unless one hold covers exactly that leg, so
+     * part of a hold can never be released on its own.
+     */
+    public boolean release(int seatNumber, int from, int to) {
+        if (seatNumber < 1 || seatNumber > capacity || from < 0 || to <= from || to > segments) return false;
+        int bit = seatNumber - 1;
+        int word = bit >>> 6;
+        long mask = 1L << bit;
+        if ((holdStarts[from][word] & mask) == 0 || holdEnd(bit, from) != to) return false;
+
+        holdStarts[from][word] &= ~mask;
+        for (int s = from; s < to; s++) held[s][word] &= ~mask;
+        heldCount--;
+        updateOccupied(bit);
+        return true;
+    }
+
+    /** Books a seat held for a leg. Returns false if the seat was not held for it. */
+    public boolean confirm(int seatNumber, int from, int to, Passenger passenger) {
+        return release(seatNumber, from, to) && book(seatNumber, from, to, passenger);
+    }
+
+    /**
+     * Books a seat for a leg. A booking to the last stop runs to the terminus, and stays so if
+     * stops are added to the run. Returns false if the seat is invalid or taken on any segment.
+     */
+    public boolean book(int seatNumber, int from, int to, Passenger passenger) {
+        if (!isAvailable(seatNumber, from, to)) return false;
+        store(seatNumber - 1, from, to, passenger, to == segments);
+        return true;
+    }
+
+    /** Frees the booking of a seat that starts at stop {@code from}. Returns its passenger, or null. */
+    public Passenger cancel(int seatNumber, int from) {
+        if (seatNumber < 1 || seatNumber > capacity || from < 0 || from >= segments) return null;
+        int bit = seatNumber - 1;
+        int word = bit >>> 6;
+        long mask = 1L << bit;
+        if ((starts[from][word] & mask) == 0) return null;
+
+        int to = bookingEnd(bit, from);
+        Passenger passenger = passengers[from][bit];
+        starts[from][word] &= ~mask;
+        for (int s = from; s < to; s++) {
+            booked[s][word] &= ~mask;
+            passengers[s][bit] = null;
+        }
+        if (to == segments) openEnded[word] &= ~mask;
+        bookedCount--;
+        updateOccupied(bit);
+        return passenger;
+    }
+
+    /** Returns the passenger whose booking of the seat covers the segment after stop {@code stop}, or null. */
+    public Passenger getPassenger(int seatNumber, int stop) {
+        if (seatNumber < 1 || seatNumber > capacity || stop < 0 || stop >= segments) return null;
+        Passenger[] row = passengers[stop];
+        return row == null ? null : row[seatNumber - 1];
+    }
+
+    /** Returns the lowest seat number {@code >= fromSeat} free for the whole leg, or -1. */
+    public int nextAvailable(int fromSeat, int from, int to) {
+        checkLeg(from, to);
+        int bit = Math.max(fromSeat, 1) - 1;
+        for (int w = bit >>> 6; w < occupied.length; w++) {
+            long free = freeWord(w, from, to);
+            if (w == bit >>> 6) free &= -1L << bit;
+            if (free != 0) return w * WORD_BITS + Long.numberOfTrailingZeros(free) + 1;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the free seat that fits the leg most tightly, or -1 if no seat is free for all of it.
+     * <p>
+     * A seat's slack is the number of free segments it would still have right before and right
+     * after the leg. The seat with the least slack is chosen, lowest seat number first, so
+     * bookings pack end to end and long free stretches stay available for long journeys.
+     * Each 64-seat word is peeled segment by segment outwards from the leg, so the search is
+     * word-parallel and never looks at seats one by one.
+     */
+    public int bestFit(int from, int to) {
+        checkLeg(from, to);
+        if (from == 0 && to == segments) return firstAvailable(); // Nothing outside the leg
+
+        int maxLeft = from;
+        int maxRight = segments - to;
+        long[] exactLeft = new long[maxLeft + 1];   // Candidates with exactly k free segments before the leg
+        long[] exactRight = new long[maxRight + 1]; // Candidates with exactly k free segments after it
+        int bestSlack = Integer.MAX_VALUE;
+        int bestSeat = -1;
+
+        for (int w = 0; w < occupied.length && bestSlack > 0; w++) {
+            long free = freeWord(w, from, to);
+            if (free == 0) continue;
+
+            long remaining = free;
+            for (int k = 0; k < maxLeft; k++) {
+                long next = remaining & ~(booked[from - 1 - k][w] | held[from - 1 - k][w]);
+                exactLeft[k] = remaining & ~next;
+                remaining = next;
+            }
+            exactLeft[maxLeft] = remaining;
+            remaining = free;
+            for (int k = 0; k < maxRight; k++) {
+                long next = remaining & ~(booked[to + k][w] | held[to + k][w]);
+                exactRight[k] = remaining & ~next;
+                remaining = next;
+            }
+            exactRight[maxRight] = remaining;
+
+            // Smallest slack in this word; only slack below the best so far can win
+            for (int slack = 0; slack < bestSlack && slack <= maxLeft + maxRight; slack++) {
+                long fit = 0;
+                for (int left = Math.max(0, slack - maxRight); left <= Math.min(slack, maxLeft); left++) {
+                    fit |= exactLeft[left] & exactRight[slack - left];
+                }
+                if (fit != 0) {
+                    bestSlack = slack;
+                    bestSeat = w * WORD_BITS + Long.numberOfTrailingZeros(fit) + 1;
+                    break;
+                }
+            }
+        }
+        return bestSeat;
+    }
+
+    // ------------------- Layout Changes -------------------
+
+    /** Grows or shrinks the inventory. Bookings and holds above the new capacity are dropped. */
+    public void resize(int newCapacity) {
+        if (newCapacity < 0) throw new IllegalArgumentException("Capacity cannot be negative");
+        if (newCapacity == capacity) return;
+
+        for (int bit = newCapacity; bit < capacity; bit++) {
+            clearSeat(bit);
+        }
+        int words = wordCount(newCapacity);
+        for (int s = 0; s < segments; s++) {
+            booked[s] = Arrays.copyOf(booked[s], words);
+            held[s] = Arrays.copyOf(held[s], words);
+            holdStarts[s] = Arrays.copyOf(holdStarts[s], words);
+            starts[s] = Arrays.copyOf(starts[s], words);
+            if (passengers[s] != null) passengers[s] = Arrays.copyOf(passengers[s], newCapacity);
+        }
+        occupied = Arrays.copyOf(occupied, words);
+        openEnded = Arrays.copyOf(openEnded, words);
+        capacity = newCapacity;
+    }
+
+    /**
+     * Changes the number of segments, keeping bookings by stop index. Bookings to the terminus
+     * still run to the terminus; other bookings are cut at the new last stop, or dropped if they
+     * start after it. Drops holds.
+     */
+    public void setSegmentCount(int newSegments) {
+        if (newSegments < 1) throw new IllegalArgumentException("A run has at least one segment");
+        if (newSegments == segments) return;
+        Map<String, Passenger> bookings = toMap();
+        reset(capacity, newSegments);
+        bookings.forEach((key, passenger) -> restore(parseSeatKey(key), passenger));
+    }
+
+    // ------------------- JSON Layout -------------------
+
+    /**
+     * Returns bookings by seat, in seat then stop order (JSON layout). A booking of the whole
+     * run is keyed by its seat number, as {@code "12"}; one from stop 3 to the terminus as
+     * {@code "12@3"}, and one from stop 3 to stop 5 as {@code "12@3-5"}.
+     */
+    public Map<String, Passenger> toMap() {
+        Map<String, Passenger> map = new LinkedHashMap<>();
+        for (int w = 0; w < occupied.length; w++) {
+            long used = occupied[w];
+            while (used != 0) {
+                int bit = w * WORD_BITS + Long.numberOfTrailingZeros(used);
+                used &= used - 1;
+                for (int from = 0; from < segments; from++) {
+                    if ((starts[from][w] & (1L << bit)) == 0) continue;
+                    int to = bookingEnd(bit, from);
+                    boolean toTerminus = to == segments && (openEnded[w] & (1L << bit)) != 0;
+                    map.put(seatKey(bit + 1, from, toTerminus ? -1 : to), passengers[from][bit]);
+                }
+            }
+        }
+        return Collections.unmodifiableMap(map);
+    }
+
+    /**
+     * Replaces all bookings with the given map in {@link #toMap()} layout, growing the seats
+     * and segments if needed. Drops holds.
+     *
+     * @throws IllegalArgumentException if a key is malformed
+     */
+    public void load(Map<String, Passenger> seats) {
+        int[][] parsed = new int[seats == null ? 0 : seats.size()][];
+        int highestSeat = 0;
+        int lastStop = 1;
+        if (seats != null) {
+            int i = 0;
+            for (String key : seats.keySet()) {
+                int[] booking = parseSeatKey(key);
+                highestSeat = Math.max(highestSeat, booking[0]);
+                lastStop = Math.max(lastStop, booking[2] >= 0 ? booking[2] : booking[1] + 1);
+                parsed[i++] = booking;
+            }
+        }
+
+        reset(Math.max(capacity, highestSeat), Math.max(segments, lastStop));
+        if (seats == null) return;
+
+        int i = 0;
+        for (Passenger passenger : seats.values()) {
+            restore(parsed[i++], passenger);
+        }
+    }
+
+    // ------------------- Helper Methods -------------------
+
+    /** Drops every booking and hold and lays out empty bitmaps for the given size. */
+    private void reset(int newCapacity, int newSegments) {
+        occupancyListener.accept(-occupiedCount);
+        occupiedCount = 0;
+        bookedCount = 0;
+        heldCount = 0;
+        capacity = newCapacity;
+        segments = newSegments;
+        allocate();
+    }
+
+    /** Books a parsed seat key, cut at the last stop; skipped if it starts past it or overlaps a booking. */
+    private void restore(int[] booking, Passenger passenger) {
+        int from = booking[1];
+        if (from >= segments) return;
+        int to = booking[2] >= 0 ? Math.min(booking[2], segments) : segments;
+        if (isAvailable(booking[0], from, to)) store(booking[0] - 1, from, to, passenger, booking[2] < 0);
+    }
+
+    private void allocate() {
+        int words = wordCount(capacity);
+        booked = new long[segments][words];
+        held = new long[segments][words];
+        holdStarts = new long[segments][words];
+        starts = new long[segments][words];
+        occupied = new long[words];
+        openEnded = new long[words];
+        passengers = new Passenger[segments][];
+    }
+
+    /** Marks a free leg of a seat as booked. */
+    private void store(int bit, int from, int to, Passenger passenger, boolean toTerminus) {
+        int word = bit >>> 6;
+        long mask = 1L << bit;
+        starts[from][word] |= mask;
+        for (int s = from; s < to; s++) {
+            booked[s][word] |= mask;
+            if (passengers[s] == null) passengers[s] = new Passenger[capacity];
+            passengers[s][bit] = passenger;
+        }
+        if (toTerminus) openEnded[word] |= mask;
+        bookedCount++;
+        updateOccupied(bit);
+    }
+
+    /** Stop where the booking of a seat starting at {@code from} ends. */
+    private int bookingEnd(int bit, int from) {
+        int word = bit >>> 6;
+        long mask = 1L << bit;
+        int to = from + 1;
+        while (to < segments && (booked[to][word] & mask) != 0 && (starts[to][word] & mask) == 0) to++;
+        return to;
+    }
+
+    /** Stop where the hold of a seat starting at {@code from} ends. */
+    private int holdEnd(int bit, int from) {
+        int word = bit >>> 6;
+        long mask = 1L << bit;
+        int to = from + 1;
+        while (to < segments && (held[to][word] & mask) != 0 && (holdStarts[to][word] & mask) == 0) to++;
+        return to;
+    }
+
+    /** Drops every booking and hold of one seat. */
+    private void clearSeat(int bit) {
+        int word = bit >>> 6;
+        long mask = 1L << bit;
+        for (int s = 0; s < segments; s++) {
+            if ((starts[s][word] & mask) != 0) bookedCount--;
+            if ((holdStarts[s][word] & mask) != 0) heldCount--;
+            booked[s][word] &= ~mask;
+            held[s][word] &= ~mask;
+            holdStarts[s][word] &= ~mask;
+            starts[s][word] &= ~mask;
+            if (passengers[s] != null) passengers[s][bit] = null;
+        }
+        openEnded[word] &= ~mask;
+        updateOccupied(bit);
+    }
+
+    /** Recomputes whether a seat is in use on any segment and reports a change. */
+    private void updateOccupied(int bit) {
+        int word = bit >>> 6;
+        long mask = 1L << bit;
+        boolean inUse = false;
+        for (int s = 0; s < segments && !inUse; s++) {
+            inUse = ((booked[s][word] | held[s][word]) & mask) != 0;
+        }
+        boolean wasInUse = (occupied[word] & mask) != 0;
+        if (inUse == wasInUse) return;
+
+        if (inUse) {
+            occupied[word] |= mask;
+            occupiedCount++;
+            occupancyListener.accept(1);
+        } else {
+            occupied[word] &= ~mask;
+            occupiedCount--;
+            occupancyListener.accept(-1);
+        }
+    }
+
+    /** Seats of one word that are free on every segment of the leg, within capacity. */
+    private long freeWord(int w, int from, int to) {
+        long blocked = 0;
+        for (int s = from; s < to; s++) blocked |= booked[s][w] | held[s][w];
+        long free = ~blocked;
+        int seatsInWord = capacity - w * WORD_BITS;
+        return seatsInWord >= WORD_BITS ? free : free & ((1L << seatsInWord) - 1);
+    }
+
+    private void checkLeg(int from, int to) {
+        if (from < 0 || to > segments || from >= to) {
+            throw new IllegalArgumentException("Invalid leg " + from + "-" + to + " of " + segments + " segments");
+        }
+    }
+
+    private static String seatKey(int seatNumber, int from, int to) {
+        if (to < 0) return from == 0 ? String.valueOf(seatNumber) : seatNumber + "@" + from;
+        return seatNumber + "@" + from + "-" + to;
+    }
+
+    /** Parses a seat key into {seat, from, to}, with to = -1 for the terminus. */
+    private static int[] parseSeatKey(String key) {
+        try {
+            int at = key.indexOf('@');
+            if (at < 0) return new int[]{positive(Integer.parseInt(key)), 0, -1};
+            int seat = positive(Integer.parseInt(key.substring(0, at)));
+            int dash = key.indexOf('-', at);
+            if (dash < 0) return new int[]{seat, Integer.parseInt(key.substring(at + 1)), -1};
+            int from = Integer.parseInt(key.substring(at + 1, dash));
+            int to = Integer.parseInt(key.substring(dash + 1));
+            if (from < 0 || to <= from) throw new NumberFormatException();
+            return new int[]{seat, from, to};
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid seat key '" + key + "'");
+        }
+    }
+
+    private static int positive(int seatNumber) {
+        if (seatNumber < 1) throw new NumberFormatException();
+        return seatNumber;
+    }
+
+    private static int wordCount(int capacity) {
+        return (capacity + WORD_BITS - 1) / WORD_BITS;
+    }
+}
@@ -0,0 +1,31 @@
+package org.example.ticket.entities;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A station a train calls at, with its distance along the run from the source station.
+ */
+@Data
+@NoArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class Stop {
+
+    private String code;        // Station code (e.g., NDLS, BRC)
+    private int distanceKm;     // Distance from the source station
+
+    // ------------------- Constructors -------------------
+    public Stop(String code, int distanceKm) {
+        if (code == null || code.isBlank()) {
+            throw new IllegalArgumentException("Stop code cannot be null or empty");
+        }
+        this.code = code.trim().toUpperCase();
+        this.distanceKm = Math.max(0, distanceKm);
+    }
+
+    // ------------------- Public Setters -------------------
+    public void setCode(String code) {
+        if (code != null) this.code = code.trim().toUpperCase();
+    }
+}
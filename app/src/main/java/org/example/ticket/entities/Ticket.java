@@ -4,7 +4,10 @@ import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.*;
+import org.example.ticket.services.FareEngine;
 import org.example.ticket.utils.ColorUtils;
+import org.example.ticket.utils.SecureTokenGenerator;
+import org.example.ticket.utils.TableFormat;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
@@ -13,6 +16,10 @@ import java.util.*;
 /**
  * Represents a train ticket with booking details.
  * Each ticket can have multiple passengers and tracks its cancellation state.
+ * <p>
+ * A waitlisted ticket has no seats yet: its passengers are keyed {@code WL-1, WL-2, ...} and
+ * it waits for a coach of {@link #coachType} to free up. {@link #confirmFromWaitlist} moves
+ * it to real seats.
  */
 @Getter
 @ToString
@@ -24,15 +31,24 @@ public class Ticket {
     private final String bookerId;                  // User ID of the person who booked
     private final String securityNumber;            // For cancelling ticket securely
     private final double price;                     // Price per seat
+    private final long farePaise;                   // Total fare in paise; 0 on tickets from before fares were exact
     private final int seats;                        // Number of seats booked
     private LocalDate journeyDate;                  // Date of the journey
     private boolean hasCancelled;                   // Ticket cancellation status
+    private boolean waitlisted;                     // True until seats are allocated from the waitlist
+    private long waitlistNumber;                    // Queue order among waitlisted tickets, 0 if never waitlisted
+    private String coachType;                       // Coach type a waitlisted ticket waits for
 
     // Passenger details (key = coachNumber-seatNumber)
     private final Map<String, Passenger> passengers = new HashMap<>();
 
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy");
 
+    // ASCII ticket layout, shared by every ticket
+    private static final TableFormat INFO_TABLE = new TableFormat(12, 50);
+    private static final TableFormat PASSENGER_TABLE = new TableFormat(4, 5, 25, 3);
+    private static final String TICKET_HEADER = "| 🎫 TRAIN TICKET" + " ".repeat(12 + 50 - 11) + "|\n";
+
     // ------------------- Jackson Constructor ----------------
     @JsonCreator
     public Ticket(
@@ -44,7 +60,11 @@ public class Ticket {
             @JsonProperty("seats") int seats,
             @JsonProperty("journeyDate") LocalDate journeyDate,
             @JsonProperty("hasCancelled") boolean hasCancelled,
-            @JsonProperty("passengers") Map<String, Passenger> passengers
+            @JsonProperty("passengers") Map<String, Passenger> passengers,
+            @JsonProperty("waitlisted") boolean waitlisted,
+            @JsonProperty("waitlistNumber") long waitlistNumber,
+            @JsonProperty("coachType") String coachType,
+            @JsonProperty("farePaise") long farePaise
     ) {
         this.id = id;
         this.trainId = trainId;
@@ -55,6 +75,10 @@ public class Ticket {
         this.journeyDate = journeyDate;
         this.hasCancelled = hasCancelled;
         if (passengers != null) this.passengers.putAll(passengers);
+        this.waitlisted = waitlisted;
+        this.waitlistNumber = waitlistNumber;
+        this.coachType = coachType;
+        this.farePaise = farePaise;
     }
 
     // ------------------- Builder Constructor ----------------
@@ -64,21 +88,22 @@ public class Ticket {
                   String bookerId,
                   String securityNumber,
                   LocalDate journeyDate,
-                  double price,
+                  long farePaise,
                   int seats) {
 
-        if (price <= 0) throw new IllegalArgumentException("Price must be greater than 0");
+        if (farePaise <= 0) throw new IllegalArgumentException("Fare must be greater than 0");
         if (seats <= 0) throw new IllegalArgumentException("Seats must be at least 1");
 
         this.id = Objects.requireNonNull(id, "Ticket ID cannot be null");
         this.trainId = Objects.requireNonNull(trainId, "Train ID cannot be null");
         this.bookerId = Objects.requireNonNull(bookerId, "Booker ID cannot be null");
         this.securityNumber = (securityNumber == null || securityNumber.isBlank())
-                ? UUID.randomUUID().toString().substring(0, 8).toUpperCase()
+                ? SecureTokenGenerator.nextToken()
                 : securityNumber;
 
         this.journeyDate = journeyDate == null ? LocalDate.now() : journeyDate;
-        this.price = price;
+        this.farePaise = farePaise;
+        this.price = farePaise / 100.0 / seats;
         this.seats = seats;
         this.hasCancelled = false;
     }
@@ -88,7 +113,13 @@ public class Ticket {
     /** Returns total cost of this booking. Not serialized. */
     @JsonIgnore
     public double getTotalPrice() {
-        return price * seats;
+        return farePaise > 0 ? farePaise / 100.0 : price * seats;
+    }
+
+    /** Returns total cost of this booking in paise. Not serialized. */
+    @JsonIgnore
+    public long getTotalFarePaise() {
+        return farePaise > 0 ? farePaise : Math.round(price * seats * 100);
     }
 
     /** Adds a passenger with coach and seat number. */
@@ -106,6 +137,38 @@ public class Ticket {
         return passengers.remove(key);
     }
 
+    /** Puts a new ticket on the waitlist for a coach type. Passengers keep seat number 0. */
+    public void joinWaitlist(String coachType, long waitlistNumber, List<Passenger> waitingPassengers) {
+        if (hasCancelled) throw new IllegalStateException("Cannot waitlist a cancelled ticket!");
+        if (!passengers.isEmpty()) throw new IllegalStateException("Ticket already has seats!");
+        if (waitingPassengers.size() != seats) throw new IllegalStateException("Passenger count must match booked seats!");
+        this.waitlisted = true;
+        this.waitlistNumber = waitlistNumber;
+        this.coachType = Objects.requireNonNull(coachType, "Coach type cannot be null");
+        for (int i = 0; i < waitingPassengers.size(); i++) {
+            passengers.put("WL-" + (i + 1), waitingPassengers.get(i));
+        }
+    }
+
+    /** Waitlisted passengers in the order they were entered. Empty once confirmed. Not serialized. */
+    @JsonIgnore
+    public List<Passenger> getWaitlistedPassengers() {
+        if (!waitlisted) return List.of();
+        List<Passenger> waiting = new ArrayList<>();
+        for (int i = 1; passengers.containsKey("WL-" + i); i++) waiting.add(passengers.get("WL-" + i));
+        return waiting;
+    }
+
+    /** Moves a waitlisted ticket to the seats its passengers were given in one coach. */
+    public void confirmFromWaitlist(String coachId, List<Passenger> seatedPassengers) {
+        if (!waitlisted || hasCancelled) throw new IllegalStateException("Ticket is not waiting for seats!");
+        passengers.clear();
+        this.waitlisted = false;
+        for (Passenger passenger : seatedPassengers) {
+            addPassenger(coachId, String.valueOf(passenger.getSeatNumber()), passenger);
+        }
+    }
+
     /** Cancels the ticket and clears passengers. */
     public void cancelTicket() {
         this.hasCancelled = true;
@@ -124,44 +187,33 @@ public class Ticket {
         return journeyDate.format(DATE_FORMATTER);
     }
 
-    /** Returns a colored ASCII ticket for console output using ColorUtils. Not serialized. */
+    /** Returns an ASCII ticket for console output. Not serialized. */
     @JsonIgnore
     public String getAsciiTicket() {
-        StringBuilder sb = new StringBuilder();
-
-        String[][] info = {
-                {"Ticket ID", id},
-                {"Train ID", trainId},
-                {"Booker ID", bookerId},
-                {"Journey", getFormattedJourneyDate()},
-                {"Seats", String.valueOf(seats)},
-                {"Price", String.format("₹%.2f", getTotalPrice())},
-                {"Cancelled", hasCancelled ? "Yes" : "No"}
-        };
-
-        int leftColWidth = 12;
-        int rightColWidth = 50;
-        String line = "+" + "-".repeat(leftColWidth + 2) + "+" + "-".repeat(rightColWidth + 2) + "+\n";
-
-        sb.append(line);
-        sb.append("| 🎫 TRAIN TICKET").append(" ".repeat(leftColWidth + rightColWidth - 11)).append("|\n");
-        sb.append(line);
+        return appendAsciiTicket(new StringBuilder(1024)).toString();
+    }
 
-        for (String[] row : info) {
-            sb.append(String.format("| %-" + leftColWidth + "s | %-" + rightColWidth + "s |\n", row[0], row[1]));
-        }
+    /** Appends the ASCII ticket to {@code sb}, so renderers can reuse their buffer. */
+    public StringBuilder appendAsciiTicket(StringBuilder sb) {
+        String line = INFO_TABLE.getBorder();
+        sb.append(line).append(TICKET_HEADER).append(line);
+
+        INFO_TABLE.appendRow(sb, "Ticket ID", id);
+        INFO_TABLE.appendRow(sb, "Train ID", trainId);
+        INFO_TABLE.appendRow(sb, "Booker ID", bookerId);
+        INFO_TABLE.appendRow(sb, "Journey", getFormattedJourneyDate());
+        INFO_TABLE.appendRow(sb, "Seats", seats);
+        INFO_TABLE.appendRow(sb, "Price", FareEngine.format(getTotalFarePaise()));
+        INFO_TABLE.appendRow(sb, "Status", hasCancelled ? "Cancelled" : waitlisted ? "Waitlisted (" + coachType + ")" : "Confirmed");
         sb.append(line);
 
-        sb.append(String.format("| %-4s | %-5s | %-25s | %-3s |\n", "Seat", "Coach", "Name", "Age"));
+        PASSENGER_TABLE.appendRow(sb, "Seat", "Coach", "Name", "Age");
         sb.append(line);
-
-        for (Map.Entry<String, Passenger> entry : passengers.entrySet()) {
-            Passenger p = entry.getValue();
-            sb.append(String.format("| %-4d | %-5s | %-25s | %-3d |\n", p.getSeatNumber(), p.getCoach(), p.getName(), p.getAge()));
+        for (Passenger p : passengers.values()) {
+            PASSENGER_TABLE.appendRow(sb, p.getSeatNumber(), p.getCoach(), p.getName(), p.getAge());
         }
         sb.append(line);
-
-        return sb.toString();
+        return sb;
     }
 
     /** Verifies if the provided security number matches this ticket's security number. */
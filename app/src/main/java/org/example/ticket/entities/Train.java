@@ -1,34 +1,61 @@
 package org.example.ticket.entities;
 
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonInclude;
-import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Represents a train in the railway system.
+ * Seats are booked per journey date, and only on dates the train runs.
+ * Total and free seat counts come from an {@link AvailabilitySummary} kept current as seats change.
+ * <p>
+ * A train may list the stops it calls at, source and destination included. Each pair of
+ * consecutive stops is a segment, and a seat can be sold for any {@link Leg} of the run.
+ * A train without stops runs non-stop, as a single segment.
  */
 @Data
 @NoArgsConstructor
-@AllArgsConstructor
 @JsonIgnoreProperties(ignoreUnknown = true)
 @JsonInclude(JsonInclude.Include.NON_NULL)
 public class Train {
 
     private String id;                   // Unique train ID
     private String name;                 // Train name
+    @JsonFormat(pattern = "HH:mm")
+    private LocalTime departureTime;     // From the source station; null if not timetabled
+    private int distanceKm;              // Length of the run; 0 if unknown
     private Station source;              // Source station
     private Station destination;         // Destination station
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    private List<Stop> stops = new ArrayList<>(); // Calling order, source to destination; empty if non-stop
     private List<Coach> coaches = new ArrayList<>();
     private Set<DayOfWeek> runningDays = new HashSet<>();
 
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Map<String, Coach> coachIndex = new ConcurrentHashMap<>(); // Upper-cased coach ID -> coach
+
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private AvailabilitySummary availability = new AvailabilitySummary(coaches);
+
     // Custom constructor for minimal init
     public Train(String id, String name, Station source, Station destination) {
         this.id = id;
@@ -37,14 +64,125 @@ public class Train {
         this.destination = destination;
     }
 
+    // All-args constructor
+    public Train(String id, String name, Station source, Station destination,
+                 List<Coach> coaches, Set<DayOfWeek> runningDays) {
+        this(id, name, source, destination);
+        setCoaches(coaches);
+        this.runningDays = (runningDays != null) ? runningDays : new HashSet<>();
+    }
+
+    // ------------------- JSON Accessors -------------------
+
+    public void setCoaches(List<Coach> coaches) {
+        this.coaches = (coaches != null) ? coaches : new ArrayList<>();
+        this.coachIndex = new ConcurrentHashMap<>();
+        this.coaches.forEach(c -> coachIndex.put(c.getId().toUpperCase(), c));
+        this.availability = new AvailabilitySummary(this.coaches);
+        this.coaches.forEach(c -> c.setSegmentCount(getSegmentCount()));
+    }
+
+    public void setStops(List<Stop> stops) {
+        this.stops = (stops != null) ? stops : new ArrayList<>();
+        coaches.forEach(c -> c.setSegmentCount(getSegmentCount()));
+    }
+
+    // ------------------- Stops -------------------
+
+    /** Number of segments of the run; 1 for a non-stop train. */
+    @JsonIgnore
+    public int getSegmentCount() {
+        return stops.size() > 1 ? stops.size() - 1 : 1;
+    }
+
+    /** Returns the index of a stop by station code (case-insensitive), or -1. */
+    public int stopIndex(String code) {
+        if (code == null) return -1;
+        if (stops.size() < 2) {
+            if (source != null && code.equalsIgnoreCase(source.getCode())) return 0;
+            if (destination != null && code.equalsIgnoreCase(destination.getCode())) return 1;
+            return -1;
+        }
+        for (int i = 0; i < stops.size(); i++) {
+            if (code.equalsIgnoreCase(stops.get(i).getCode())) return i;
+        }
+        return -1;
+    }
+
+    /** The whole run, from the source to the destination. */
+    @JsonIgnore
+    public Leg getWholeRun() {
+        return new Leg(0, getSegmentCount());
+    }
+
+    /**
+     * Returns the leg between two stops. A null code stands for the source or the destination.
+     *
+     * @throws IllegalArgumentException if a stop is not on the run or they are out of order
+     */
+    public Leg leg(String fromCode, String toCode) {
+        int from = fromCode == null ? 0 : stopIndex(fromCode);
+        int to = toCode == null ? getSegmentCount() : stopIndex(toCode);
+        if (from < 0) throw new IllegalArgumentException("Train " + id + " does not stop at " + fromCode);
+        if (to < 0) throw new IllegalArgumentException("Train " + id + " does not stop at " + toCode);
+        if (to <= from) throw new IllegalArgumentException(toCode + " does not come after " + fromCode + " on train " + id);
+        return new Leg(from, to);
+    }
+
+    /** Returns the leg a passenger travels, from their boarding to their alighting stop. */
+    public Leg legOf(Passenger passenger) {
+        return leg(passenger.getFrom(), passenger.getTo());
+    }
+
+    /** Station code of a stop index. */
+    public String stopCode(int index) {
+        if (stops.size() > 1) return stops.get(index).getCode();
+        Station station = index == 0 ? source : destination;
+        return station != null ? station.getCode() : null;
+    }
+
+    /** Distance of a leg; the whole distance for a train without stops. */
+    public int distanceKm(Leg leg) {
+        if (stops.size() < 2) return distanceKm;
+        return stops.get(leg.to()).getDistanceKm() - stops.get(leg.from()).getDistanceKm();
+    }
+
     // ------------------- Helper Methods -------------------
 
     public int getTotalSeats() {
-        return (coaches != null) ? coaches.stream().mapToInt(Coach::getTotalSeats).sum() : 0;
+        return availability.getTotalSeats();
+    }
+
+    public int getAvailableSeats(LocalDate journeyDate) {
+        return availability.getAvailableSeats(journeyDate);
+    }
+
+    /** Free seats over all coaches of one type on a journey date. */
+    public int getAvailableSeats(LocalDate journeyDate, String coachType) {
+        return availability.getAvailableSeats(journeyDate, coachType);
+    }
+
+    /** Seats free for a whole leg over all coaches on a journey date. */
+    public int getAvailableSeats(LocalDate journeyDate, Leg leg) {
+        if (leg.from() == 0 && leg.to() == getSegmentCount()) return getAvailableSeats(journeyDate);
+        int available = 0;
+        for (Coach coach : coaches) available += coach.getAvailableSeats(journeyDate, leg);
+        return available;
     }
 
-    public int getAvailableSeats() {
-        return (coaches != null) ? coaches.stream().mapToInt(Coach::getAvailableSeats).sum() : 0;
+    /** Free seats over all coaches of one type for a leg on a journey date. */
+    public int getAvailableSeats(LocalDate journeyDate, String coachType, Leg leg) {
+        if (leg.from() == 0 && leg.to() == getSegmentCount()) return getAvailableSeats(journeyDate, coachType);
+        int available = 0;
+        for (Coach coach : coaches) {
+            if (coach.getType().equals(coachType)) available += coach.getAvailableSeats(journeyDate, leg);
+        }
+        return available;
+    }
+
+    /** Finds a coach by ID (case-insensitive), or returns null. */
+    public Coach getCoach(String coachId) {
+        return (coachId != null) ? coachIndex.get(coachId.toUpperCase()) : null;
     }
 
     public void addCoach(Coach coach) {
@@ -54,7 +192,10 @@ public class Train {
         if (!coach.getTrainId().equals(this.id)) {
             throw new IllegalArgumentException("Coach does not belong to this train");
         }
+        coach.setSegmentCount(getSegmentCount());
         coaches.add(coach);
+        coachIndex.put(coach.getId().toUpperCase(), coach);
+        availability.rebuild();
     }
 
     public void addRunningDay(DayOfWeek day) {
@@ -69,21 +210,33 @@ public class Train {
         return runningDays.contains(day);
     }
 
-    public boolean bookSeat(String coachId, int seatNumber, Passenger passenger) {
-        if (coaches == null) return false;
-        return coaches.stream()
-                .filter(c -> c.getId().equals(coachId))
-                .findFirst()
-                .map(c -> c.bookSeat(seatNumber, passenger))
-                .orElse(false);
+    public boolean runsOn(LocalDate date) {
+        return date != null && runningDays.contains(date.getDayOfWeek());
+    }
+
+    /** Returns the first date on or after {@code from} that this train runs, or null if it never runs. */
+    public LocalDate nextRunningDate(LocalDate from) {
+        if (runningDays.isEmpty()) return null;
+        LocalDate date = from;
+        while (!runsOn(date)) date = date.plusDays(1);
+        return date;
+    }
+
+    public boolean bookSeat(String coachId, LocalDate journeyDate, int seatNumber, Passenger passenger) {
+        Coach coach = getCoach(coachId);
+        if (coach == null || !runsOn(journeyDate)) return false;
+        return coach.bookSeat(journeyDate, seatNumber, passenger);
+    }
+
+    public boolean cancelSeat(String coachId, LocalDate journeyDate, int seatNumber) {
+        Coach coach = getCoach(coachId);
+        if (coach == null) return false;
+        return coach.cancelSeat(journeyDate, seatNumber);
     }
 
-    public boolean cancelSeat(String coachId, int seatNumber) {
-        if (coaches == null) return false;
-        return coaches.stream()
-                .filter(c -> c.getId().equals(coachId))
-                .findFirst()
-                .map(c -> c.cancelSeat(seatNumber))
-                .orElse(false);
+    /** Drops seat inventories for journeys that left before the given date. Returns how many were dropped. */
+    public int evictJourneysBefore(LocalDate date) {
+        availability.evictBefore(date);
+        return (coaches != null) ? coaches.stream().mapToInt(c -> c.evictJourneysBefore(date)).sum() : 0;
     }
 }
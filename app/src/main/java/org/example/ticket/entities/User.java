@@ -1,6 +1,7 @@
 package org.example.ticket.entities;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
@@ -29,7 +30,10 @@ public class User {
     private String aadhaarUid;   // Optional
 
     // ------------------- Collections -------------------
-    private List<Ticket> tickets = new ArrayList<>(); // Tickets booked by the user
+    // Legacy: tickets now live in TicketRepository. Kept in the user's shard until TicketRepository
+    // has written tickets.json and cleared them, so a crash in between loses nothing.
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    private List<Ticket> tickets = new ArrayList<>();
 
     // ------------------- All-args Constructor (Required Fields) -------------------
     public User(String id, String name, String email, String passwordHash) {
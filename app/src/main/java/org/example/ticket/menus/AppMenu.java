@@ -5,6 +5,8 @@ import org.example.ticket.services.LoginService;
 import org.example.ticket.services.TicketService;
 import org.example.ticket.services.UserService;
 import org.example.ticket.utils.ColorUtils;
+import org.example.ticket.utils.Screen;
+import org.example.ticket.utils.Terminal;
 
 import java.util.Scanner;
 
@@ -16,32 +18,47 @@ import java.util.Scanner;
  * - Handle user registration and login
  * - Initialize UserService and MainMenu after login/registration
  * - Navigate to user menu after successful login
+ * <p>
+ * One AppMenu serves one session; the login and ticket services are shared by all sessions.
  */
 public class AppMenu {
 
-    private final Scanner scanner = new Scanner(System.in);
+    private final Scanner scanner = Terminal.scanner();
     private final LoginService loginService;
+    private final TicketService ticketService;
     private UserService userService = null; // Assigned after login/register
     private MainMenu mainMenu = null;       // Initialized after UserService
 
-    public AppMenu(LoginService loginService) {
+    public AppMenu(LoginService loginService, TicketService ticketService) {
         this.loginService = loginService;
+        this.ticketService = ticketService;
     }
 
+    /** Shows the landing menu until the user chooses Exit. */
+    public void run() {
+        int option;
+        do {
+            option = showLandingOptions();
+            if (option != 3) handleLandingOption(option); // Create user or login
+        } while (option != 3); // Loop until Exit is chosen
+    }
 
     /** Shows the landing menu and returns a valid option */
     public int showLandingOptions() {
         while (true) {
-            System.out.println(ColorUtils.CYAN + "====================================================" + ColorUtils.RESET);
-            System.out.println(ColorUtils.BLUE + "             WELCOME TO IRCTC TICKET APP            " + ColorUtils.RESET);
-            System.out.println(ColorUtils.CYAN + "====================================================" + ColorUtils.RESET);
-            System.out.println(ColorUtils.RED + "                Made with " + ColorUtils.MAGENTA + "❤" + ColorUtils.RESET + ColorUtils.RED + " by Piyush" + ColorUtils.RESET);
-            System.out.println(ColorUtils.CYAN + "----------------------------------------------------" + ColorUtils.RESET);
-            System.out.println(ColorUtils.YELLOW + "   [1] Create a new user" + ColorUtils.RESET);
-            System.out.println(ColorUtils.YELLOW + "   [2] Login to your account" + ColorUtils.RESET);
-            System.out.println(ColorUtils.YELLOW + "   [3] Exit Application" + ColorUtils.RESET);
-            System.out.println(ColorUtils.CYAN + "----------------------------------------------------" + ColorUtils.RESET);
-            System.out.print("👉 " + ColorUtils.GREEN + "Enter your option: " + ColorUtils.RESET);
+            Terminal.screen()
+                    .line(ColorUtils.CYAN, Screen.RULE)
+                    .line(ColorUtils.BLUE, "             WELCOME TO IRCTC TICKET APP            ")
+                    .line(ColorUtils.CYAN, Screen.RULE)
+                    .color(ColorUtils.RED).append("                Made with ").color(ColorUtils.MAGENTA).append("❤").reset()
+                    .color(ColorUtils.RED).append(" by Piyush").reset().newline()
+                    .line(ColorUtils.CYAN, Screen.DIVIDER)
+                    .line(ColorUtils.YELLOW, "   [1] Create a new user")
+                    .line(ColorUtils.YELLOW, "   [2] Login to your account")
+                    .line(ColorUtils.YELLOW, "   [3] Exit Application")
+                    .line(ColorUtils.CYAN, Screen.DIVIDER)
+                    .append("👉 ").color(ColorUtils.GREEN).append("Enter your option: ").reset()
+                    .print();
 
             String input = scanner.nextLine().trim();
             try {
@@ -103,7 +120,13 @@ public class AppMenu {
                 break;
             }
 
-            User user = loginService.registerUser(email, name, password);
+            User user;
+            try {
+                user = loginService.registerUser(email, name, password);
+            } catch (IllegalArgumentException | IllegalStateException e) {
+                System.out.println(ColorUtils.RED + "⚠ " + e.getMessage() + "!" + ColorUtils.RESET);
+                continue;
+            }
 
             // Assign UserService after registration
             userService = new UserService(user, loginService);
@@ -161,13 +184,10 @@ public class AppMenu {
     }
 
 
-    /** Initializes MainMenu after UserService is ready */
+    /** Initializes MainMenu for the user that just logged in */
     private void initMainMenu() {
-        if (mainMenu == null && userService != null) {
-            TicketService ticketService = new TicketService(userService);
-            UserMenu userMenu = new UserMenu(loginService);
-            mainMenu = new MainMenu(ticketService, userService, userMenu,loginService);
-        }
+        UserMenu userMenu = new UserMenu(loginService);
+        mainMenu = new MainMenu(ticketService, userService, userMenu,loginService);
     }
 
     /** Displays user menu after login or registration */
@@ -177,10 +197,8 @@ public class AppMenu {
 
         do {
             option = mainMenu.showMenu();
-            if (option == 6) { // Logout
+            if (option == 6) { // Logout, back to the landing menu
                 userService.logout();
-                int landingOption = showLandingOptions();
-                handleLandingOption(landingOption);
                 return;
             }
             // Handle other valid options
@@ -6,6 +6,8 @@ import org.example.ticket.services.LoginService;
 import org.example.ticket.services.TicketService;
 import org.example.ticket.services.UserService;
 import org.example.ticket.utils.ColorUtils;
+import org.example.ticket.utils.Screen;
+import org.example.ticket.utils.Terminal;
 
 import java.util.*;
 
@@ -19,7 +21,7 @@ public class MainMenu {
     private final TicketService ticketService;
     private final UserService userService;
     private final UserMenu userMenu;
-    private final Scanner scanner = new Scanner(System.in);
+    private final Scanner scanner = Terminal.scanner();
     private final LoginService loginService;
 
     /**
@@ -43,18 +45,19 @@ public class MainMenu {
      * @return selected option as int
      */
     public int showMenu() {
-        System.out.println(ColorUtils.CYAN + "====================================================" + ColorUtils.RESET);
-        System.out.println(ColorUtils.BLUE + "                 🚆 MAIN MENU                  " + ColorUtils.RESET);
-        System.out.println(ColorUtils.CYAN + "====================================================" + ColorUtils.RESET);
-
-        System.out.println(ColorUtils.YELLOW + "   [1] 🔍 Search Trains" + ColorUtils.RESET);
-        System.out.println(ColorUtils.YELLOW + "   [2] 🎟 See Tickets Booked" + ColorUtils.RESET);
-        System.out.println(ColorUtils.YELLOW + "   [3] 📝 Book Tickets" + ColorUtils.RESET);
-        System.out.println(ColorUtils.YELLOW + "   [4] ❌ Cancel Ticket" + ColorUtils.RESET);
-        System.out.println(ColorUtils.YELLOW + "   [5] ⚙️ Update User" + ColorUtils.RESET);
-        System.out.println(ColorUtils.YELLOW + "   [6] 🚪 Log Out" + ColorUtils.RESET);
-        System.out.println(ColorUtils.CYAN + "----------------------------------------------------" + ColorUtils.RESET);
-        System.out.print("👉 " + ColorUtils.GREEN + "Enter your option: " + ColorUtils.RESET);
+        Terminal.screen()
+                .line(ColorUtils.CYAN, Screen.RULE)
+                .line(ColorUtils.BLUE, "                 🚆 MAIN MENU                  ")
+                .line(ColorUtils.CYAN, Screen.RULE)
+                .line(ColorUtils.YELLOW, "   [1] 🔍 Search Trains")
+                .line(ColorUtils.YELLOW, "   [2] 🎟 See Tickets Booked")
+                .line(ColorUtils.YELLOW, "   [3] 📝 Book Tickets")
+                .line(ColorUtils.YELLOW, "   [4] ❌ Cancel Ticket")
+                .line(ColorUtils.YELLOW, "   [5] ⚙️ Update User")
+                .line(ColorUtils.YELLOW, "   [6] 🚪 Log Out")
+                .line(ColorUtils.CYAN, Screen.DIVIDER)
+                .append("👉 ").color(ColorUtils.GREEN).append("Enter your option: ").reset()
+                .print();
 
         String input = scanner.nextLine().trim();
         try {
@@ -3,13 +3,13 @@ package org.example.ticket.menus;
 import org.example.ticket.entities.User;
 import org.example.ticket.services.LoginService;
 import org.example.ticket.utils.ColorUtils;
-import org.mindrot.jbcrypt.BCrypt;
+import org.example.ticket.utils.Terminal;
 
 import java.util.Scanner;
 
 public class UserMenu {
 
-    private  final Scanner scanner = new Scanner(System.in);
+    private  final Scanner scanner = Terminal.scanner();
     private final LoginService loginService;
 
     public UserMenu(LoginService loginService) {
@@ -112,8 +112,12 @@ public class UserMenu {
             System.out.println(ColorUtils.RED + "⚠️ Invalid email format!" + ColorUtils.RESET);
             return;
         }
-        user.setEmail(newEmail);
-        loginService.updateUser(user);
+        try {
+            loginService.changeEmail(user, newEmail);
+        } catch (IllegalArgumentException e) {
+            System.out.println(ColorUtils.RED + "⚠️ " + e.getMessage() + "!" + ColorUtils.RESET);
+            return;
+        }
         System.out.println(ColorUtils.CYAN + "✅ Email updated successfully! New Email: "
                 + ColorUtils.YELLOW + user.getEmail() + ColorUtils.RESET);
     }
@@ -131,9 +135,12 @@ public class UserMenu {
             System.out.println(ColorUtils.RED + "⚠️ Passwords do not match!" + ColorUtils.RESET);
             return;
         }
-        String hashed = BCrypt.hashpw(newPassword, BCrypt.gensalt());
-        user.setPasswordHash(hashed);
-        loginService.updateUser(user);
+        try {
+            loginService.setPassword(user, newPassword);
+        } catch (IllegalStateException e) {
+            System.out.println(ColorUtils.RED + "⚠️ " + e.getMessage() + ColorUtils.RESET);
+            return;
+        }
         System.out.println(ColorUtils.CYAN + "✅ Password updated successfully!" + ColorUtils.RESET);
     }
 
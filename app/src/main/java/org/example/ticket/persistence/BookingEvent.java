@@ -0,0 +1,44 @@
+package org.example.ticket.persistence;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.example.ticket.entities.Passenger;
+
+import java.time.LocalDate;
+
+/**
+ * One seat change in the trains journal.
+ * Replaying events in order on top of the last trains snapshot restores seat inventories.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BookingEvent {
+
+    public enum Type { BOOK, CANCEL }
+
+    private Type type;
+    private String trainId;
+    private String coachId;
+    private LocalDate journeyDate;
+    private int seatNumber;
+    private Passenger passenger;   // Only for BOOK; its stops give the leg
+    private String from;           // Only for CANCEL: boarding stop of the booking; null for the source
+
+    public static BookingEvent booked(String trainId, String coachId, LocalDate journeyDate, int seatNumber, Passenger passenger) {
+        return new BookingEvent(Type.BOOK, trainId, coachId, journeyDate, seatNumber, passenger, null);
+    }
+
+    public static BookingEvent cancelled(String trainId, String coachId, LocalDate journeyDate, int seatNumber) {
+        return cancelled(trainId, coachId, journeyDate, seatNumber, null);
+    }
+
+    public static BookingEvent cancelled(String trainId, String coachId, LocalDate journeyDate, int seatNumber, String from) {
+        return new BookingEvent(Type.CANCEL, trainId, coachId, journeyDate, seatNumber, null, from);
+    }
+}
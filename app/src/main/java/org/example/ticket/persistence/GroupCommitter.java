@@ -0,0 +1,208 @@
+package org.example.ticket.persistence;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * One background writer thread that batches persistence work.
+ * <p>
+ * Callers hand over writes and get back a future that completes when the write is on
+ * disk. Writes with the same key are coalesced, so only the latest state of a dirty
+ * object is written. The writer runs pending writes, then the registered sync actions
+ * (journal fsyncs), then completes every waiting future. A batch is flushed when
+ * {@code dirtyThreshold} writes are pending, {@code intervalMillis} after the first
+ * pending write, or right away when someone calls {@link #flush()}. Calls that arrive
+ * while a flush is running share the next fsync. {@link #whenDurable()} waits for what is
+ * queued without forcing a flush, so callers can wait and still share batches.
+ * <p>
+ * Interval and threshold can be set with the {@code irctc.flush.intervalMillis} and
+ * {@code irctc.flush.dirtyThreshold} system properties.
+ */
+public class GroupCommitter implements AutoCloseable {
+
+    /** A write or sync step that may fail with an I/O error. */
+    @FunctionalInterface
+    public interface IOAction {
+        void run() throws IOException;
+    }
+
+    public static final long DEFAULT_INTERVAL_MILLIS = 50;
+    public static final int DEFAULT_DIRTY_THRESHOLD = 256;
+
+    private final long intervalMillis;
+    private final int dirtyThreshold;
+    private final List<IOAction> syncActions = new CopyOnWriteArrayList<>();
+    private final Thread writer;
+
+    private final Object lock = new Object();
+    private Map<Object, IOAction> pending = new LinkedHashMap<>();
+    private CompletableFuture<Void> nextCommit = new CompletableFuture<>();
+    private CompletableFuture<Void> writing;   // Batch the writer is on, null when idle
+    private long firstPendingAt;      // nanoTime of the oldest pending write
+    private boolean flushRequested;
+    private boolean closed;
+
+    public GroupCommitter() {
+        this(Long.getLong("irctc.flush.intervalMillis", DEFAULT_INTERVAL_MILLIS),
+                Integer.getInteger("irctc.flush.dirtyThreshold", DEFAULT_DIRTY_THRESHOLD));
+    }
+
+    public GroupCommitter(long intervalMillis, int dirtyThreshold) {
+        this.intervalMillis = Math.max(1, intervalMillis);
+        this.dirtyThreshold = Math.max(1, dirtyThreshold);
+        this.writer = new Thread(this::runWriter, "group-commit-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::close, "group-commit-shutdown"));
+    }
+
+    // ------------------- Public API -------------------
+
+    /** Registers an action run after each batch of writes, e.g. a journal fsync. */
+    public void addSyncAction(IOAction action) {
+        syncActions.add(action);
+    }
+
+    /**
+     * Queues a write for a dirty object. A later write with an equal key replaces this one
+     * if the batch has not been flushed yet.
+     */
+    public CompletableFuture<Void> markDirty(Object key, IOAction write) {
+        synchronized (lock) {
+            if (closed) return CompletableFuture.failedFuture(new IllegalStateException("Committer is closed"));
+            boolean wasIdle = pending.isEmpty();
+            if (wasIdle) firstPendingAt = System.nanoTime();
+            pending.put(key, write);
+            // Wake the writer to start the interval timer, or to flush a full batch
+            if (wasIdle || pending.size() >= dirtyThreshold) lock.notifyAll();
+            return nextCommit;
+        }
+    }
+
+    /** Queues a write that is never coalesced, such as a journal event. */
+    public CompletableFuture<Void> submit(IOAction write) {
+        return markDirty(new Object(), write);
+    }
+
+    /** Asks the writer to flush now. The future completes once everything queued so far is durable. */
+    public CompletableFuture<Void> flush() {
+        synchronized (lock) {
+            if (closed) return CompletableFuture.completedFuture(null);
+            flushRequested = true;
+            lock.notifyAll();
+            return nextCommit;
+        }
+    }
+
+    /**
+     * Future that completes once everything queued so far is durable, flushed on the usual
+     * interval or size threshold rather than right away.
+     */
+    public CompletableFuture<Void> whenDurable() {
+        synchronized (lock) {
+            if (closed) return CompletableFuture.completedFuture(null);
+            if (!pending.isEmpty()) return nextCommit;
+            return writing != null ? writing : CompletableFuture.completedFuture(null);
+        }
+    }
+
+    /** Flushes everything pending and stops the writer thread. */
+    @Override
+    public void close() {
+        CompletableFuture<Void> last;
+        synchronized (lock) {
+            if (closed) return;
+            closed = true;
+            last = nextCommit;
+            lock.notifyAll();
+        }
+        if (Thread.currentThread() != writer) {
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        last.complete(null);
+    }
+
+    // ------------------- Writer Thread -------------------
+
+    private void runWriter() {
+        while (true) {
+            Map<Object, IOAction> batch;
+            CompletableFuture<Void> commit;
+            boolean stopping;
+
+            synchronized (lock) {
+                while (!closed && !shouldFlush()) {
+                    try {
+                        if (pending.isEmpty()) {
+                            lock.wait();
+                        } else {
+                            long waitedMillis = (System.nanoTime() - firstPendingAt) / 1_000_000;
+                            lock.wait(Math.max(1, intervalMillis - waitedMillis));
+                        }
+                    } catch (InterruptedException e) {
+                        closed = true;
+                    }
+                }
+                stopping = closed;
+                batch = pending;
+                commit = nextCommit;
+                writing = commit;
+                pending = new LinkedHashMap<>();
+                nextCommit = new CompletableFuture<>();
+                flushRequested = false;
+            }
+
+            writeBatch(batch, commit);
+            synchronized (lock) {
+                if (writing == commit) writing = null;
+            }
+            if (stopping) {
+                synchronized (lock) {
+                    nextCommit.complete(null);
+                }
+                return;
+            }
+        }
+    }
+
+    private boolean shouldFlush() {
+        if (flushRequested || pending.size() >= dirtyThreshold) return true;
+        return !pending.isEmpty() && System.nanoTime() - firstPendingAt >= intervalMillis * 1_000_000;
+    }
+
+    private void writeBatch(Map<Object, IOAction> batch, CompletableFuture<Void> commit) {
+        List<IOException> failures = new ArrayList<>();
+        for (IOAction write : batch.values()) {
+            try {
+                write.run();
+            } catch (IOException e) {
+                failures.add(e);
+            }
+        }
+        for (IOAction sync : syncActions) {
+            try {
+                sync.run();
+            } catch (IOException e) {
+                failures.add(e);
+            }
+        }
+
+        if (failures.isEmpty()) {
+            commit.complete(null);
+        } else {
+            IOException error = failures.get(0);
+            failures.stream().skip(1).forEach(error::addSuppressed);
+            System.out.println("❌ Error persisting changes: " + error.getMessage());
+            commit.completeExceptionally(error);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package org.example.ticket.persistence;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * Append-only write-ahead journal of JSON records, one record per line.
+ * <p>
+ * Each {@link #append} is a single small sequential write. The file is fsynced once
+ * {@code syncBatchSize} records are pending or when {@link #sync} is called, so a burst
+ * of records shares one fsync. Records can be serialized up front with {@link #serialize}
+ * and appended later, e.g. from a background writer. After the owner writes a snapshot
+ * it calls {@link #reset} to start an empty journal, or, if records may be appended while the
+ * snapshot is written, takes a {@link #mark} when it copies its state and later calls
+ * {@link #dropThrough} to keep only what came after.
+ *
+ * @param <T> record type, serialized with the given ObjectMapper
+ */
+public class Journal<T> implements AutoCloseable {
+
+    /** Cut-over point in the journal: its size in bytes and records when the mark was taken. */
+    public record Mark(long bytes, long entries) {
+    }
+
+    private final Path path;
+    private final ObjectMapper objectMapper;
+    private final Class<T> recordType;
+    private final int syncBatchSize;
+
+    private FileChannel channel;
+    private int pendingSync;   // Records written but not yet fsynced
+    private long entryCount;   // Records in the file since the last reset
+
+    /** Opens a journal that is only fsynced by explicit {@link #sync} calls. */
+    public Journal(Path path, ObjectMapper objectMapper, Class<T> recordType) throws IOException {
+        this(path, objectMapper, recordType, Integer.MAX_VALUE);
+    }
+
+    public Journal(Path path, ObjectMapper objectMapper, Class<T> recordType, int syncBatchSize) throws IOException {
+        this.path = path;
+        this.objectMapper = objectMapper;
+        this.recordType = recordType;
+        this.syncBatchSize = Math.max(1, syncBatchSize);
+        if (path.getParent() != null) Files.createDirectories(path.getParent());
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Reads every complete record in order. A torn last line (from a crash mid-write)
+     * is cut off; other unreadable lines are reported and skipped.
+     */
+    public synchronized void replay(Consumer<T> consumer) throws IOException {
+        long validBytes = 0;
+        long count = 0;
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            long offset = 0;
+            while ((line = reader.readLine()) != null) {
+                long lineBytes = line.getBytes(StandardCharsets.UTF_8).length + 1L;
+                boolean complete = offset + lineBytes <= channel.size();
+                offset += lineBytes;
+                if (line.isBlank()) {
+                    validBytes = Math.min(offset, channel.size());
+                    continue;
+                }
+                T record;
+                try {
+                    record = objectMapper.readValue(line, recordType);
+                } catch (IOException e) {
+                    if (!complete) break;
+                    System.out.println("⚠ Skipping unreadable journal entry in " + path.getFileName() + ": " + e.getMessage());
+                    validBytes = offset;
+                    continue;
+                }
+                if (!complete) break;
+                consumer.accept(record);
+                validBytes = offset;
+                count++;
+            }
+        }
+        if (validBytes < channel.size()) {
+            channel.truncate(validBytes);
+        }
+        this.entryCount = count;
+    }
+
+    /** Serializes a record to the bytes {@link #appendSerialized} expects. */
+    public byte[] serialize(T record) throws IOException {
+        return objectMapper.writeValueAsBytes(record);
+    }
+
+    /** Appends one record. Fsyncs when the batch is full. */
+    public void append(T record) throws IOException {
+        appendSerialized(serialize(record));
+    }
+
+    /** Appends one record already serialized with {@link #serialize}. Fsyncs when the batch is full. */
+    public synchronized void appendSerialized(byte[] json) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(json.length + 1);
+        buffer.put(json).put((byte) '\n').flip();
+        while (buffer.hasRemaining()) channel.write(buffer);
+
+        entryCount++;
+        if (++pendingSync >= syncBatchSize) sync();
+    }
+
+    /** Forces pending records to disk. */
+    public synchronized void sync() throws IOException {
+        if (pendingSync == 0) return;
+        channel.force(false);
+        pendingSync = 0;
+    }
+
+    /** Empties the journal. Call only after its records are safely in a snapshot. */
+    public synchronized void reset() throws IOException {
+        channel.truncate(0);
+        channel.force(true);
+        pendingSync = 0;
+        entryCount = 0;
+    }
+
+    /** Marks the current end of the journal, for a later {@link #dropThrough}. */
+    public synchronized Mark mark() throws IOException {
+        return new Mark(channel.size(), entryCount);
+    }
+
+    /**
+     * Removes the records up to a {@link #mark}, keeping those appended after it. The rest is
+     * copied to a new file, fsynced and moved over the journal. Call only after the records
+     * before the mark are safely in a snapshot.
+     */
+    public synchronized void dropThrough(Mark mark) throws IOException {
+        if (mark.bytes() >= channel.size()) {
+            reset();
+            return;
+        }
+        Path rest = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel in = FileChannel.open(path, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(rest, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                     StandardOpenOption.TRUNCATE_EXISTING)) {
+            long position = mark.bytes();
+            long end = in.size();
+            while (position < end) position += in.transferTo(position, end - position, out);
+            out.force(true);
+        }
+        channel.close();
+        try {
+            Files.move(rest, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(rest, path, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.APPEND); // Old or new file
+        }
+        pendingSync = 0; // The copy was forced
+        entryCount -= mark.entries();
+    }
+
+    /** Number of records since the last reset. */
+    public synchronized long getEntryCount() {
+        return entryCount;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        sync();
+        channel.close();
+    }
+}
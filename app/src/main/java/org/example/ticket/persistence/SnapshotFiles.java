@@ -0,0 +1,142 @@
+package org.example.ticket.persistence;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads and writes snapshot files in either {@link SnapshotFormat}. Writes go through a temp
+ * file and a rename, so readers see either the old or the new file, never a partial one.
+ * <p>
+ * Snapshots are named by their JSON path; the Smile copy sits next to it. Every method takes the
+ * JSON mapper of the caller and derives the Smile one from it.
+ */
+public final class SnapshotFiles {
+
+    private SnapshotFiles() {
+    }
+
+    // ------------------- Snapshots -------------------
+
+    /**
+     * Returns the newest existing file of the snapshot {@code jsonPath}, in either format,
+     * or null if there is none. On a tie the configured format wins.
+     */
+    public static Path locate(Path jsonPath) throws IOException {
+        Path configured = SnapshotFormat.configured().resolve(jsonPath);
+        Path other = (SnapshotFormat.of(configured) == SnapshotFormat.JSON ? SnapshotFormat.SMILE : SnapshotFormat.JSON)
+                .resolve(jsonPath);
+        if (!Files.exists(other)) return Files.exists(configured) ? configured : null;
+        if (!Files.exists(configured)) return other;
+        return Files.getLastModifiedTime(other).compareTo(Files.getLastModifiedTime(configured)) > 0 ? other : configured;
+    }
+
+    /** True if the snapshot exists in either format. */
+    public static boolean exists(Path jsonPath) throws IOException {
+        return locate(jsonPath) != null;
+    }
+
+    /**
+     * Reads a snapshot file found by {@link #locate}. Smile files are memory-mapped and parsed
+     * straight from the mapping instead of being copied onto the heap first.
+     */
+    public static <T> T read(Path path, ObjectMapper jsonMapper, TypeReference<T> type) throws IOException {
+        if (SnapshotFormat.of(path) == SnapshotFormat.JSON) return jsonMapper.readValue(path.toFile(), type);
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return SnapshotFormat.SMILE.mapper(jsonMapper).readValue(new BufferInputStream(mapped), type);
+        }
+    }
+
+    /** Reads the newest file of the snapshot {@code jsonPath}, or returns null if there is none. */
+    public static <T> T readLatest(Path jsonPath, ObjectMapper jsonMapper, TypeReference<T> type) throws IOException {
+        Path path = locate(jsonPath);
+        return path == null ? null : read(path, jsonMapper, type);
+    }
+
+    /**
+     * Writes the snapshot {@code jsonPath} in the configured format.
+     *
+     * @return the file written
+     */
+    public static Path write(Path jsonPath, ObjectMapper jsonMapper, Object value) throws IOException {
+        SnapshotFormat format = SnapshotFormat.configured();
+        Path target = format.resolve(jsonPath);
+        writeAtomically(target, format.mapper(jsonMapper), value);
+        return target;
+    }
+
+    /** True if the newest file of the snapshot is not in the configured format, so it should be rewritten. */
+    public static boolean needsConversion(Path jsonPath) throws IOException {
+        Path path = locate(jsonPath);
+        return path != null && SnapshotFormat.of(path) != SnapshotFormat.configured();
+    }
+
+    // ------------------- Files -------------------
+
+    /**
+     * Writes the value to a temp file, fsyncs it and renames it over the target.
+     * Text formats are pretty-printed.
+     */
+    public static void writeAtomically(Path target, ObjectMapper objectMapper, Object value) throws IOException {
+        Path parent = target.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = parent.resolve(target.getFileName() + ".tmp");
+
+        ObjectWriter writer = objectMapper.getFactory().canHandleBinaryNatively()
+                ? objectMapper.writer()
+                : objectMapper.writerWithDefaultPrettyPrinter();
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            writer.writeValue(out, value);
+        }
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /** Reads a byte buffer, such as a file mapping, as a stream. */
+    private static class BufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        BufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (length == 0) return 0;
+            if (!buffer.hasRemaining()) return -1;
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package org.example.ticket.persistence;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Encoding of snapshot files.
+ * <p>
+ * JSON is the default and stays the import and export format. Smile is Jackson's binary encoding
+ * of the same data model: no field-name repetition or number formatting, so files are smaller
+ * and load faster. Choose it with {@code -Dirctc.snapshot.format=smile}.
+ * <p>
+ * A snapshot {@code trains.json} in Smile is the sibling file {@code trains.smile}. Readers take
+ * whichever of the two was written last, so switching formats in either direction keeps the data.
+ */
+public enum SnapshotFormat {
+    JSON("json"),
+    SMILE("smile");
+
+    private static final Map<ObjectMapper, ObjectMapper> SMILE_MAPPERS = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final String extension;
+
+    SnapshotFormat(String extension) {
+        this.extension = extension;
+    }
+
+    /** The format new snapshots are written in, from {@code irctc.snapshot.format}. */
+    public static SnapshotFormat configured() {
+        String name = System.getProperty("irctc.snapshot.format", "json");
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown snapshot format '" + name + "', expected json or smile");
+        }
+    }
+
+    /** The format of a snapshot file, judged by its extension. */
+    public static SnapshotFormat of(Path path) {
+        return path.getFileName().toString().endsWith("." + SMILE.extension) ? SMILE : JSON;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /** The file holding the snapshot {@code jsonPath} in this format. */
+    public Path resolve(Path jsonPath) {
+        if (this == JSON) return jsonPath;
+        String name = jsonPath.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return jsonPath.resolveSibling((dot < 0 ? name : name.substring(0, dot)) + "." + extension);
+    }
+
+    /**
+     * A mapper with the modules and settings of {@code jsonMapper} that reads and writes this format.
+     * Smile copies are cached per JSON mapper, so their serializer caches survive between snapshots.
+     */
+    public ObjectMapper mapper(ObjectMapper jsonMapper) {
+        if (this == JSON) return jsonMapper;
+        return SMILE_MAPPERS.computeIfAbsent(jsonMapper, m -> m.copyWith(new SmileFactory()));
+    }
+}
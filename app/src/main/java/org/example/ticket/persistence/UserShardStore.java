@@ -0,0 +1,239 @@
+package org.example.ticket.persistence;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import org.example.ticket.entities.User;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+
+/**
+ * Users split into hash-partitioned shard files, plus a small email index.
+ * <p>
+ * A user lives in shard {@code hash(id) % shardCount}, stored as {@code shard-NN.json}, or
+ * {@code shard-NN.smile} in the Smile {@link SnapshotFormat}. Only the index (email to user ID,
+ * and the shard count) is read at startup; a shard is read the first time one of its users is
+ * needed. A change marks the user's shard dirty on the {@link GroupCommitter}, so only dirty
+ * shards are rewritten and several changes to one shard before a flush share one rewrite.
+ * <p>
+ * An old single-file users.json (and its users.journal) is migrated into shards on first open
+ * and then renamed to {@code users.json.migrated}. Tickets still embedded in those users are
+ * written into the shards with them, until the ticket repository has moved them out.
+ */
+public class UserShardStore {
+
+    public static final int DEFAULT_SHARD_COUNT = 16;
+
+    private static final String INDEX_FILE = "index.json";
+    private static final TypeReference<List<User>> USER_LIST = new TypeReference<>() {};
+    private static final TypeReference<Index> INDEX_TYPE = new TypeReference<>() {};
+
+    /** Contents of index.json. */
+    static class Index {
+        public int shardCount;
+        public Map<String, String> emails = new TreeMap<>(); // Normalized email -> user ID
+    }
+
+    private final Path directory;        // Null for an in-memory store
+    private final ObjectMapper objectMapper;
+    private final GroupCommitter committer;
+    private final int shardCount;
+    private final Map<String, String> emailIndex;
+    private final Map<Integer, Map<String, User>> shards = new ConcurrentHashMap<>(); // Loaded shards only
+
+    private UserShardStore(Path directory, ObjectMapper objectMapper, GroupCommitter committer,
+                           int shardCount, Map<String, String> emailIndex) {
+        this.directory = directory;
+        this.objectMapper = objectMapper;
+        this.committer = committer;
+        this.shardCount = shardCount;
+        this.emailIndex = emailIndex;
+    }
+
+    /**
+     * Opens the store in {@code directory}, migrating {@code legacyFile} and {@code legacyJournal}
+     * first if there is no index yet. {@code emailKey} turns an email into its index key.
+     */
+    public static UserShardStore open(Path directory, Path legacyFile, Path legacyJournal, ObjectMapper objectMapper,
+                                      GroupCommitter committer, UnaryOperator<String> emailKey) throws IOException {
+        Path indexPath = directory.resolve(INDEX_FILE);
+        if (!SnapshotFiles.exists(indexPath)) {
+            int shardCount = Integer.getInteger("irctc.user.shards", DEFAULT_SHARD_COUNT);
+            if (shardCount < 1) throw new IllegalArgumentException("Shard count must be at least 1");
+            UserShardStore store = new UserShardStore(directory, objectMapper, committer, shardCount, new ConcurrentHashMap<>());
+            store.migrate(legacyFile, legacyJournal, emailKey);
+            return store;
+        }
+
+        Index index = SnapshotFiles.readLatest(indexPath, objectMapper, INDEX_TYPE);
+        UserShardStore store = new UserShardStore(directory, objectMapper, committer, index.shardCount,
+                new ConcurrentHashMap<>(index.emails));
+        if (SnapshotFiles.needsConversion(indexPath)) store.convert();
+        return store;
+    }
+
+    /** Creates a store that keeps every user in memory and never touches disk. */
+    public static UserShardStore inMemory(int shardCount) {
+        return new UserShardStore(null, null, null, Math.max(1, shardCount), new ConcurrentHashMap<>());
+    }
+
+    // ------------------- Public API -------------------
+
+    /**
+     * Live email index: normalized email to user ID. The caller keeps it in step with its users
+     * and calls {@link #saveIndex} after changing it.
+     */
+    public Map<String, String> getEmailIndex() {
+        return emailIndex;
+    }
+
+    /** Returns the user with this ID, reading its shard if needed, or null. */
+    public User get(String id) {
+        return shard(shardOf(id)).get(id);
+    }
+
+    /**
+     * Stores a new or changed user and marks its shard dirty.
+     *
+     * @return future that completes when the shard is rewritten
+     */
+    public CompletableFuture<Void> put(User user) {
+        int shardNumber = shardOf(user.getId());
+        shard(shardNumber).put(user.getId(), user);
+        if (directory == null) return CompletableFuture.completedFuture(null);
+        return committer.markDirty("users:shard:" + shardNumber, () -> writeShard(shardNumber));
+    }
+
+    /**
+     * Queues a rewrite of index.json from the live email index.
+     *
+     * @return future that completes when the index is written
+     */
+    public CompletableFuture<Void> saveIndex() {
+        if (directory == null) return CompletableFuture.completedFuture(null);
+        return committer.markDirty("users:index", this::writeIndex);
+    }
+
+    /** Every user. Reads all shards, so use only for exports and maintenance. */
+    public List<User> loadAll() {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < shardCount; i++) users.addAll(shard(i).values());
+        return users;
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    /** Number of shards read into memory so far. */
+    public int getLoadedShardCount() {
+        return shards.size();
+    }
+
+    // ------------------- Shard Files -------------------
+
+    private int shardOf(String id) {
+        int h = id.hashCode();
+        return Math.floorMod(h ^ (h >>> 16), shardCount);
+    }
+
+    private Map<String, User> shard(int shardNumber) {
+        return shards.computeIfAbsent(shardNumber, this::readShard);
+    }
+
+    private Map<String, User> readShard(int shardNumber) {
+        Map<String, User> users = new ConcurrentHashMap<>();
+        if (directory == null) return users;
+
+        Path path = shardPath(shardNumber);
+        try {
+            List<User> stored = SnapshotFiles.readLatest(path, objectMapper, USER_LIST);
+            if (stored != null) stored.forEach(user -> users.put(user.getId(), user));
+        } catch (IOException e) {
+            // Refuse to continue with a partial shard; a later rewrite would drop its users
+            throw new IllegalStateException("Cannot read user shard " + path.getFileName() + ": " + e.getMessage(), e);
+        }
+        return users;
+    }
+
+    /** Rewrites one shard. Each user is copied under its lock, as bookings may change it concurrently. */
+    private void writeShard(int shardNumber) throws IOException {
+        ArrayNode array = objectMapper.createArrayNode();
+        for (User user : new TreeMap<>(shard(shardNumber)).values()) {
+            synchronized (user) {
+                array.add(objectMapper.valueToTree(user));
+            }
+        }
+        SnapshotFiles.write(shardPath(shardNumber), objectMapper, array);
+    }
+
+    private void writeIndex() throws IOException {
+        Index index = new Index();
+        index.shardCount = shardCount;
+        index.emails = new TreeMap<>(emailIndex);
+        SnapshotFiles.write(directory.resolve(INDEX_FILE), objectMapper, index);
+    }
+
+    private Path shardPath(int shardNumber) {
+        return directory.resolve(String.format("shard-%02d.json", shardNumber));
+    }
+
+    // ------------------- Migration -------------------
+
+    /** Rewrites every shard and the index in the configured {@link SnapshotFormat}, index last. */
+    private void convert() throws IOException {
+        int converted = 0;
+        for (int i = 0; i < shardCount; i++) {
+            if (SnapshotFiles.needsConversion(shardPath(i))) {
+                writeShard(i);
+                converted++;
+            }
+        }
+        writeIndex();
+        System.out.println("Converted " + converted + " user shards to " + SnapshotFormat.configured().getExtension()
+                + " at " + directory);
+    }
+
+    /** Splits the old users.json plus its journal into shards, then writes the index last. */
+    private void migrate(Path legacyFile, Path legacyJournal, UnaryOperator<String> emailKey) throws IOException {
+        Map<String, User> users = new LinkedHashMap<>();
+        if (Files.exists(legacyFile)) {
+            for (User user : objectMapper.readValue(legacyFile.toFile(), USER_LIST)) users.put(user.getId(), user);
+        }
+        if (Files.exists(legacyJournal)) {
+            try (Journal<User> journal = new Journal<>(legacyJournal, objectMapper, User.class)) {
+                journal.replay(user -> users.put(user.getId(), user));
+            }
+        }
+
+        for (int i = 0; i < shardCount; i++) shards.put(i, new ConcurrentHashMap<>());
+        for (User user : users.values()) {
+            shards.get(shardOf(user.getId())).put(user.getId(), user);
+            emailIndex.put(emailKey.apply(user.getEmail()), user.getId());
+        }
+        for (int i = 0; i < shardCount; i++) {
+            if (!shards.get(i).isEmpty()) writeShard(i);
+        }
+        writeIndex(); // The index marks the migration as done
+
+        if (Files.exists(legacyFile)) {
+            Files.move(legacyFile, legacyFile.resolveSibling(legacyFile.getFileName() + ".migrated"),
+                    StandardCopyOption.REPLACE_EXISTING);
+        }
+        Files.deleteIfExists(legacyJournal);
+        if (!users.isEmpty()) {
+            System.out.println("Migrated " + users.size() + " users into " + shardCount + " shards at " + directory);
+        }
+    }
+}
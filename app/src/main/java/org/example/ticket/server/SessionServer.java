@@ -0,0 +1,143 @@
+package org.example.ticket.server;
+
+import org.example.ticket.menus.AppMenu;
+import org.example.ticket.services.LoginService;
+import org.example.ticket.services.TicketService;
+import org.example.ticket.utils.ColorUtils;
+import org.example.ticket.utils.Terminal;
+
+import java.io.BufferedOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Multi-session server mode: serves the interactive menus to many telnet or netcat clients at once.
+ * <p>
+ * Every connection runs its own {@link AppMenu} on a virtual thread, with its own {@link Terminal}
+ * and login state, so blocking on a slow client costs no platform thread. All sessions share one
+ * {@link LoginService} and one {@link TicketService}, which are already safe for concurrent use.
+ * <p>
+ * Listens on the loopback interface only. Sessions idle for longer than
+ * {@code irctc.server.idleMinutes} (default 30) are disconnected.
+ */
+public class SessionServer implements AutoCloseable {
+
+    public static final int DEFAULT_PORT = 2323;
+
+    private final LoginService loginService;
+    private final TicketService ticketService;
+    private final ServerSocket serverSocket;
+    private final ExecutorService sessions = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("session-", 1).factory());
+    private final int idleTimeoutMillis = (int) TimeUnit.MINUTES.toMillis(Integer.getInteger("irctc.server.idleMinutes", 30));
+
+    // ------------------- Metrics -------------------
+    private final AtomicInteger activeSessions = new AtomicInteger();
+    private final LongAdder totalSessions = new LongAdder();
+
+    public SessionServer(LoginService loginService, TicketService ticketService, int port) throws IOException {
+        this.loginService = loginService;
+        this.ticketService = ticketService;
+        this.serverSocket = new ServerSocket();
+        this.serverSocket.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 1024);
+    }
+
+    /** Accepts connections until the server is closed. */
+    public void serve() {
+        Terminal.installSessionOutput();
+        System.out.println(ColorUtils.GREEN + "🖧 IRCTC server listening on " + serverSocket.getLocalSocketAddress()
+                + " (connect with: telnet localhost " + getPort() + ")" + ColorUtils.RESET);
+
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                sessions.execute(() -> runSession(socket));
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    System.out.println(ColorUtils.RED + "⚠ Accept failed: " + e.getMessage() + ColorUtils.RESET);
+                }
+            }
+        }
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public int getActiveSessionCount() {
+        return activeSessions.get();
+    }
+
+    public long getTotalSessionCount() {
+        return totalSessions.sum();
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        sessions.shutdownNow(); // Interrupts sessions blocked in admission queues
+    }
+
+    // ------------------- Session -------------------
+
+    private void runSession(Socket socket) {
+        activeSessions.incrementAndGet();
+        totalSessions.increment();
+        try (socket; Terminal terminal = new Terminal(socket.getInputStream(),
+                new CrlfOutputStream(new BufferedOutputStream(socket.getOutputStream())))) {
+            socket.setSoTimeout(idleTimeoutMillis);
+            socket.setTcpNoDelay(true);
+            terminal.bind();
+            new AppMenu(loginService, ticketService).run();
+            System.out.println(ColorUtils.YELLOW + "👋 Goodbye!" + ColorUtils.RESET);
+        } catch (NoSuchElementException | SocketException e) {
+            // Client disconnected or went idle; nothing to clean up beyond the socket
+        } catch (IOException | RuntimeException e) {
+            Terminal.unbind();
+            System.out.println(ColorUtils.RED + "⚠ Session " + socket.getRemoteSocketAddress()
+                    + " ended with an error: " + e + ColorUtils.RESET);
+        } finally {
+            Terminal.unbind();
+            activeSessions.decrementAndGet();
+        }
+    }
+
+    /** Writes line breaks as CR LF, which telnet clients need to return to the first column. */
+    private static final class CrlfOutputStream extends FilterOutputStream {
+
+        CrlfOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (b == '\n') out.write('\r');
+            out.write(b);
+        }
+
+        @Override
+        public void write(byte[] buf, int off, int len) throws IOException {
+            int start = off;
+            for (int i = off; i < off + len; i++) {
+                if (buf[i] == '\n') {
+                    out.write(buf, start, i - start);
+                    out.write('\r');
+                    start = i; // The '\n' goes out with the next chunk
+                }
+            }
+            out.write(buf, start, off + len - start);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package org.example.ticket.services;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Flash-sale admission control: lets bookings for a busy train through at a steady rate,
+ * first come, first served.
+ * <p>
+ * Each train in flash-sale mode gets a token bucket ({@code rate} bookings per second, bursts
+ * up to {@code burst}) and a virtual queue. Waiters line up on a fair lock, so they are admitted
+ * in arrival order, and only the waiter at the front sleeps for the next token. When more than
+ * {@code maxQueue} are already waiting, new arrivals are turned away at once.
+ * <p>
+ * Configured with system properties: {@code irctc.flashsale.trains} (comma-separated train IDs,
+ * or {@code *} for all; empty turns the gate off), {@code irctc.flashsale.rate},
+ * {@code irctc.flashsale.burst} and {@code irctc.flashsale.maxQueue}.
+ */
+public class AdmissionGate {
+
+    public static final double DEFAULT_RATE = 20;
+    public static final int DEFAULT_BURST = 20;
+    public static final int DEFAULT_MAX_QUEUE = 10_000;
+
+    /** Time source for refills and the front waiter's sleep; tests replace it with a manual clock. */
+    interface Clock {
+        Clock SYSTEM = new Clock() {
+            @Override
+            public long nanoTime() {
+                return System.nanoTime();
+            }
+
+            @Override
+            public void sleepNanos(long nanos) throws InterruptedException {
+                TimeUnit.NANOSECONDS.sleep(nanos);
+            }
+        };
+
+        long nanoTime();
+
+        void sleepNanos(long nanos) throws InterruptedException;
+    }
+
+    /** Token bucket and queue of one train. Tokens and refill time are guarded by {@code turn}. */
+    private static final class Bucket {
+        final ReentrantLock turn = new ReentrantLock(true); // Fair: hands the front spot over in FIFO order
+        final AtomicInteger waiting = new AtomicInteger();
+        double tokens;
+        long lastRefillNanos;
+
+        Bucket(int burst, long now) {
+            this.tokens = burst;
+            this.lastRefillNanos = now;
+        }
+    }
+
+    private final Set<String> trainIds;  // Upper-case IDs in flash-sale mode
+    private final boolean allTrains;
+    private final double rate;
+    private final int burst;
+    private final int maxQueue;
+    private final Clock clock;
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    // ------------------- Metrics -------------------
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    /** Creates a gate from the {@code irctc.flashsale.*} system properties. */
+    public AdmissionGate() {
+        this(System.getProperty("irctc.flashsale.trains", ""),
+                Double.parseDouble(System.getProperty("irctc.flashsale.rate", String.valueOf(DEFAULT_RATE))),
+                Integer.getInteger("irctc.flashsale.burst", DEFAULT_BURST),
+                Integer.getInteger("irctc.flashsale.maxQueue", DEFAULT_MAX_QUEUE));
+    }
+
+    public AdmissionGate(String trains, double rate, int burst, int maxQueue) {
+        this(trains, rate, burst, maxQueue, Clock.SYSTEM);
+    }
+
+    AdmissionGate(String trains, double rate, int burst, int maxQueue, Clock clock) {
+        if (rate <= 0) throw new IllegalArgumentException("Admission rate must be positive");
+        this.trainIds = Arrays.stream(trains.split(","))
+                .map(String::trim).filter(id -> !id.isEmpty())
+                .map(String::toUpperCase)
+                .collect(Collectors.toUnmodifiableSet());
+        this.allTrains = trainIds.contains("*");
+        this.rate = rate;
+        this.burst = Math.max(1, burst);
+        this.maxQueue = Math.max(1, maxQueue);
+        this.clock = clock;
+    }
+
+    // ------------------- Public API -------------------
+
+    /** Returns true if bookings for this train go through the gate. */
+    public boolean isActive(String trainId) {
+        return trainId != null && (allTrains || trainIds.contains(trainId.toUpperCase()));
+    }
+
+    /** Number of bookings waiting for this train, for showing a queue position. */
+    public int getQueueLength(String trainId) {
+        Bucket bucket = buckets.get(trainId.toUpperCase());
+        return bucket == null ? 0 : bucket.waiting.get();
+    }
+
+    /**
+     * Waits for this booking's turn. Returns at once for trains not in flash-sale mode.
+     *
+     * @return true once admitted, false if the wait took longer than {@code timeout}
+     * @throws ServerBusyException if the queue for the train is full
+     */
+    public boolean admit(String trainId, long timeout, TimeUnit unit) throws InterruptedException {
+        if (!isActive(trainId)) return true;
+
+        Bucket bucket = buckets.computeIfAbsent(trainId.toUpperCase(), id -> new Bucket(burst, clock.nanoTime()));
+        if (bucket.waiting.incrementAndGet() > maxQueue) {
+            bucket.waiting.decrementAndGet();
+            rejected.increment();
+            throw new ServerBusyException("Too many bookings waiting for train " + trainId + ", please try again shortly");
+        }
+
+        long deadline = clock.nanoTime() + unit.toNanos(timeout);
+        try {
+            if (!bucket.turn.tryLock(timeout, unit)) {
+                rejected.increment();
+                return false;
+            }
+            try {
+                refill(bucket);
+                while (bucket.tokens < 1) {
+                    long waitNanos = (long) ((1 - bucket.tokens) / rate * 1_000_000_000L);
+                    if (clock.nanoTime() + waitNanos > deadline) {
+                        rejected.increment();
+                        return false;
+                    }
+                    clock.sleepNanos(waitNanos);
+                    refill(bucket);
+                }
+                bucket.tokens -= 1;
+                admitted.increment();
+                return true;
+            } finally {
+                bucket.turn.unlock();
+            }
+        } finally {
+            bucket.waiting.decrementAndGet();
+        }
+    }
+
+    public long getAdmittedCount() {
+        return admitted.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    // ------------------- Helper Methods -------------------
+
+    private void refill(Bucket bucket) {
+        long now = clock.nanoTime();
+        bucket.tokens = Math.min(burst, bucket.tokens + (now - bucket.lastRefillNanos) / 1_000_000_000.0 * rate);
+        bucket.lastRefillNanos = now;
+    }
+}
@@ -0,0 +1,254 @@
+package org.example.ticket.services;
+
+import org.example.ticket.entities.Coach;
+import org.example.ticket.entities.Leg;
+import org.example.ticket.entities.Passenger;
+import org.example.ticket.entities.SeatInventory;
+import org.example.ticket.entities.Train;
+import org.example.ticket.persistence.BookingEvent;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Thread-safe seat allocation over the in-memory seat inventories.
+ * <p>
+ * Every (train, coach, journey date) inventory is guarded by one of a fixed set of striped
+ * locks, so bookings on different coaches or dates run in parallel while two sessions can
+ * never take the same seat. Each change is handed to the event sink while the stripe is
+ * still held, which keeps journal order equal to the order seats actually changed.
+ * <p>
+ * Seats are sold per {@link Leg} of the run. Allocation picks the best-fitting free seat for the
+ * leg, so short journeys fill the gaps other bookings leave and whole-run seats stay free.
+ */
+public class BookingEngine {
+
+    private final ReentrantLock[] stripes;
+    private final int mask;
+    private final Consumer<BookingEvent> eventSink;
+
+    /** Creates an engine with a stripe count sized for the number of cores. */
+    public BookingEngine(Consumer<BookingEvent> eventSink) {
+        this(Runtime.getRuntime().availableProcessors() * 16, eventSink);
+    }
+
+    public BookingEngine(int stripeCount, Consumer<BookingEvent> eventSink) {
+        if (stripeCount < 1) throw new IllegalArgumentException("Stripe count must be positive");
+        int size = Integer.highestOneBit(stripeCount - 1) << 1; // Next power of two
+        this.stripes = new ReentrantLock[Math.max(1, size)];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.mask = stripes.length - 1;
+        this.eventSink = eventSink;
+    }
+
+    // ------------------- Seat Changes -------------------
+
+    /**
+     * Allocates the best-fitting free seats in one coach to all passengers, or to none of them.
+     * Passengers travel the leg between their {@link Passenger#getFrom() from} and
+     * {@link Passenger#getTo() to} stops, which must be the same for all of them. Each
+     * passenger's seat number is set to the allocated seat.
+     *
+     * @return allocated seat numbers in passenger order, or an empty list if the train does not
+     *         run that day, the coach is unknown or it has fewer seats free for the leg than passengers
+     * @throws IllegalArgumentException if the passengers' stops are not on the run or differ
+     */
+    public List<Integer> allocateSeats(Train train, String coachId, LocalDate journeyDate, List<Passenger> passengers) {
+        Coach coach = train.getCoach(coachId);
+        if (coach == null || !train.runsOn(journeyDate) || passengers.isEmpty()) return List.of();
+        Leg leg = sharedLeg(train, passengers);
+
+        ReentrantLock lock = lockFor(train.getId(), coach.getId(), journeyDate);
+        lock.lock();
+        try {
+            SeatInventory inventory = coach.getInventory(journeyDate);
+            if (inventory.getAvailableCount(leg.from(), leg.to()) < passengers.size()) return List.of();
+
+            List<Integer> seats = new ArrayList<>(passengers.size());
+            for (Passenger passenger : passengers) {
+                int seat = inventory.bestFit(leg.from(), leg.to());
+                passenger.setSeatNumber(seat);
+                inventory.book(seat, leg.from(), leg.to(), passenger);
+                eventSink.accept(BookingEvent.booked(train.getId(), coach.getId(), journeyDate, seat, passenger));
+                seats.add(seat);
+            }
+            return seats;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Holds seats for the whole run; see {@link #holdSeats(Train, String, LocalDate, Leg, int)}. */
+    public List<Integer> holdSeats(Train train, String coachId, LocalDate journeyDate, int count) {
+        return holdSeats(train, coachId, journeyDate, train.getWholeRun(), count);
+    }
+
+    /**
+     * Holds the best-fitting free seats for a leg in one coach, all or none, so no one else can
+     * book them while the holder pays. Held seats count as unavailable right away.
+     *
+     * @return held seat numbers in hold order, or an empty list if fewer than {@code count}
+     *         seats are free for the leg or the train does not run that day
+     */
+    public List<Integer> holdSeats(Train train, String coachId, LocalDate journeyDate, Leg leg, int count) {
+        Coach coach = train.getCoach(coachId);
+        if (coach == null || !train.runsOn(journeyDate) || count < 1) return List.of();
+
+        ReentrantLock lock = lockFor(train.getId(), coach.getId(), journeyDate);
+        lock.lock();
+        try {
+            SeatInventory inventory = coach.getInventory(journeyDate);
+            if (inventory.getAvailableCount(leg.from(), leg.to()) < count) return List.of();
+
+            List<Integer> seats = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int seat = inventory.bestFit(leg.from(), leg.to());
+                inventory.hold(seat, leg.from(), leg.to());
+                seats.add(seat);
+            }
+            return seats;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Frees seats held for the whole run. */
+    public void releaseHold(Train train, String coachId, LocalDate journeyDate, List<Integer> seats) {
+        releaseHold(train, coachId, journeyDate, train.getWholeRun(), seats);
+    }
+
+    /** Frees seats held with {@link #holdSeats}. Seats no longer held for the leg are skipped. */
+    public void releaseHold(Train train, String coachId, LocalDate journeyDate, Leg leg, List<Integer> seats) {
+        Coach coach = train.getCoach(coachId);
+        if (coach == null) return;
+
+        ReentrantLock lock = lockFor(train.getId(), coach.getId(), journeyDate);
+        lock.lock();
+        try {
+            SeatInventory inventory = coach.findInventory(journeyDate);
+            if (inventory == null) return;
+            for (int seat : seats) {
+                inventory.release(seat, leg.from(), leg.to());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Books seats held for the whole run. */
+    public List<Integer> confirmHeldSeats(Train train, String coachId, LocalDate journeyDate,
+                                          List<Integer> seats, List<Passenger> passengers) {
+        return confirmHeldSeats(train, coachId, journeyDate, train.getWholeRun(), seats, passengers);
+    }
+
+    /**
+     * Books seats held for a leg for the passengers in one step, all or none, so the seats never
+     * become free in between. Passenger {@code i} gets {@code seats.get(i)} and has its seat
+     * number and stops set.
+     *
+     * @return the booked seat numbers, or an empty list if any of the seats is no longer held
+     */
+    public List<Integer> confirmHeldSeats(Train train, String coachId, LocalDate journeyDate, Leg leg,
+                                          List<Integer> seats, List<Passenger> passengers) {
+        if (seats.size() != passengers.size()) throw new IllegalArgumentException("One held seat per passenger is required");
+        Coach coach = train.getCoach(coachId);
+        if (coach == null || seats.isEmpty()) return List.of();
+
+        ReentrantLock lock = lockFor(train.getId(), coach.getId(), journeyDate);
+        lock.lock();
+        try {
+            SeatInventory inventory = coach.findInventory(journeyDate);
+            if (inventory == null || !seats.stream().allMatch(seat -> inventory.isHeld(seat, leg.from(), leg.to()))) {
+                return List.of();
+            }
+
+            for (int i = 0; i < seats.size(); i++) {
+                int seat = seats.get(i);
+                Passenger passenger = passengers.get(i);
+                passenger.setSeatNumber(seat);
+                passenger.travel(leg.from() == 0 ? null : train.stopCode(leg.from()),
+                        leg.to() == train.getSegmentCount() ? null : train.stopCode(leg.to()));
+                inventory.confirm(seat, leg.from(), leg.to(), passenger);
+                eventSink.accept(BookingEvent.booked(train.getId(), coach.getId(), journeyDate, seat, passenger));
+            }
+            return List.copyOf(seats);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Books one specific seat for the passenger's leg. Returns false if the seat is invalid, taken
+     * on any part of the leg, or the train does not run that day.
+     */
+    public boolean bookSeat(Train train, String coachId, LocalDate journeyDate, int seatNumber, Passenger passenger) {
+        Coach coach = train.getCoach(coachId);
+        if (coach == null || !train.runsOn(journeyDate)) return false;
+        Leg leg = train.legOf(passenger);
+
+        ReentrantLock lock = lockFor(train.getId(), coach.getId(), journeyDate);
+        lock.lock();
+        try {
+            if (!coach.getInventory(journeyDate).book(seatNumber, leg.from(), leg.to(), passenger)) return false;
+            eventSink.accept(BookingEvent.booked(train.getId(), coach.getId(), journeyDate, seatNumber, passenger));
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Frees one seat booked from the source. Returns false if it was not booked. */
+    public boolean cancelSeat(Train train, String coachId, LocalDate journeyDate, int seatNumber) {
+        return cancelSeat(train, coachId, journeyDate, seatNumber, null);
+    }
+
+    /**
+     * Frees the booking of one seat that boards at a stop; a null code stands for the source.
+     * Returns false if the seat has no booking from that stop.
+     */
+    public boolean cancelSeat(Train train, String coachId, LocalDate journeyDate, int seatNumber, String fromCode) {
+        Coach coach = train.getCoach(coachId);
+        int from = fromCode == null ? 0 : train.stopIndex(fromCode);
+        if (coach == null || from < 0) return false;
+
+        ReentrantLock lock = lockFor(train.getId(), coach.getId(), journeyDate);
+        lock.lock();
+        try {
+            SeatInventory inventory = coach.findInventory(journeyDate);
+            if (inventory == null || inventory.cancel(seatNumber, from) == null) return false;
+            eventSink.accept(BookingEvent.cancelled(train.getId(), coach.getId(), journeyDate, seatNumber, fromCode));
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ------------------- Helper Methods -------------------
+
+    /** Leg all passengers travel; they are booked together, so it must be the same. */
+    private static Leg sharedLeg(Train train, List<Passenger> passengers) {
+        Leg leg = train.legOf(passengers.get(0));
+        for (Passenger passenger : passengers) {
+            if (!train.legOf(passenger).equals(leg)) {
+                throw new IllegalArgumentException("Passengers booked together must travel between the same stops");
+            }
+        }
+        return leg;
+    }
+
+    int stripeCount() {
+        return stripes.length;
+    }
+
+    private ReentrantLock lockFor(String trainId, String coachId, LocalDate journeyDate) {
+        int h = Objects.hash(trainId, coachId, journeyDate);
+        h ^= (h >>> 16); // Spread high bits into the masked range
+        return stripes[h & mask];
+    }
+}
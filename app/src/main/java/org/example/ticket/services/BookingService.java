@@ -1,17 +1,48 @@
 package org.example.ticket.services;
 
 import org.example.ticket.entities.*;
+import org.example.ticket.services.SeatHoldService.SeatHold;
 import org.example.ticket.utils.ColorUtils;
-import org.example.ticket.utils.SeatUtils;
+import org.example.ticket.utils.IdGenerator;
+import org.example.ticket.utils.Screen;
+import org.example.ticket.utils.SecureTokenGenerator;
+import org.example.ticket.utils.TableFormat;
+import org.example.ticket.utils.Terminal;
 
 import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
 
 public class BookingService {
-    public static  Scanner scanner = new Scanner(System.in);
+
+    /** How far ahead a journey can be booked. */
+    public static final int ADVANCE_BOOKING_DAYS = 120;
+
+    /** Most passengers on one waitlisted ticket. */
+    public static final int MAX_WAITLIST_PASSENGERS = 6;
+
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("HH:mm:ss");
+    private static final TableFormat TRAIN_TABLE = new TableFormat(5, 25, 10, 10, 10, 7, 7, 6, 6);
+    private static final String TRAIN_TABLE_RULE = "-".repeat(117);
+
+    /** Longest a booking waits in a flash-sale queue before giving up. */
+    public static final long MAX_ADMISSION_WAIT_SECONDS = 120;
+
+    /** A waitlisted ticket and its WL number when it joined the queue, 1 for the front. */
+    public record WaitlistedTicket(Ticket ticket, int position) {
+    }
 
     public static void bookTickets(UserService userService,TicketService ticketService,LoginService loginService) {
         final User user = userService.getCurrentUser();
+        Scanner scanner = Terminal.scanner();
 
         // ---------------- VERIFY USER ----------------
         if (!user.hasVerified()) {
@@ -41,15 +72,33 @@ public class BookingService {
                 selectedTrain.getSource().getCode() + " - " + selectedTrain.getSource().getName());
         System.out.println(ColorUtils.YELLOW + "Destination: " + ColorUtils.RESET +
                 selectedTrain.getDestination().getCode() + " - " + selectedTrain.getDestination().getName());
+        System.out.println(ColorUtils.YELLOW + "Runs On: " + ColorUtils.RESET + formatRunningDays(selectedTrain));
+        if (selectedTrain.getSegmentCount() > 1) {
+            System.out.println(ColorUtils.YELLOW + "Stops: " + ColorUtils.RESET + formatStops(selectedTrain));
+        }
+
+        // ---------------- ASK JOURNEY DATE ----------------
+        LocalDate journeyDate = askJourneyDate(selectedTrain);
+        if (journeyDate == null) return;
+
+        // ---------------- ASK BOARDING AND ALIGHTING STOPS ----------------
+        Leg leg = askLeg(selectedTrain);
+        if (leg == null) return;
+        String boardAt = leg.from() == 0 ? null : selectedTrain.stopCode(leg.from());
+        String alightAt = leg.to() == selectedTrain.getSegmentCount() ? null : selectedTrain.stopCode(leg.to());
 
         // ---------------- SHOW COACHES ----------------
-        System.out.println(ColorUtils.CYAN + "\nAvailable Coaches:" + ColorUtils.RESET);
+        System.out.println(ColorUtils.CYAN + "\nAvailable Coaches on " + journeyDate.format(DATE_FORMATTER) + ":" + ColorUtils.RESET);
+        WaitlistService waitlist = ticketService.getWaitlistService();
+        FareEngine fares = ticketService.getFareEngine();
         for (Coach coach : selectedTrain.getCoaches()) {
+            int waiting = waitlist.getLength(selectedTrain.getId(), coach.getType(), journeyDate);
             System.out.println(ColorUtils.YELLOW +
                     "Coach ID: " + ColorUtils.RESET + coach.getId() +
                     " | Type: " + coach.getType() +
-                    " | Price: ₹" + coach.getPrice() +
-                    " | Seats: " + coach.getAvailableSeats() + "/" + coach.getTotalSeats());
+                    " | Fare: " + FareEngine.format(fares.adultFare(selectedTrain, coach, leg, journeyDate)) +
+                    " | Seats: " + coach.getAvailableSeats(journeyDate, leg) + "/" + coach.getTotalSeats() +
+                    (waiting > 0 ? " | WL: " + waiting : ""));
         }
 
         // ---------------- ASK COACH ----------------
@@ -58,10 +107,7 @@ public class BookingService {
             System.out.print(ColorUtils.CYAN + "Enter coach ID: " + ColorUtils.RESET);
             String coachId = scanner.nextLine().trim();
 
-            selectedCoach = selectedTrain.getCoaches().stream()
-                    .filter(c -> c.getId().equalsIgnoreCase(coachId))
-                    .findFirst()
-                    .orElse(null);
+            selectedCoach = selectedTrain.getCoach(coachId);
 
             if (selectedCoach == null) {
                 System.out.println(ColorUtils.RED + "⚠ Invalid coach ID! Try again." + ColorUtils.RESET);
@@ -69,18 +115,21 @@ public class BookingService {
         }
 
         // ---------------- CHECK SEAT AVAILABILITY ----------------
-        int availableSeats = selectedCoach.getAvailableSeats();
-        if (availableSeats <= 0) {
+        int availableSeats = selectedCoach.getAvailableSeats(journeyDate, leg);
+        boolean joinWaitlist = availableSeats <= 0;
+        if (joinWaitlist) {
             System.out.println(ColorUtils.RED +
                     "⚠ No seats available in this coach!" +
                     ColorUtils.RESET);
-            return;
+            System.out.print(ColorUtils.CYAN + "Join the " + selectedCoach.getType() + " waitlist instead? (y/n): " + ColorUtils.RESET);
+            if (!scanner.nextLine().trim().equalsIgnoreCase("y")) return;
+            availableSeats = MAX_WAITLIST_PASSENGERS;
+        } else {
+            System.out.println(ColorUtils.GREEN + "✅ " + availableSeats +
+                    " seats available in coach " + selectedCoach.getId() +
+                    ColorUtils.RESET);
         }
 
-        System.out.println(ColorUtils.GREEN + "✅ " + availableSeats +
-                " seats available in coach " + selectedCoach.getId() +
-                ColorUtils.RESET);
-
         // ---------------- ADD PASSENGERS ----------------
         List<Passenger> passengers = new ArrayList<>();
         boolean addingPassengers = true;
@@ -98,7 +147,9 @@ public class BookingService {
                 continue;
             }
 
-            passengers.add(new Passenger(name, age, selectedCoach.getId(), 0));
+            Passenger passenger = new Passenger(name, age, selectedCoach.getId(), 0);
+            passenger.travel(boardAt, alightAt);
+            passengers.add(passenger);
 
             if (passengers.size() < availableSeats) {
                 System.out.print(ColorUtils.CYAN + "Add another passenger? (y/n): " + ColorUtils.RESET);
@@ -111,11 +162,14 @@ public class BookingService {
         }
 
         // ---------------- SHOW SUMMARY BEFORE PAYMENT ----------------
-        double totalFare = selectedCoach.getPrice() * passengers.size();
+        // Quoted before the seats are held, so the fare shown is the fare charged
+        long farePaise = fares.quote(selectedTrain, selectedCoach, journeyDate, passengers);
         System.out.println(ColorUtils.CYAN + "\nBooking Summary:" + ColorUtils.RESET);
         System.out.println("Coach: " + selectedCoach.getId() + " | Type: " + selectedCoach.getType());
+        System.out.println("Journey: " + selectedTrain.stopCode(leg.from()) + " → " + selectedTrain.stopCode(leg.to())
+                + " | " + selectedTrain.distanceKm(leg) + " km");
         System.out.println("Passengers: " + passengers.size());
-        System.out.println("Total Fare: ₹" + totalFare);
+        System.out.println("Total Fare: " + FareEngine.format(farePaise));
 
         System.out.print("Do you want to proceed to payment? (y/n): ");
         String proceed = scanner.nextLine().trim();
@@ -124,17 +178,47 @@ public class BookingService {
             return;
         }
 
+        // ---------------- ADMISSION (FLASH SALE) ----------------
+        if (!admit(selectedTrain, ticketService)) return;
+
+        // ---------------- HOLD SEATS ----------------
+        SeatHoldService holds = ticketService.getSeatHoldService();
+        SeatHold hold = null;
+        if (!joinWaitlist) {
+            hold = holds.hold(selectedTrain, selectedCoach.getId(), journeyDate, leg, passengers.size());
+            if (hold == null) {
+                System.out.println(ColorUtils.RED + "❌ Not enough seats left in coach " + selectedCoach.getId()
+                        + " for " + passengers.size() + " passenger(s)." + ColorUtils.RESET);
+                System.out.print(ColorUtils.CYAN + "Join the " + selectedCoach.getType() + " waitlist instead? (y/n): " + ColorUtils.RESET);
+                if (!scanner.nextLine().trim().equalsIgnoreCase("y")) {
+                    System.out.println(ColorUtils.RED + "❌ Booking failed." + ColorUtils.RESET);
+                    return;
+                }
+                joinWaitlist = true;
+            } else {
+                String coachId = selectedCoach.getId();
+                String seats = hold.getSeatNumbers().stream()
+                        .map(seat -> coachId + "-" + seat)
+                        .collect(Collectors.joining(", "));
+                System.out.println(ColorUtils.GREEN + "🪑 Seats " + seats + " held until "
+                        + TIME_FORMATTER.format(hold.getExpiresAt().atZone(ZoneId.systemDefault()))
+                        + ". Complete payment before then." + ColorUtils.RESET);
+            }
+        }
+
         // ---------------- PAYMENT ----------------
         boolean paymentDone = false;
-        long startTime = System.currentTimeMillis();
-
-        while (!paymentDone && System.currentTimeMillis() - startTime < 5 * 60 * 1000) {
-            System.out.println(ColorUtils.CYAN + "\nSelect payment method:" + ColorUtils.RESET);
-            System.out.println(ColorUtils.YELLOW + "[1] UPI" + ColorUtils.RESET);
-            System.out.println(ColorUtils.YELLOW + "[2] Credit Card" + ColorUtils.RESET);
-            System.out.println(ColorUtils.YELLOW + "[3] Net Banking" + ColorUtils.RESET);
-
-            System.out.print(ColorUtils.CYAN + "Enter payment option: " + ColorUtils.RESET);
+        long paymentDeadline = System.nanoTime() + holds.getTtl().toNanos(); // Waitlist bookings have no hold
+
+        while (!paymentDone && (hold != null ? !hold.isExpired() : System.nanoTime() < paymentDeadline)) {
+            Terminal.screen()
+                    .newline()
+                    .line(ColorUtils.CYAN, "Select payment method:")
+                    .line(ColorUtils.YELLOW, "[1] UPI")
+                    .line(ColorUtils.YELLOW, "[2] Credit Card")
+                    .line(ColorUtils.YELLOW, "[3] Net Banking")
+                    .color(ColorUtils.CYAN).append("Enter payment option: ").reset()
+                    .print();
             String paymentChoice = scanner.nextLine().trim();
             switch (paymentChoice) {
                 case "1", "2", "3" -> paymentDone = true;
@@ -142,66 +226,147 @@ public class BookingService {
             }
         }
 
-        if (!paymentDone) {
-            System.out.println(ColorUtils.RED + "❌ Payment timeout! Booking failed." + ColorUtils.RESET);
-            return;
+        // ---------------- CONFIRM HELD SEATS AND GENERATE TICKET ----------------
+        Ticket ticket;
+        int waitlistPosition = 0;
+        if (hold != null) {
+            // Fails if the hold expired while the payment prompt was open; the reaper already freed the seats
+            if (!paymentDone || holds.confirm(hold, passengers).isEmpty()) {
+                holds.release(hold);
+                System.out.println(ColorUtils.RED + "❌ Payment timeout! Seat hold released. Booking failed." + ColorUtils.RESET);
+                return;
+            }
+            ticket = createTicket(user, selectedTrain, selectedCoach, journeyDate, passengers, farePaise, ticketService);
+        } else {
+            if (!paymentDone) {
+                System.out.println(ColorUtils.RED + "❌ Payment timeout! Booking failed." + ColorUtils.RESET);
+                return;
+            }
+            WaitlistedTicket waitlisted = issueWaitlistedTicket(user, selectedTrain, selectedCoach, journeyDate, passengers, ticketService);
+            ticket = waitlisted.ticket();
+            waitlistPosition = waitlisted.position();
         }
 
-        // ---------------- GENERATE TICKET AND ALLOCATE SEATS ----------------
-        String ticketId = UUID.randomUUID().toString().substring(0, 4).toUpperCase();
-        String secret = UUID.randomUUID().toString().substring(0, 4).toUpperCase();
+        // ---------------- SAVE TICKET ----------------
+        awaitDurable(ticketService.commit());
+        if (ticket.isWaitlisted()) {
+            System.out.println(ColorUtils.YELLOW + "⏳ Ticket waitlisted at WL " + waitlistPosition + ". Seats are allocated automatically when "
+                    + selectedCoach.getType() + " seats are cancelled." + ColorUtils.RESET);
+        } else {
+            System.out.println(ColorUtils.GREEN + "✅ Booking successful! Ticket details:" + ColorUtils.RESET);
+        }
+        Screen screen = Terminal.screen();
+        ticket.appendAsciiTicket(screen.builder());
+        screen.newline().print();
+    }
 
-        Ticket ticket = new Ticket(ticketId, selectedTrain.getId(), user.getId(),
-                secret, LocalDate.now(), totalFare, passengers.size());
 
+    /**
+     * Allocates seats for all passengers and saves the resulting ticket in the ticket repository.
+     * Passengers travel between their own boarding and alighting stops, the same for all of them.
+     * Shared by the interactive and batch booking flows; the caller commits to make both durable.
+     *
+     * @throws IllegalStateException if the coach no longer has a seat for every passenger
+     */
+    public static Ticket issueTicket(User user, Train train, Coach coach, LocalDate journeyDate,
+                                     List<Passenger> passengers, TicketService ticketService) {
+        long farePaise = ticketService.getFareEngine().quote(train, coach, journeyDate, passengers);
+        // All-or-nothing under the coach lock; other sessions may have booked in the meantime
+        List<Integer> seats = ticketService.allocateSeats(train, coach.getId(), journeyDate, passengers);
+        if (seats.isEmpty()) {
+            throw new IllegalStateException("Not enough seats left in coach " + coach.getId()
+                    + " for " + passengers.size() + " passenger(s).");
+        }
+        return createTicket(user, train, coach, journeyDate, passengers, farePaise, ticketService);
+    }
+
+    /**
+     * Builds the ticket for passengers whose seats are already booked and saves it in the
+     * ticket repository. The caller commits.
+     *
+     * @param farePaise total fare, quoted before the seats were booked
+     */
+    public static Ticket createTicket(User user, Train train, Coach coach, LocalDate journeyDate,
+                                      List<Passenger> passengers, long farePaise, TicketService ticketService) {
+        String ticketId = IdGenerator.getDefault().nextIdString();
+        String secret = SecureTokenGenerator.nextToken();
+
+        Ticket ticket = new Ticket(ticketId, train.getId(), user.getId(),
+                secret, journeyDate, farePaise, passengers.size());
         for (Passenger passenger : passengers) {
-            int seatNumber = SeatUtils.getFirstAvailableSeat(selectedCoach);
-            passenger.setSeatNumber(seatNumber);
-            ticket.addPassenger(selectedCoach.getId(), String.valueOf(seatNumber), passenger);
-            selectedTrain.bookSeat(selectedCoach.getId(), seatNumber, passenger);
+            ticket.addPassenger(coach.getId(), String.valueOf(passenger.getSeatNumber()), passenger);
         }
 
-        // ---------------- SAVE TICKET ----------------
-        user.addTicket(ticket);
-        loginService.updateUser(user);
-        ticketService.saveOrUpdateTrain(selectedTrain);
-        System.out.println(ColorUtils.GREEN + "✅ Booking successful! Ticket details:" + ColorUtils.RESET);
-        System.out.println(ticket.getAsciiTicket());
+        ticketService.getTicketRepository().save(ticket);
+        return ticket;
     }
 
+    /**
+     * Creates a waitlisted ticket for the coach's type and queues it. Passengers get seats
+     * when seats of that type are cancelled; the caller commits.
+     *
+     * @return the ticket and its position in the queue as it joined
+     */
+    public static WaitlistedTicket issueWaitlistedTicket(User user, Train train, Coach coach, LocalDate journeyDate,
+                                               List<Passenger> passengers, TicketService ticketService) {
+        String ticketId = IdGenerator.getDefault().nextIdString();
+        String secret = SecureTokenGenerator.nextToken();
+        long farePaise = ticketService.getFareEngine().quote(train, coach, journeyDate, passengers);
+
+        Ticket ticket = new Ticket(ticketId, train.getId(), user.getId(),
+                secret, journeyDate, farePaise, passengers.size());
+        int position = ticketService.getWaitlistService().join(ticket, coach.getType(), passengers);
+        return new WaitlistedTicket(ticket, position);
+    }
+
+    /**
+     * Checks that a train can be booked on the given date: within the booking window
+     * and on one of its running days.
+     *
+     * @return an error message, or null if the date is bookable
+     */
+    public static String checkJourneyDate(Train train, LocalDate date) {
+        LocalDate today = LocalDate.now();
+        LocalDate lastBookable = today.plusDays(ADVANCE_BOOKING_DAYS);
+        if (date == null || date.isBefore(today) || date.isAfter(lastBookable)) {
+            return "Bookings are open from today up to " + lastBookable.format(DATE_FORMATTER) + ".";
+        }
+        if (!train.runsOn(date)) {
+            return "Train does not run on " + date.getDayOfWeek() + ". Runs on: " + formatRunningDays(train);
+        }
+        return null;
+    }
 
     public static void cancelTicket(UserService userService, TicketService ticketService, LoginService loginService) {
         final User user = userService.getCurrentUser();
 
         // Get user's booked tickets
-        List<Ticket> tickets = user.getTickets();
+        List<Ticket> tickets = ticketService.getBookedTickets(user);
         if (tickets.isEmpty()) {
             System.out.println(ColorUtils.YELLOW + "⚠ You have no booked tickets." + ColorUtils.RESET);
             return;
         }
 
         // Show list of tickets
-        System.out.println(ColorUtils.CYAN + "\nYour Tickets:" + ColorUtils.RESET);
+        Screen screen = Terminal.screen().newline().line(ColorUtils.CYAN, "Your Tickets:");
         for (Ticket t : tickets) {
-            System.out.println("- Ticket ID: " + ColorUtils.YELLOW + t.getId() + ColorUtils.RESET
-                    + " | Train: " + t.getTrainId()
-                    + " | Date: " + t.getFormattedJourneyDate()
-                    + " | Cancelled: " + (t.isHasCancelled() ? "Yes" : "No"));
+            screen.append("- Ticket ID: ").color(ColorUtils.YELLOW).append(t.getId()).reset()
+                    .append(" | Train: ").append(t.getTrainId())
+                    .append(" | Date: ").append(t.getFormattedJourneyDate())
+                    .append(" | Cancelled: ").append(t.isHasCancelled() ? "Yes" : "No")
+                    .newline();
         }
+        screen.print();
 
-        Scanner scanner = new Scanner(System.in);
+        Scanner scanner = Terminal.scanner();
 
         // Ask for Ticket ID
         System.out.print(ColorUtils.CYAN + "\nEnter Ticket ID to cancel or 'back': " + ColorUtils.RESET);
         String ticketId = scanner.nextLine().trim();
         if (ticketId.equalsIgnoreCase("back")) return;
 
-        Ticket ticketToCancel = tickets.stream()
-                .filter(t -> t.getId().equals(ticketId))
-                .findFirst()
-                .orElse(null);
-
-        if (ticketToCancel == null) {
+        Ticket ticketToCancel = ticketService.getTicketRepository().findById(ticketId);
+        if (ticketToCancel == null || !ticketToCancel.getBookerId().equals(user.getId())) {
             System.out.println(ColorUtils.RED + "❌ Ticket not found!" + ColorUtils.RESET);
             return;
         }
@@ -220,81 +385,331 @@ public class BookingService {
             return;
         }
 
-        // Cancel ticket
-        ticketToCancel.cancelTicket();
-        user.cancelTicket(ticketToCancel.getId());
-        loginService.updateUser(user);
+        if (!cancelBookedTicket(ticketToCancel, ticketService)) {
+            System.out.println(ColorUtils.YELLOW + "⚠ Ticket is already cancelled." + ColorUtils.RESET);
+            return;
+        }
+        awaitDurable(ticketService.commit());
 
-        // Free booked seats in train
-        Train train = ticketService.getTrainByNumber(ticketToCancel.getTrainId());
-        if (train != null) {
-            for (Map.Entry<String, Passenger> entry : ticketToCancel.getPassengersSafe().entrySet()) {
-                String key = entry.getKey();
-                Passenger passenger = entry.getValue();
-                train.cancelSeat(passenger.getCoach(), passenger.getSeatNumber());
+        System.out.println(ColorUtils.GREEN + "✅ Ticket cancelled successfully!" + ColorUtils.RESET);
+    }
+
+    /**
+     * Frees a ticket's seats, marks it cancelled and saves it, then offers the seats to the
+     * waitlist. The caller has checked ownership and the security number, and commits.
+     *
+     * @return false if the ticket was already cancelled
+     */
+    public static boolean cancelBookedTicket(Ticket ticket, TicketService ticketService) {
+        Set<String> freedTypes = new HashSet<>();
+        synchronized (ticket) { // Another session of this user may be cancelling it too
+            if (ticket.isHasCancelled()) return false;
+
+            // Free booked seats in train (before the ticket drops its passengers); waitlisted tickets hold none
+            Train train = ticketService.getTrainByNumber(ticket.getTrainId());
+            if (train != null && !ticket.isWaitlisted()) {
+                for (Passenger passenger : ticket.getPassengersSafe().values()) {
+                    ticketService.cancelSeat(train, passenger.getCoach(), ticket.getJourneyDate(), passenger.getSeatNumber(),
+                            passenger.getFrom());
+                    Coach coach = train.getCoach(passenger.getCoach());
+                    if (coach != null) freedTypes.add(coach.getType());
+                }
             }
-            ticketService.saveOrUpdateTrain(train);
-            loginService.updateUser(user);
+
+            // Cancel ticket
+            ticket.cancelTicket();
         }
+        ticketService.getTicketRepository().save(ticket);
 
-        System.out.println(ColorUtils.GREEN + "✅ Ticket cancelled successfully!" + ColorUtils.RESET);
+        // Offer the freed seats to the waitlist
+        for (String coachType : freedTypes) {
+            ticketService.getWaitlistService().seatsFreed(ticket.getTrainId(), coachType, ticket.getJourneyDate());
+        }
+        return true;
     }
 
+    /** Lists the user's tickets, newest first, a page at a time. */
     public static void seeTicketsBooked(UserService userService, TicketService ticketService, LoginService loginService) {
-        List<Ticket> tickets = ticketService.getBookedTickets();
-        if (tickets.isEmpty()) {
+        User user = userService.getCurrentUser();
+        Page<Ticket> page = ticketService.getBookedTickets(user, null, Page.DEFAULT_SIZE);
+        if (page.items().isEmpty()) {
             System.out.println(ColorUtils.RED + "\n❌ No tickets booked yet!" + ColorUtils.RESET);
             return;
         }
 
         int count = 1;
+        while (true) {
+            count = printTickets(page.items(), count);
+            if (!page.hasNext() || !askNextPage()) return;
+            page = ticketService.getBookedTickets(user, page.nextCursor(), Page.DEFAULT_SIZE);
+        }
+    }
+
+    /** Prints tickets numbered from {@code first}; returns the number of the next ticket. */
+    private static int printTickets(List<Ticket> tickets, int first) {
+        Screen screen = Terminal.screen();
+        int count = first;
         for (Ticket ticket : tickets) {
-            System.out.println(ColorUtils.CYAN + "\n====================================================" + ColorUtils.RESET);
-            System.out.println(ColorUtils.YELLOW + "Ticket #" + count++ + ColorUtils.RESET);
-            System.out.println(ColorUtils.GREEN + "🆔 Ticket ID: " + ColorUtils.RESET + ticket.getId());
-            System.out.println(ColorUtils.GREEN + "🚆 Train ID: " + ColorUtils.RESET + ticket.getTrainId());
-            System.out.println(ColorUtils.GREEN + "📅 Journey Date: " + ColorUtils.RESET + ticket.getJourneyDate());
-            System.out.println(ColorUtils.GREEN + "💰 Price (per seat): " + ColorUtils.RESET + "₹" + ticket.getPrice());
-            System.out.println(ColorUtils.GREEN + "👥 Seats Booked: " + ColorUtils.RESET + ticket.getSeats());
-            System.out.println(ColorUtils.GREEN + "❌ Cancelled: " + ColorUtils.RESET + (ticket.isHasCancelled() ? "Yes" : "No"));
+            screen.newline().line(ColorUtils.CYAN, Screen.RULE)
+                    .line(ColorUtils.YELLOW, "Ticket #" + count++)
+                    .field(ColorUtils.GREEN, "🆔 Ticket ID: ", ticket.getId())
+                    .field(ColorUtils.GREEN, "🚆 Train ID: ", ticket.getTrainId())
+                    .field(ColorUtils.GREEN, "📅 Journey Date: ", ticket.getJourneyDate())
+                    .field(ColorUtils.GREEN, "💰 Fare: ", FareEngine.format(ticket.getTotalFarePaise()))
+                    .field(ColorUtils.GREEN, "👥 Seats Booked: ", ticket.getSeats())
+                    .field(ColorUtils.GREEN, "❌ Cancelled: ", ticket.isHasCancelled() ? "Yes" : "No");
+            if (ticket.isWaitlisted() && !ticket.isHasCancelled()) {
+                screen.field(ColorUtils.GREEN, "⏳ Waitlisted: ", ticket.getCoachType());
+            }
 
             if (!ticket.getPassengers().isEmpty()) {
-                System.out.println(ColorUtils.CYAN + "----------------------------------------------------" + ColorUtils.RESET);
-                System.out.println(ColorUtils.BLUE + "   👤 Passenger Details:" + ColorUtils.RESET);
-                for (Map.Entry<String, Passenger> e : ticket.getPassengers().entrySet()) {
-                    Passenger p = e.getValue();
-                    System.out.println("   - " + ColorUtils.YELLOW + p.getName() + ColorUtils.RESET +
-                            " | Age: " + p.getAge() + " | Coach: " + p.getCoach() +
-                            " | Seat: " + p.getSeatNumber());
+                screen.line(ColorUtils.CYAN, Screen.DIVIDER)
+                        .line(ColorUtils.BLUE, "   👤 Passenger Details:");
+                for (Passenger p : ticket.getPassengers().values()) {
+                    screen.append("   - ").color(ColorUtils.YELLOW).append(p.getName()).reset()
+                            .append(" | Age: ").append(p.getAge()).append(" | Coach: ").append(p.getCoach())
+                            .append(" | Seat: ").append(p.getSeatNumber());
+                    if (p.getFrom() != null || p.getTo() != null) {
+                        screen.append(" | ").append(p.getFrom() != null ? p.getFrom() : "Source")
+                                .append(" → ").append(p.getTo() != null ? p.getTo() : "Destination");
+                    }
+                    screen.newline();
                 }
             }
         }
-        System.out.println(ColorUtils.CYAN + "====================================================" + ColorUtils.RESET);
+        screen.line(ColorUtils.CYAN, Screen.RULE).print();
+        return count;
+    }
+
+    /** Asks whether to show another page of tickets. */
+    private static boolean askNextPage() {
+        System.out.print(ColorUtils.CYAN + "'n' for the next page, Enter to go back: " + ColorUtils.RESET);
+        return Terminal.scanner().nextLine().trim().equalsIgnoreCase("n");
     }
 
 
 
     public static void searchTrains(UserService userService, TicketService ticketService, LoginService loginService) {
+        Scanner scanner = Terminal.scanner();
         while (true) {
-            System.out.print("\nEnter train name or number (or 'exit' to go back): ");
+            System.out.print("\nEnter train name or number, 'route' to search by stations (or 'exit' to go back): ");
             String query = scanner.nextLine().trim();
             if (query.equalsIgnoreCase("exit")) break;
 
-            List<Train> results = ticketService.searchTrains(query);
-            if (results.isEmpty()) {
-                System.out.println(ColorUtils.RED + "No trains found matching '" + query + "'." + ColorUtils.RESET);
-            } else {
-                System.out.println("-------------------------------------------------------------------------------------------------");
-                System.out.printf("| %-5s | %-25s | %-10s | %-10s | %-6s | %-6s |\n",
-                        "ID", "Name", "Source", "Destination", "Total", "Avail");
-                System.out.println("-------------------------------------------------------------------------------------------------");
-                for (Train t : results) {
-                    System.out.printf("| %-5s | %-25s | %-10s | %-10s | %-6d | %-6d |\n",
-                            t.getId(), t.getName(), t.getSource().getCode(), t.getDestination().getCode(),
-                            t.getTotalSeats(), t.getAvailableSeats());
+            if (query.equalsIgnoreCase("route")) {
+                searchTrainsByRoute(ticketService);
+                continue;
+            }
+
+            browseTrains((sort, cursor) -> ticketService.searchTrains(query, sort, cursor, Page.DEFAULT_SIZE), null,
+                    null, null, ticketService.getFareEngine(),
+                    "No trains found matching '" + query + "'.");
+        }
+    }
+
+    /** Asks for source, destination and date, then lists trains on that route. */
+    private static void searchTrainsByRoute(TicketService ticketService) {
+        StationService stationService = ticketService.getRouteService().getStationService();
+
+        String from = askStationCode("From station code: ", stationService);
+        if (from == null) return;
+        String to = askStationCode("To station code: ", stationService);
+        if (to == null) return;
+
+        Scanner scanner = Terminal.scanner();
+        LocalDate journeyDate = null;
+        while (journeyDate == null) {
+            System.out.print(ColorUtils.CYAN + "Journey date (dd/MM/yyyy), Enter for today: " + ColorUtils.RESET);
+            String input = scanner.nextLine().trim();
+            try {
+                journeyDate = input.isEmpty() ? LocalDate.now() : LocalDate.parse(input, DATE_FORMATTER);
+            } catch (DateTimeParseException e) {
+                System.out.println(ColorUtils.RED + "⚠ Invalid date format! Use dd/MM/yyyy." + ColorUtils.RESET);
+            }
+        }
+
+        LocalDate date = journeyDate;
+        browseTrains((sort, cursor) -> ticketService.searchTrains(from, to, date, sort, cursor, Page.DEFAULT_SIZE), date,
+                from, to, ticketService.getFareEngine(),
+                "No trains from " + from + " to " + to + " on " + date.format(DATE_FORMATTER) + ".");
+    }
+
+    /**
+     * Shows search results a page at a time. 'n' shows the next page; 'd', 'a' or 'f' starts
+     * again sorted by departure, availability or fare; Enter ends the listing.
+     *
+     * @param search returns one page for a sort order and cursor
+     * @param from   stop searched from, or null for each train's whole run
+     * @param to     stop searched to, or null for each train's whole run
+     */
+    private static void browseTrains(BiFunction<TrainSort, String, Page<Train>> search, LocalDate journeyDate,
+                                     String from, String to, FareEngine fares, String emptyMessage) {
+        Scanner scanner = Terminal.scanner();
+        TrainSort sort = TrainSort.CATALOGUE;
+        Page<Train> page = search.apply(sort, null);
+        if (page.items().isEmpty()) {
+            System.out.println(ColorUtils.RED + emptyMessage + ColorUtils.RESET);
+            return;
+        }
+
+        while (true) {
+            printTrainTable(page.items(), journeyDate, from, to, fares);
+            System.out.print(ColorUtils.CYAN + (page.hasNext() ? "'n' next page, " : "")
+                    + "sort by 'd'eparture, 'a'vailability or 'f'are, Enter to go back: " + ColorUtils.RESET);
+            String choice = scanner.nextLine().trim().toLowerCase();
+            switch (choice) {
+                case "n" -> {
+                    if (page.hasNext()) page = search.apply(sort, page.nextCursor());
                 }
-                System.out.println("-------------------------------------------------------------------------------------------------");
+                case "d" -> page = search.apply(sort = TrainSort.DEPARTURE, null);
+                case "a" -> page = search.apply(sort = TrainSort.AVAILABILITY, null);
+                case "f" -> page = search.apply(sort = TrainSort.FARE, null);
+                case "" -> {
+                    return;
+                }
+                default -> System.out.println(ColorUtils.RED + "⚠ Unknown choice '" + choice + "'." + ColorUtils.RESET);
             }
         }
     }
+
+    /** Asks for a known station code. Returns null if the user goes back. */
+    private static String askStationCode(String prompt, StationService stationService) {
+        Scanner scanner = Terminal.scanner();
+        while (true) {
+            System.out.print(ColorUtils.CYAN + prompt + ColorUtils.RESET);
+            String code = scanner.nextLine().trim().toUpperCase();
+            if (code.equals("BACK")) return null;
+            if (stationService.exists(code)) return code;
+            System.out.println(ColorUtils.RED + "⚠ Unknown station code '" + code + "'. Try again or type 'back'." + ColorUtils.RESET);
+        }
+    }
+
+    /**
+     * Prints trains with seat availability and the lowest adult fare on the given journey date,
+     * or on each train's next running date when no date is given. Both are for the leg between
+     * the given stops, or for the whole run when they are null.
+     */
+    private static void printTrainTable(List<Train> trains, LocalDate journeyDate, String from, String to, FareEngine fares) {
+        LocalDate today = LocalDate.now();
+        Screen screen = Terminal.screen()
+                .line(TRAIN_TABLE_RULE)
+                .row(TRAIN_TABLE, "ID", "Name", "Source", "Destination", journeyDate != null ? "Date" : "Next Run",
+                        "Departs", "Fare", "Total", "Avail")
+                .line(TRAIN_TABLE_RULE);
+        for (Train t : trains) {
+            LocalDate date = journeyDate != null ? journeyDate : t.nextRunningDate(today);
+            Leg leg = t.leg(from, to);
+            screen.row(TRAIN_TABLE, t.getId(), t.getName(), t.getSource().getCode(), t.getDestination().getCode(),
+                    date != null ? date.format(DATE_FORMATTER) : "-",
+                    t.getDepartureTime() != null ? t.getDepartureTime() : "-", FareEngine.format(fares.lowestFare(t, leg, date)),
+                    t.getTotalSeats(), date != null ? t.getAvailableSeats(date, leg) : "-");
+        }
+        screen.line(TRAIN_TABLE_RULE).print();
+    }
+
+    // ------------------- Helper Methods -------------------
+
+    /** Waits for a flash-sale turn on busy trains, showing the queue position. Returns false if not admitted. */
+    private static boolean admit(Train train, TicketService ticketService) {
+        AdmissionGate gate = ticketService.getAdmissionGate();
+        if (!gate.isActive(train.getId())) return true;
+
+        int ahead = gate.getQueueLength(train.getId());
+        if (ahead > 0) {
+            System.out.println(ColorUtils.YELLOW + "🚦 High demand on " + train.getName() + ": you are #" + (ahead + 1)
+                    + " in the queue. Please wait..." + ColorUtils.RESET);
+            System.out.flush(); // Session output is otherwise flushed only when input is read
+        }
+        try {
+            if (gate.admit(train.getId(), MAX_ADMISSION_WAIT_SECONDS, TimeUnit.SECONDS)) return true;
+            System.out.println(ColorUtils.RED + "❌ The queue did not move in time. Please try again." + ColorUtils.RESET);
+        } catch (IllegalStateException e) {
+            System.out.println(ColorUtils.RED + "❌ " + e.getMessage() + ColorUtils.RESET);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+
+    /** Waits until the background writer has the given changes on disk. Warns if it failed. */
+    private static void awaitDurable(CompletableFuture<?>... writes) {
+        try {
+            CompletableFuture.allOf(writes).join();
+        } catch (CompletionException e) {
+            System.out.println(ColorUtils.YELLOW + "⚠ Changes are saved in memory but could not be written to disk: "
+                    + e.getCause().getMessage() + ColorUtils.RESET);
+        }
+    }
+
+    /**
+     * Asks where the passengers board and alight, for trains with intermediate stops. Enter picks
+     * the source or the destination. Returns the whole run for non-stop trains, or null if the
+     * user goes back.
+     */
+    private static Leg askLeg(Train train) {
+        if (train.getSegmentCount() == 1) return train.getWholeRun();
+
+        Scanner scanner = Terminal.scanner();
+        while (true) {
+            System.out.print(ColorUtils.CYAN + "Boarding stop code, Enter for " + train.stopCode(0) + ", or 'back': " + ColorUtils.RESET);
+            String from = scanner.nextLine().trim();
+            if (from.equalsIgnoreCase("back")) return null;
+            System.out.print(ColorUtils.CYAN + "Alighting stop code, Enter for " + train.stopCode(train.getSegmentCount()) + ": " + ColorUtils.RESET);
+            String to = scanner.nextLine().trim();
+            try {
+                return train.leg(from.isEmpty() ? null : from, to.isEmpty() ? null : to);
+            } catch (IllegalArgumentException e) {
+                System.out.println(ColorUtils.RED + "⚠ " + e.getMessage() + ". Try again." + ColorUtils.RESET);
+            }
+        }
+    }
+
+    /**
+     * Asks for a journey date until the user enters one the train runs on within the booking window.
+     * Pressing Enter picks the next running date. Returns null if the user goes back.
+     */
+    private static LocalDate askJourneyDate(Train train) {
+        LocalDate today = LocalDate.now();
+        LocalDate lastBookable = today.plusDays(ADVANCE_BOOKING_DAYS);
+        LocalDate nextRun = train.nextRunningDate(today);
+        if (nextRun == null || nextRun.isAfter(lastBookable)) {
+            System.out.println(ColorUtils.RED + "⚠ This train has no running dates open for booking." + ColorUtils.RESET);
+            return null;
+        }
+
+        Scanner scanner = Terminal.scanner();
+        while (true) {
+            System.out.print(ColorUtils.CYAN + "Enter journey date (dd/MM/yyyy), Enter for "
+                    + nextRun.format(DATE_FORMATTER) + ", or 'back': " + ColorUtils.RESET);
+            String input = scanner.nextLine().trim();
+            if (input.equalsIgnoreCase("back")) return null;
+            if (input.isEmpty()) return nextRun;
+
+            LocalDate date;
+            try {
+                date = LocalDate.parse(input, DATE_FORMATTER);
+            } catch (DateTimeParseException e) {
+                System.out.println(ColorUtils.RED + "⚠ Invalid date format! Use dd/MM/yyyy." + ColorUtils.RESET);
+                continue;
+            }
+
+            String error = checkJourneyDate(train, date);
+            if (error == null) return date;
+            System.out.println(ColorUtils.RED + "⚠ " + error + ColorUtils.RESET);
+        }
+    }
+
+    /** Returns running days in week order, e.g. "MON, WED, FRI". */
+    private static String formatRunningDays(Train train) {
+        return train.getRunningDays().stream()
+                .sorted()
+                .map(day -> day.name().substring(0, 3))
+                .collect(Collectors.joining(", "));
+    }
+
+    private static String formatStops(Train train) {
+        return train.getStops().stream()
+                .map(stop -> stop.getCode() + " (" + stop.getDistanceKm() + " km)")
+                .collect(Collectors.joining(" → "));
+    }
 }
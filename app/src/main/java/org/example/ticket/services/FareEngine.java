@@ -0,0 +1,189 @@
+package org.example.ticket.services;
+
+import org.example.ticket.entities.Coach;
+import org.example.ticket.entities.Leg;
+import org.example.ticket.entities.Passenger;
+import org.example.ticket.entities.Train;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Quotes fares in paise from tables built once, so a quote is a few array reads and one
+ * division, with no allocation and no floating point.
+ * <p>
+ * A passenger's fare is the distance fare of the coach type, raised with the coach's occupancy
+ * on the journey date and reduced by the passenger's age concession, rounded up to the next
+ * 5 rupees, plus the type's reservation charge. The distance fare tapers over distance slabs and
+ * has a minimum chargeable distance. Coaches of a type without a fare class are charged their
+ * listed {@link Coach#getPrice() price} as the distance fare. Passengers are charged for the
+ * distance of the leg they travel.
+ */
+public final class FareEngine {
+
+    /** Longest distance with its own table entry; longer runs are charged as this distance. */
+    public static final int MAX_DISTANCE_KM = 5_000;
+
+    /** Oldest age with its own concession entry. */
+    public static final int MAX_AGE = 125;
+
+    /** Share of the per-km rate charged from each slab start, in percent. */
+    private static final int[] SLAB_START_KM = {1, 501, 1_001, 2_001};
+    private static final int[] SLAB_RATE_PERCENT = {100, 85, 70, 60};
+
+    private static final int CHILD_MAX_AGE = 11;
+    private static final int SENIOR_MIN_AGE = 60;
+    private static final int CHILD_SHARE = 5_000;    // In basis points of the full fare
+    private static final int SENIOR_SHARE = 6_000;
+
+    private static final long BASIS_POINTS_SQUARED = 10_000L * 10_000L;
+    private static final long ROUNDING_PAISE = 500;  // Fares round up to whole 5 rupees
+
+    /**
+     * Fare rules of one coach type.
+     *
+     * @param type           coach type as in the catalogue, matched ignoring case
+     * @param paisePerKm     rate over the first slab
+     * @param minKm          shortest distance charged
+     * @param reservationPaise flat charge per passenger, not discounted or raised
+     */
+    public record FareClass(String type, int paisePerKm, int minKm, long reservationPaise) {
+    }
+
+    /** Standard fare classes for the coach types in the catalogue. */
+    public static final List<FareClass> STANDARD_CLASSES = List.of(
+            new FareClass("Second Sitting", 25, 50, 1_500),
+            new FareClass("Sleeper", 45, 200, 2_000),
+            new FareClass("AC Chair Car", 100, 100, 4_000),
+            new FareClass("AC 3 Tier", 120, 300, 4_000),
+            new FareClass("AC 2 Tier", 170, 300, 5_000),
+            new FareClass("AC First Class", 290, 300, 6_000));
+
+    private final Map<String, Integer> classByType = new HashMap<>(); // Type and lower-cased type -> row
+    private final long[][] distanceFare;     // [class][km] distance fare in paise
+    private final long[] reservationCharge;  // [class]
+    private final int[] ageShare;            // [age] share of the fare charged, in basis points
+    private final int[] occupancyShare;      // [percent booked] share of the fare charged, in basis points
+
+    public FareEngine(List<FareClass> classes) {
+        distanceFare = new long[classes.size()][];
+        reservationCharge = new long[classes.size()];
+        for (int c = 0; c < classes.size(); c++) {
+            FareClass fareClass = classes.get(c);
+            classByType.put(fareClass.type(), c);
+            classByType.put(fareClass.type().toLowerCase(Locale.ROOT), c);
+            distanceFare[c] = distanceTable(fareClass);
+            reservationCharge[c] = fareClass.reservationPaise();
+        }
+
+        ageShare = new int[MAX_AGE + 1];
+        for (int age = 0; age <= MAX_AGE; age++) {
+            ageShare[age] = age <= CHILD_MAX_AGE ? CHILD_SHARE : age >= SENIOR_MIN_AGE ? SENIOR_SHARE : 10_000;
+        }
+
+        // Flat up to 60% booked, then 10% dearer per 10% booked, up to 50% at a full coach
+        occupancyShare = new int[101];
+        for (int percent = 0; percent <= 100; percent++) {
+            occupancyShare[percent] = 10_000 + Math.max(0, percent / 10 - 5) * 1_000;
+        }
+    }
+
+    public static FareEngine standard() {
+        return new FareEngine(STANDARD_CLASSES);
+    }
+
+    // ------------------- Quotes -------------------
+
+    /**
+     * Fare of one passenger, in paise.
+     *
+     * @param distanceKm  distance travelled; 0 or less charges the minimum distance
+     * @param bookedSeats seats already booked in the coach on the journey date
+     */
+    public long quote(Coach coach, int distanceKm, int age, int bookedSeats) {
+        Integer fareClass = classOf(coach.getType());
+        long base = fareClass != null
+                ? distanceFare[fareClass][Math.max(0, Math.min(distanceKm, MAX_DISTANCE_KM))]
+                : Math.round(coach.getPrice() * 100);
+        int percentBooked = coach.getTotalSeats() > 0
+                ? Math.max(0, Math.min(100, bookedSeats * 100 / coach.getTotalSeats()))
+                : 0;
+        long scaled = base * occupancyShare[percentBooked] * ageShare[Math.max(0, Math.min(age, MAX_AGE))];
+        long rounded = ceilDiv(scaled, BASIS_POINTS_SQUARED * ROUNDING_PAISE) * ROUNDING_PAISE;
+        return rounded + (fareClass != null ? reservationCharge[fareClass] : 0);
+    }
+
+    /** Total fare of passengers in one coach of a train, each for the leg they travel, in paise. */
+    public long quote(Train train, Coach coach, LocalDate journeyDate, List<Passenger> passengers) {
+        int booked = bookedSeats(coach, journeyDate);
+        long total = 0;
+        for (Passenger passenger : passengers) {
+            total += quote(coach, train.distanceKm(train.legOf(passenger)), passenger.getAge(), booked);
+        }
+        return total;
+    }
+
+    /** Adult fare for the whole run in one coach on a date, in paise. */
+    public long adultFare(Train train, Coach coach, LocalDate journeyDate) {
+        return adultFare(train, coach, train.getWholeRun(), journeyDate);
+    }
+
+    /** Adult fare for a leg in one coach on a date, in paise. */
+    public long adultFare(Train train, Coach coach, Leg leg, LocalDate journeyDate) {
+        return quote(coach, train.distanceKm(leg), SENIOR_MIN_AGE - 1, bookedSeats(coach, journeyDate));
+    }
+
+    /** Cheapest adult fare for the whole run over the coaches of a train, in paise, or 0 for a train without coaches. */
+    public long lowestFare(Train train, LocalDate journeyDate) {
+        return lowestFare(train, train.getWholeRun(), journeyDate);
+    }
+
+    /** Cheapest adult fare for a leg over the coaches of a train, in paise, or 0 for a train without coaches. */
+    public long lowestFare(Train train, Leg leg, LocalDate journeyDate) {
+        long lowest = Long.MAX_VALUE;
+        for (Coach coach : train.getCoaches()) lowest = Math.min(lowest, adultFare(train, coach, leg, journeyDate));
+        return lowest == Long.MAX_VALUE ? 0 : lowest;
+    }
+
+    /** Formats paise as rupees, such as {@code ₹565} or {@code ₹72.50}. */
+    public static String format(long paise) {
+        long rupees = paise / 100;
+        int rest = (int) Math.abs(paise % 100);
+        return rest == 0 ? "₹" + rupees : String.format("₹%d.%02d", rupees, rest);
+    }
+
+    // ------------------- Helper Methods -------------------
+
+    private Integer classOf(String type) {
+        if (type == null) return null;
+        Integer fareClass = classByType.get(type);
+        return fareClass != null ? fareClass : classByType.get(type.toLowerCase(Locale.ROOT));
+    }
+
+    /** Booked seats in a coach on a date; 0 when no date is given. */
+    private static int bookedSeats(Coach coach, LocalDate journeyDate) {
+        return journeyDate != null ? coach.getTotalSeats() - coach.getAvailableSeats(journeyDate) : 0;
+    }
+
+    /** Cumulative distance fare for each km, charging at least the minimum distance. */
+    private static long[] distanceTable(FareClass fareClass) {
+        long[] table = new long[MAX_DISTANCE_KM + 1];
+        long centiPaise = 0; // Slab rates are in percent, so sum in hundredths of a paisa
+        int slab = 0;
+        for (int km = 1; km <= MAX_DISTANCE_KM; km++) {
+            if (slab + 1 < SLAB_START_KM.length && km >= SLAB_START_KM[slab + 1]) slab++;
+            centiPaise += (long) fareClass.paisePerKm() * SLAB_RATE_PERCENT[slab];
+            table[km] = centiPaise / 100;
+        }
+        int minKm = Math.max(1, Math.min(fareClass.minKm(), MAX_DISTANCE_KM));
+        for (int km = 0; km < minKm; km++) table[km] = table[minKm];
+        return table;
+    }
+
+    private static long ceilDiv(long dividend, long divisor) {
+        return (dividend + divisor - 1) / divisor;
+    }
+}
@@ -1,130 +1,229 @@
 package org.example.ticket.services;
 
-import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.example.ticket.entities.User;
-import org.mindrot.jbcrypt.BCrypt;
+import org.example.ticket.persistence.GroupCommitter;
+import org.example.ticket.persistence.UserShardStore;
+import org.example.ticket.utils.IdGenerator;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.ArrayList;
+import java.nio.file.Path;
 import java.util.List;
-import java.util.UUID;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Service for handling user login and persistence with Jackson + BCrypt.
+ * <p>
+ * Users are stored in a {@link UserShardStore} under database/users/: hash-partitioned shard
+ * files plus an email index. Startup reads only the index; a user's shard is read when that
+ * user is first looked up, and a change rewrites only that user's shard, on the shared
+ * {@link GroupCommitter}. An old users.json is migrated into shards on first start.
+ * <p>
+ * The email index maps normalized emails (trimmed, lower-cased) to user IDs, so lookups and
+ * duplicate checks are single hash lookups. Claiming an email in the index is atomic, which
+ * keeps concurrent sign-ups with the same email from both succeeding.
+ * <p>
+ * Hashing and verification run on the {@link PasswordHasher} pool. Hashes made with an older
+ * bcrypt cost are upgraded in the background after a successful login.
  */
 public class LoginService {
-    public static final String FILE_PATH = "app/src/main/java/org/example/ticket/database/users.json";
+    public static final String USERS_DIRECTORY = "app/src/main/java/org/example/ticket/database/users";
+    public static final String LEGACY_FILE_PATH = "app/src/main/java/org/example/ticket/database/users.json";
+    public static final String LEGACY_JOURNAL_PATH = "app/src/main/java/org/example/ticket/database/users.journal";
 
-    private final ObjectMapper objectMapper;
-    private List<User> users;
-
-    public LoginService() {
-        this.objectMapper = new ObjectMapper();
-        // --- FIX: Register JavaTimeModule for LocalDate, LocalDateTime etc ---
-        objectMapper.registerModule(new JavaTimeModule());
-        objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
-
-        this.users = new ArrayList<>();
-        loadUsers();System.out.println("Using users file at: " + new File(FILE_PATH).getAbsolutePath());
-        System.out.println("Loaded Users: " + this.users.size());
-        for (User u : this.users) {
-            System.out.println(u.getName() + " | " + u.getId());
-        }
-    }
-
-    private void loadUsers() {
-        File file = new File(FILE_PATH);
-        if (!file.exists()) {
-            users = new ArrayList<>();
-            return;
-        }
+    private final UserShardStore store;
+    private final Map<String, String> idsByEmail;                                 // Normalized email -> user ID
+    private final Map<String, String> emailKeysById = new ConcurrentHashMap<>();  // User ID -> its key in idsByEmail
+    private final PasswordHasher passwordHasher = new PasswordHasher();
 
+    public LoginService(GroupCommitter committer) {
         try {
-            users = objectMapper.readValue(file, new TypeReference<List<User>>() {});
+            this.store = UserShardStore.open(Path.of(USERS_DIRECTORY), Path.of(LEGACY_FILE_PATH),
+                    Path.of(LEGACY_JOURNAL_PATH), createObjectMapper(), committer, LoginService::normalizeEmail);
         } catch (IOException e) {
-            System.out.println("Error loading users from file : " + e.getMessage());
-            users = new ArrayList<>();
+            throw new IllegalStateException("Cannot open user store at " + USERS_DIRECTORY + ": " + e.getMessage(), e);
         }
+        this.idsByEmail = store.getEmailIndex();
+        idsByEmail.forEach((emailKey, id) -> emailKeysById.put(id, emailKey));
+
+        System.out.println("Using users directory at: " + new File(USERS_DIRECTORY).getAbsolutePath());
+        System.out.println("Indexed Users: " + idsByEmail.size() + " in " + store.getShardCount() + " shards");
     }
 
-    private void saveUsers() {
-        try {
-            objectMapper.writerWithDefaultPrettyPrinter().writeValue(new File(FILE_PATH), users);
-        } catch (IOException e) {
-            System.out.println("Error saving users to file : " + e.getMessage());
+    /** Creates a service over in-memory users, without reading or writing any files. */
+    public LoginService(List<User> users) {
+        this.store = UserShardStore.inMemory(UserShardStore.DEFAULT_SHARD_COUNT);
+        this.idsByEmail = store.getEmailIndex();
+        for (User user : users) {
+            String key = normalizeEmail(user.getEmail());
+            idsByEmail.put(key, user.getId());
+            emailKeysById.put(user.getId(), key);
+            store.put(user);
         }
     }
 
+    private static ObjectMapper createObjectMapper() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        // --- FIX: Register JavaTimeModule for LocalDate, LocalDateTime etc ---
+        objectMapper.registerModule(new JavaTimeModule());
+        objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        return objectMapper;
+    }
+
     /**
      * Registers a new user with hashed password.
+     *
+     * @throws IllegalArgumentException if the email is already registered
+     * @throws ServerBusyException      if the hashing pool is saturated
      */
     public User registerUser(String email, String name, String password) {
         // trim input
         email = email.trim();
         name = name.trim();
+        String emailKey = normalizeEmail(email);
+        if (idsByEmail.containsKey(emailKey)) throw new IllegalArgumentException("Email already registered");
 
         // hash password
-        String passwordHash = BCrypt.hashpw(password, BCrypt.gensalt());
+        String passwordHash = await(passwordHasher.hash(password));
 
-        // generate unique ID
-        String id = UUID.randomUUID().toString().substring(0, 4).toUpperCase();
+        // generate unique ID and create user
+        String id;
+        do {
+            id = IdGenerator.getDefault().nextIdString();
+        } while (emailKeysById.putIfAbsent(id, emailKey) != null);
 
+        // claim the email atomically; a concurrent sign-up may have won it while we hashed
+        if (idsByEmail.putIfAbsent(emailKey, id) != null) {
+            emailKeysById.remove(id, emailKey);
+            throw new IllegalArgumentException("Email already registered");
+        }
 
-        // create user
         User user = new User(id, name, email, passwordHash);
-
-        // add to list and save
-        users.add(user);
-        saveUsers();
-
+        store.put(user);
+        store.saveIndex();
         return user;
     }
 
 
+    /**
+     * Logs a user in, upgrading their password hash if it was made with another bcrypt cost.
+     *
+     * @throws ServerBusyException if the hashing pool is saturated
+     */
     public User login(String email, String plainPassword) throws Exception {
         // remove leading/trailing spaces
         email = email.trim();
 
-        // find user by email (case-insensitive)
-        String finalEmail = email;
-        User user = users.stream()
-                .filter(u -> u.getEmail().trim().equalsIgnoreCase(finalEmail))
-                .findFirst()
-                .orElse(null);
+        // find user by email (case-insensitive); reads the user's shard on first use
+        User user = findUserByEmail(email);
 
         if (user == null) {
             throw new Exception("User not found with this email");
         }
 
         // check password
-        if (!BCrypt.checkpw(plainPassword, user.getPasswordHash())) {
+        if (!await(passwordHasher.verify(plainPassword, user.getPasswordHash()))) {
             throw new Exception("Wrong password");
         }
 
+        if (passwordHasher.needsRehash(user.getPasswordHash())) rehash(user, plainPassword);
         return user;
     }
 
+    /**
+     * Replaces a user's password with a hash of the new one.
+     *
+     * @return future that completes when the change is durable
+     * @throws ServerBusyException if the hashing pool is saturated
+     */
+    public CompletableFuture<Void> setPassword(User user, String newPassword) {
+        String passwordHash = await(passwordHasher.hash(newPassword));
+        synchronized (user) {
+            user.setPasswordHash(passwordHash);
+        }
+        return updateUser(user);
+    }
 
+    /**
+     * Changes a user's password after checking the old one.
+     *
+     * @return future that completes when the change is durable
+     * @throws IllegalArgumentException if the old password is wrong
+     * @throws ServerBusyException      if the hashing pool is saturated
+     */
+    public CompletableFuture<Void> changePassword(User user, String oldPassword, String newPassword) {
+        if (!await(passwordHasher.verify(oldPassword, user.getPasswordHash()))) {
+            throw new IllegalArgumentException("Old password incorrect");
+        }
+        return setPassword(user, newPassword);
+    }
 
+    /** Hashing pool with its latency histograms and counters. */
+    public PasswordHasher getPasswordHasher() {
+        return passwordHasher;
+    }
 
+    /** Every registered user. Reads all shards. */
     public List<User> getUsers() {
-        return new ArrayList<>(users);
+        return store.loadAll();
     }
 
 
-    // In LoginService
-    public void updateUser(User updatedUser) {
-        for (int i = 0; i < users.size(); i++) {
-            if (users.get(i).getId().equals(updatedUser.getId())) {
-                users.set(i, updatedUser);
-                saveUsers();
-                return;
-            }
+    /**
+     * Replaces the stored user with the same ID and queues it for persistence.
+     * Re-indexes the user if the email changed.
+     *
+     * @return future that completes when the change is durable
+     * @throws IllegalArgumentException if the new email belongs to another user
+     */
+    public CompletableFuture<Void> updateUser(User updatedUser) {
+        if (!emailKeysById.containsKey(updatedUser.getId())) return CompletableFuture.completedFuture(null);
+        CompletableFuture<Void> indexSaved = reindexEmail(updatedUser);
+        return CompletableFuture.allOf(store.put(updatedUser), indexSaved);
+    }
+
+    /**
+     * Changes a user's email. The new email is claimed in the index first, so the user is
+     * never seen with an email that another user owns, and keeps the old one if it is taken.
+     *
+     * @return future that completes when the change is durable
+     * @throws IllegalArgumentException if the new email belongs to another user
+     */
+    public CompletableFuture<Void> changeEmail(User user, String newEmail) {
+        String email = newEmail.trim();
+        String newKey = normalizeEmail(email);
+        String oldKey = emailKeysById.get(user.getId());
+        if (oldKey != null && !newKey.equals(oldKey)) {
+            String owner = idsByEmail.putIfAbsent(newKey, user.getId());
+            if (owner != null && !owner.equals(user.getId())) throw new IllegalArgumentException("Email already registered");
+        }
+        synchronized (user) {
+            user.setEmail(email);
         }
+        return updateUser(user); // Finds the new key already ours and drops the old one
+    }
+
+    /**
+     * Finds a registered user by email (case-insensitive), or returns null.
+     */
+    public User findUserByEmail(String email) {
+        if (email == null || email.trim().isEmpty()) return null;
+        return findUserById(idsByEmail.get(normalizeEmail(email)));
+    }
+
+    /**
+     * Finds a registered user by ID, or returns null.
+     */
+    public User findUserById(String id) {
+        return id == null || !emailKeysById.containsKey(id) ? null : store.get(id);
     }
 
     /**
@@ -132,11 +231,60 @@ public class LoginService {
      */
     public boolean isAlreadyRegistered(String email) {
         if (email == null || email.trim().isEmpty()) return false;
+        return idsByEmail.containsKey(normalizeEmail(email));
+    }
+
+    // ------------------- Helper Methods -------------------
+
+    /**
+     * Re-hashes a password with the current cost off the login path. Best effort: if the pool
+     * is busy or the user changed their password meanwhile, the old hash is kept.
+     */
+    private void rehash(User user, String plainPassword) {
+        String oldHash = user.getPasswordHash();
+        passwordHasher.hash(plainPassword).thenAccept(newHash -> {
+            synchronized (user) {
+                if (!oldHash.equals(user.getPasswordHash())) return;
+                user.setPasswordHash(newHash);
+            }
+            passwordHasher.recordRehash();
+            updateUser(user);
+        });
+    }
+
+    /** Waits for a hashing task, turning a full queue into a "busy" error. */
+    private static <T> T await(CompletableFuture<T> task) {
+        try {
+            return task.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RejectedExecutionException) {
+                throw new ServerBusyException();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Moves the user's email-index entry if the email changed. The new key is claimed atomically.
+     *
+     * @return future that completes when the index is written, or a completed one if unchanged
+     */
+    private CompletableFuture<Void> reindexEmail(User user) {
+        String newKey = normalizeEmail(user.getEmail());
+        String oldKey = emailKeysById.get(user.getId());
+        if (newKey.equals(oldKey)) return CompletableFuture.completedFuture(null);
+
+        String owner = idsByEmail.putIfAbsent(newKey, user.getId());
+        if (owner != null && !owner.equals(user.getId())) {
+            throw new IllegalArgumentException("Email already registered");
+        }
+        emailKeysById.put(user.getId(), newKey);
+        if (oldKey != null) idsByEmail.remove(oldKey, user.getId());
+        return store.saveIndex();
+    }
 
-        String finalEmail = email.trim().toLowerCase(); // normalize
-        return users.stream()
-                .anyMatch(u -> u.getEmail() != null
-                        && u.getEmail().trim().toLowerCase().equals(finalEmail));
+    private static String normalizeEmail(String email) {
+        return email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
     }
 
 }
@@ -0,0 +1,100 @@
+package org.example.ticket.services;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * One page of results and the cursor of the page after it, or null on the last page.
+ * <p>
+ * Cursors are keyset positions, not offsets: they hold the sort key and ID of the last item
+ * shown, and the next page starts strictly after that item. Pages therefore stay consistent
+ * while items are added, and no page needs the items before it. Callers treat cursors as
+ * opaque strings.
+ */
+public record Page<T>(List<T> items, String nextCursor) {
+
+    public static final int DEFAULT_SIZE = 10;
+    public static final int MAX_SIZE = 100;
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+
+    public <R> Page<R> map(Function<? super T, ? extends R> mapper) {
+        return new Page<>(items.stream().<R>map(mapper).toList(), nextCursor);
+    }
+
+    // ------------------- Building -------------------
+
+    /**
+     * Takes the first {@code size} candidates, which already arrive in page order. Stops reading
+     * the stream after {@code size + 1} of them.
+     */
+    static <T> Page<T> ofOrdered(Stream<T> candidates, int size, Function<T, String> cursorOf) {
+        List<T> items = candidates.limit(size + 1L).collect(Collectors.toCollection(ArrayList::new));
+        return trim(items, size, cursorOf);
+    }
+
+    /**
+     * Takes the {@code size} smallest candidates in {@code order}. Holds at most {@code size + 1}
+     * of them at a time, however many candidates there are.
+     */
+    static <T> Page<T> ofSorted(Stream<T> candidates, Comparator<? super T> order, int size,
+                                Function<T, String> cursorOf) {
+        PriorityQueue<T> smallest = new PriorityQueue<>(size + 2, order.reversed()); // Largest kept item on top
+        candidates.forEachOrdered(candidate -> {
+            smallest.add(candidate);
+            if (smallest.size() > size + 1) smallest.poll();
+        });
+        List<T> items = new ArrayList<>(smallest);
+        items.sort(order);
+        return trim(items, size, cursorOf);
+    }
+
+    /** Rejects page sizes outside 1..{@link #MAX_SIZE}. */
+    static int checkSize(int size) {
+        if (size < 1 || size > MAX_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_SIZE);
+        }
+        return size;
+    }
+
+    // ------------------- Cursors -------------------
+
+    /** Encodes the parts of a position as an opaque, URL-safe cursor. */
+    static String encodeCursor(Object... parts) {
+        String joined = Stream.of(parts).map(String::valueOf).collect(Collectors.joining("\n"));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(joined.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor made by {@link #encodeCursor} with {@code count} parts.
+     *
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    static String[] decodeCursor(String cursor, int count) {
+        try {
+            String joined = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = joined.split("\n", -1);
+            if (parts.length == count) return parts;
+        } catch (IllegalArgumentException e) {
+            // Not Base64; reported below
+        }
+        throw new IllegalArgumentException("Invalid page cursor");
+    }
+
+    // ------------------- Helper Methods -------------------
+
+    private static <T> Page<T> trim(List<T> items, int size, Function<T, String> cursorOf) {
+        if (items.size() <= size) return new Page<>(List.copyOf(items), null);
+        List<T> page = List.copyOf(items.subList(0, size));
+        return new Page<>(page, cursorOf.apply(page.get(size - 1)));
+    }
+}
@@ -0,0 +1,157 @@
+package org.example.ticket.services;
+
+import org.example.ticket.utils.LatencyHistogram;
+import org.mindrot.jbcrypt.BCrypt;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Runs bcrypt hashing and verification on a dedicated, bounded thread pool.
+ * <p>
+ * bcrypt is deliberately CPU-heavy, so a burst of logins must not take every core. Work is
+ * queued up to {@code queueCapacity}; beyond that new requests fail fast with
+ * {@link RejectedExecutionException} instead of piling up. The cost factor is configurable, and
+ * {@link #needsRehash} tells callers when a stored hash was made with a different cost.
+ * <p>
+ * Defaults can be changed with the {@code irctc.bcrypt.cost}, {@code irctc.bcrypt.threads} and
+ * {@code irctc.bcrypt.queue} system properties.
+ */
+public class PasswordHasher implements AutoCloseable {
+
+    public static final int DEFAULT_COST = 10; // Same as BCrypt.gensalt()
+    public static final int DEFAULT_QUEUE_CAPACITY = 256;
+
+    private final int cost;
+    private final ThreadPoolExecutor executor;
+
+    // ------------------- Metrics -------------------
+    private final LatencyHistogram hashLatency = new LatencyHistogram();
+    private final LatencyHistogram verifyLatency = new LatencyHistogram();
+    private final LongAdder verifyFailures = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder rehashes = new LongAdder();
+
+    public PasswordHasher() {
+        this(Integer.getInteger("irctc.bcrypt.cost", DEFAULT_COST),
+                Integer.getInteger("irctc.bcrypt.threads", Math.max(1, Runtime.getRuntime().availableProcessors() / 2)),
+                Integer.getInteger("irctc.bcrypt.queue", DEFAULT_QUEUE_CAPACITY));
+    }
+
+    public PasswordHasher(int cost, int threads, int queueCapacity) {
+        if (cost < 4 || cost > 31) throw new IllegalArgumentException("bcrypt cost must be between 4 and 31");
+        if (threads < 1) throw new IllegalArgumentException("Thread count must be at least 1");
+        this.cost = cost;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "bcrypt-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    // ------------------- Hashing -------------------
+
+    /** Hashes a password with the configured cost. */
+    public CompletableFuture<String> hash(String password) {
+        return submit(() -> {
+            long start = System.nanoTime();
+            String hash = BCrypt.hashpw(password, BCrypt.gensalt(cost));
+            hashLatency.record(System.nanoTime() - start);
+            return hash;
+        });
+    }
+
+    /** Checks a password against a stored hash. Completes with false for malformed hashes. */
+    public CompletableFuture<Boolean> verify(String password, String hash) {
+        return submit(() -> {
+            long start = System.nanoTime();
+            boolean matches;
+            try {
+                matches = hash != null && BCrypt.checkpw(password, hash);
+            } catch (IllegalArgumentException e) {
+                matches = false; // Not a bcrypt hash
+            }
+            verifyLatency.record(System.nanoTime() - start);
+            if (!matches) verifyFailures.increment();
+            return matches;
+        });
+    }
+
+    /** Returns true if the hash was made with a different cost than the configured one. */
+    public boolean needsRehash(String hash) {
+        // Layout: $2a$10$<salt and hash>
+        if (hash == null || hash.length() < 7 || hash.charAt(0) != '$' || hash.charAt(6) != '$') return true;
+        try {
+            return Integer.parseInt(hash.substring(4, 6)) != cost;
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+
+    /** Counts a password upgraded to the configured cost during login. */
+    void recordRehash() {
+        rehashes.increment();
+    }
+
+    public int getCost() {
+        return cost;
+    }
+
+    // ------------------- Metrics -------------------
+
+    public LatencyHistogram getHashLatency() {
+        return hashLatency;
+    }
+
+    public LatencyHistogram getVerifyLatency() {
+        return verifyLatency;
+    }
+
+    public long getVerifyFailures() {
+        return verifyFailures.sum();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    public long getRehashes() {
+        return rehashes.sum();
+    }
+
+    /** Multi-line report of hashing counters, latencies and current queue depth. */
+    public String metricsReport() {
+        return "bcrypt cost=" + cost + " threads=" + executor.getMaximumPoolSize()
+                + " queued=" + executor.getQueue().size() + " active=" + executor.getActiveCount() + "\n"
+                + "  hash:   " + hashLatency.summary() + "\n"
+                + "  verify: " + verifyLatency.summary() + " failures=" + getVerifyFailures() + "\n"
+                + "  rejected=" + getRejected() + " rehashed=" + getRehashes();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    // ------------------- Helper Methods -------------------
+
+    private <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+}
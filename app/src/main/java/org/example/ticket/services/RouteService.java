@@ -0,0 +1,153 @@
+package org.example.ticket.services;
+
+import org.example.ticket.entities.Train;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Station graph index over the train catalogue.
+ * <p>
+ * Keeps, per station code, the trains departing from and arriving at it, and per
+ * (from, to, day of week) the trains serving that route. Every pair of stops a train calls at,
+ * in running order, counts as a route it serves. "Trains from NDLS to BCT on date X" is then
+ * three hash lookups and never scans the catalogue.
+ */
+public class RouteService {
+
+    private final StationService stationService;
+    private final Map<String, List<Train>> departures = new HashMap<>();
+    private final Map<String, List<Train>> arrivals = new HashMap<>();
+    private final Map<String, List<Train>> calls = new HashMap<>();      // Trains stopping at a station
+    private final Map<String, Map<String, EnumMap<DayOfWeek, List<Train>>>> routes = new HashMap<>();
+    private final Map<String, Train> indexedTrains = new HashMap<>(); // Train ID -> train as indexed
+    private final Map<String, List<String>> indexedStops = new HashMap<>(); // Train ID -> stop codes as indexed
+
+    public RouteService(StationService stationService, Collection<Train> trains) {
+        this.stationService = stationService;
+        trains.forEach(this::index);
+    }
+
+    // ------------------- Queries -------------------
+
+    /** Trains running from one station to another on the given date. */
+    public List<Train> findTrains(String fromCode, String toCode, LocalDate date) {
+        return streamTrains(fromCode, toCode, date).collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    /** Lazy form of {@link #findTrains(String, String, LocalDate)}; read it before the catalogue changes. */
+    public Stream<Train> streamTrains(String fromCode, String toCode, LocalDate date) {
+        List<Train> trains = routeDays(fromCode, toCode).get(date.getDayOfWeek());
+        return trains == null ? Stream.empty() : trains.stream();
+    }
+
+    /** Trains running from one station to another on any day. */
+    public List<Train> findTrains(String fromCode, String toCode) {
+        String from = normalize(fromCode);
+        String to = normalize(toCode);
+        List<Train> results = new ArrayList<>();
+        for (Train train : calls.getOrDefault(from, List.of())) {
+            List<String> stops = indexedStops.get(train.getId());
+            if (stops.indexOf(to) > stops.indexOf(from)) results.add(train);
+        }
+        return results;
+    }
+
+    /** Trains starting at the given station. Read-only view. */
+    public List<Train> getDepartures(String stationCode) {
+        return Collections.unmodifiableList(departures.getOrDefault(normalize(stationCode), List.of()));
+    }
+
+    /** Trains ending at the given station. Read-only view. */
+    public List<Train> getArrivals(String stationCode) {
+        return Collections.unmodifiableList(arrivals.getOrDefault(normalize(stationCode), List.of()));
+    }
+
+    public StationService getStationService() {
+        return stationService;
+    }
+
+    // ------------------- Updates -------------------
+
+    /** Adds a train to the index, replacing any earlier version with the same ID. */
+    public void index(Train train) {
+        Train previous = indexedTrains.remove(train.getId());
+        if (previous != null) unindex(previous);
+        if (train.getSource() == null || train.getDestination() == null) return;
+
+        stationService.register(train.getSource());
+        stationService.register(train.getDestination());
+
+        String from = normalize(train.getSource().getCode());
+        String to = normalize(train.getDestination().getCode());
+        departures.computeIfAbsent(from, k -> new ArrayList<>()).add(train);
+        arrivals.computeIfAbsent(to, k -> new ArrayList<>()).add(train);
+
+        List<String> stops = stopCodes(train);
+        for (int i = 0; i < stops.size(); i++) {
+            calls.computeIfAbsent(stops.get(i), k -> new ArrayList<>()).add(train);
+            for (int j = i + 1; j < stops.size(); j++) {
+                EnumMap<DayOfWeek, List<Train>> days = routes
+                        .computeIfAbsent(stops.get(i), k -> new HashMap<>())
+                        .computeIfAbsent(stops.get(j), k -> new EnumMap<>(DayOfWeek.class));
+                for (DayOfWeek day : train.getRunningDays()) {
+                    days.computeIfAbsent(day, k -> new ArrayList<>()).add(train);
+                }
+            }
+        }
+        indexedTrains.put(train.getId(), train);
+        indexedStops.put(train.getId(), stops);
+    }
+
+    private void unindex(Train train) {
+        if (train.getSource() == null || train.getDestination() == null) return;
+        String from = normalize(train.getSource().getCode());
+        String to = normalize(train.getDestination().getCode());
+
+        String trainId = train.getId();
+        departures.getOrDefault(from, new ArrayList<>()).removeIf(t -> t.getId().equals(trainId));
+        arrivals.getOrDefault(to, new ArrayList<>()).removeIf(t -> t.getId().equals(trainId));
+
+        List<String> stops = indexedStops.remove(trainId); // The train may have been edited since
+        for (int i = 0; i < stops.size(); i++) {
+            calls.getOrDefault(stops.get(i), new ArrayList<>()).removeIf(t -> t.getId().equals(trainId));
+            for (int j = i + 1; j < stops.size(); j++) {
+                routeDays(stops.get(i), stops.get(j)).values().forEach(trains -> trains.removeIf(t -> t.getId().equals(trainId)));
+            }
+        }
+    }
+
+    // ------------------- Helper Methods -------------------
+
+    private Map<DayOfWeek, List<Train>> routeDays(String fromCode, String toCode) {
+        Map<String, EnumMap<DayOfWeek, List<Train>>> byDestination = routes.get(normalize(fromCode));
+        if (byDestination == null) return Collections.emptyMap();
+        Map<DayOfWeek, List<Train>> days = byDestination.get(normalize(toCode));
+        return days == null ? Collections.emptyMap() : days;
+    }
+
+    /** Codes of the stations a train calls at in running order; source and destination if it lists no stops. */
+    private static List<String> stopCodes(Train train) {
+        List<String> codes = new ArrayList<>();
+        if (train.getStops().size() < 2) {
+            codes.add(normalize(train.getSource().getCode()));
+            codes.add(normalize(train.getDestination().getCode()));
+        } else {
+            train.getStops().forEach(stop -> codes.add(normalize(stop.getCode())));
+        }
+        return codes;
+    }
+
+    private static String normalize(String code) {
+        return code == null ? "" : code.trim().toUpperCase();
+    }
+}
@@ -0,0 +1,218 @@
+package org.example.ticket.services;
+
+import org.example.ticket.entities.Leg;
+import org.example.ticket.entities.Passenger;
+import org.example.ticket.entities.Train;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Seats reserved for a booking while it is being paid for.
+ * <p>
+ * A hold marks specific seats in the coach's inventory, so they are out of availability right
+ * away and the user can be told their seat numbers before paying. It expires after {@link #getTtl()}.
+ * Expiry is handled by one reaper thread waiting on a {@link DelayQueue}, so there is no
+ * polling and no timer per hold. Each hold moves from HELD to exactly one of CONFIRMED,
+ * RELEASED or EXPIRED with a compare-and-set, so a payment finishing just as the hold expires
+ * either books the seats or gets nothing, never both.
+ * <p>
+ * The TTL can be set with the {@code irctc.hold.ttlSeconds} system property.
+ */
+public class SeatHoldService implements AutoCloseable {
+
+    public static final Duration DEFAULT_TTL = Duration.ofMinutes(5);
+
+    /** Lifecycle of a hold. Only HELD can change. */
+    public enum State { HELD, CONFIRMED, RELEASED, EXPIRED }
+
+    /** Specific seats held in one coach on one date, for one leg of the run. */
+    public static final class SeatHold implements Delayed {
+        private final Train train;
+        private final String coachId;
+        private final LocalDate journeyDate;
+        private final Leg leg;
+        private final List<Integer> seats;
+        private final long expiresAtNanos;
+        private final Instant expiresAt;
+        private final AtomicReference<State> state = new AtomicReference<>(State.HELD);
+
+        private SeatHold(Train train, String coachId, LocalDate journeyDate, Leg leg, List<Integer> seats, Duration ttl) {
+            this.train = train;
+            this.coachId = coachId;
+            this.journeyDate = journeyDate;
+            this.leg = leg;
+            this.seats = seats;
+            this.expiresAtNanos = System.nanoTime() + ttl.toNanos();
+            this.expiresAt = Instant.now().plus(ttl);
+        }
+
+        public String getCoachId() {
+            return coachId;
+        }
+
+        public LocalDate getJourneyDate() {
+            return journeyDate;
+        }
+
+        public Leg getLeg() {
+            return leg;
+        }
+
+        /** Held seat numbers in hold order. */
+        public List<Integer> getSeatNumbers() {
+            return seats;
+        }
+
+        public int getSeatCount() {
+            return seats.size();
+        }
+
+        /** Wall-clock expiry, for display. */
+        public Instant getExpiresAt() {
+            return expiresAt;
+        }
+
+        public State getState() {
+            return state.get();
+        }
+
+        /** True once the hold can no longer be confirmed because its time ran out. */
+        public boolean isExpired() {
+            return state.get() == State.EXPIRED || (state.get() == State.HELD && getDelay(TimeUnit.NANOSECONDS) <= 0);
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(expiresAtNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(expiresAtNanos, ((SeatHold) other).expiresAtNanos);
+        }
+    }
+
+    private final TicketService ticketService;
+    private final Duration ttl;
+    private final DelayQueue<SeatHold> expiries = new DelayQueue<>();
+    private final Thread reaper;
+
+    // ------------------- Metrics -------------------
+    private final LongAdder confirmed = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+
+    public SeatHoldService(TicketService ticketService) {
+        this(ticketService, Duration.ofSeconds(Long.getLong("irctc.hold.ttlSeconds", DEFAULT_TTL.getSeconds())));
+    }
+
+    public SeatHoldService(TicketService ticketService, Duration ttl) {
+        if (ttl.isNegative() || ttl.isZero()) throw new IllegalArgumentException("Hold TTL must be positive");
+        this.ticketService = ticketService;
+        this.ttl = ttl;
+        this.reaper = new Thread(this::runReaper, "seat-hold-reaper");
+        this.reaper.setDaemon(true);
+        this.reaper.start();
+    }
+
+    // ------------------- Public API -------------------
+
+    /** Holds seats for the whole run for an unpaid booking, or returns null if the coach has fewer free seats. */
+    public SeatHold hold(Train train, String coachId, LocalDate journeyDate, int seatCount) {
+        return hold(train, coachId, journeyDate, train.getWholeRun(), seatCount);
+    }
+
+    /**
+     * Holds seats for a leg of the run for an unpaid booking.
+     *
+     * @return the hold on the best-fitting free seats, or null if the coach has fewer seats free for the leg
+     */
+    public SeatHold hold(Train train, String coachId, LocalDate journeyDate, Leg leg, int seatCount) {
+        List<Integer> seats = ticketService.holdSeats(train, coachId, journeyDate, leg, seatCount);
+        if (seats.isEmpty()) return null;
+        SeatHold hold = new SeatHold(train, coachId, journeyDate, leg, List.copyOf(seats), ttl);
+        expiries.add(hold);
+        return hold;
+    }
+
+    /**
+     * Books the held seats for the passengers, if the hold has not expired. Passengers get the
+     * held seats in order and have their seat numbers and stops set. Call {@link TicketService#commit()} to make it durable.
+     *
+     * @return allocated seat numbers, or an empty list if the hold expired or was released
+     */
+    public List<Integer> confirm(SeatHold hold, List<Passenger> passengers) {
+        if (passengers.size() != hold.seats.size()) throw new IllegalArgumentException("Passenger count must match held seats");
+        if (hold.getDelay(TimeUnit.NANOSECONDS) <= 0 && expire(hold)) return List.of();
+        if (!hold.state.compareAndSet(State.HELD, State.CONFIRMED)) return List.of();
+
+        expiries.remove(hold);
+        confirmed.increment();
+        return ticketService.confirmHeldSeats(hold.train, hold.coachId, hold.journeyDate, hold.leg, hold.seats, passengers);
+    }
+
+    /** Gives the seats back, e.g. when the booking is abandoned. Does nothing if already settled. */
+    public void release(SeatHold hold) {
+        if (!hold.state.compareAndSet(State.HELD, State.RELEASED)) return;
+        expiries.remove(hold);
+        giveBack(hold);
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    /** Holds not yet confirmed, released or expired. */
+    public int getActiveHoldCount() {
+        return expiries.size();
+    }
+
+    public long getConfirmedCount() {
+        return confirmed.sum();
+    }
+
+    public long getExpiredCount() {
+        return expired.sum();
+    }
+
+    @Override
+    public void close() {
+        reaper.interrupt();
+    }
+
+    // ------------------- Reaper -------------------
+
+    private void runReaper() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                expire(expiries.take());
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                System.out.println("⚠ Seat hold reaper error: " + e.getMessage());
+            }
+        }
+    }
+
+    /** Expires a hold that is still HELD. Returns true if this call expired it. */
+    private boolean expire(SeatHold hold) {
+        if (!hold.state.compareAndSet(State.HELD, State.EXPIRED)) return false;
+        expiries.remove(hold);
+        expired.increment();
+        giveBack(hold);
+        return true;
+    }
+
+    private void giveBack(SeatHold hold) {
+        ticketService.releaseHold(hold.train, hold.coachId, hold.journeyDate, hold.leg, hold.seats);
+        String coachType = hold.train.getCoach(hold.coachId).getType();
+        ticketService.getWaitlistService().seatsFreed(hold.train.getId(), coachType, hold.journeyDate);
+    }
+}
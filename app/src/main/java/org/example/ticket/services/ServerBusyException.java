@@ -0,0 +1,16 @@
+package org.example.ticket.services;
+
+/**
+ * Thrown when a request is turned away because a bounded queue, such as the password hashing
+ * pool or a flash-sale queue, is full. Callers may retry in a moment.
+ */
+public class ServerBusyException extends IllegalStateException {
+
+    public ServerBusyException() {
+        this("Server is busy, please try again in a moment");
+    }
+
+    public ServerBusyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,66 @@
+package org.example.ticket.services;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.ticket.entities.Station;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Station catalogue loaded from stations.json, looked up by station code.
+ */
+public class StationService {
+    public static final String FILE_PATH = "app/src/main/java/org/example/ticket/database/stations.json";
+
+    private final Map<String, Station> stationsByCode = new LinkedHashMap<>();
+
+    public StationService() {
+        loadStations().forEach(this::register);
+    }
+
+    /** Creates a catalogue from in-memory stations, without reading stations.json. */
+    public StationService(Collection<Station> stations) {
+        stations.forEach(this::register);
+    }
+
+    private List<Station> loadStations() {
+        File file = new File(FILE_PATH);
+        if (!file.exists()) {
+            return new ArrayList<>();
+        }
+
+        try {
+            return new ObjectMapper().readValue(file, new TypeReference<List<Station>>() {});
+        } catch (IOException e) {
+            System.out.println("Error loading stations from file : " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    /** Returns the station with the given code (case-insensitive), or null. */
+    public Station getStation(String code) {
+        return code == null ? null : stationsByCode.get(code.trim().toUpperCase());
+    }
+
+    public boolean exists(String code) {
+        return getStation(code) != null;
+    }
+
+    /** Adds a station unless one with the same code is already known. */
+    public void register(Station station) {
+        if (station == null || station.getCode() == null) return;
+        stationsByCode.putIfAbsent(station.getCode().toUpperCase(), station);
+    }
+
+    /** All stations in catalogue order. Read-only view. */
+    public Collection<Station> getStations() {
+        return Collections.unmodifiableCollection(stationsByCode.values());
+    }
+}
@@ -0,0 +1,342 @@
+package org.example.ticket.services;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.example.ticket.entities.Ticket;
+import org.example.ticket.entities.User;
+import org.example.ticket.persistence.GroupCommitter;
+import org.example.ticket.persistence.Journal;
+import org.example.ticket.persistence.SnapshotFiles;
+import org.example.ticket.persistence.SnapshotFormat;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * All tickets, keyed by ticket ID, with secondary indexes by booker and by (train, journey date).
+ * <p>
+ * tickets.json (or tickets.smile, see {@link SnapshotFormat}) is a snapshot. A new or changed ticket is appended to tickets.journal through the
+ * shared {@link GroupCommitter}; changes to one ticket before a flush are written once. Startup
+ * replays the journal, and once it passes {@link #COMPACTION_THRESHOLD} entries the next save
+ * writes a fresh snapshot. Saves and compaction share a lock, so no ticket is indexed or queued
+ * between the final flush and the journal reset.
+ * <p>
+ * Tickets used to be embedded in each user. The first start without tickets.json moves them here
+ * with {@link #migrateFrom(LoginService)}.
+ */
+public class TicketRepository {
+    public static final String FILE_PATH = "app/src/main/java/org/example/ticket/database/tickets.json";
+    public static final String JOURNAL_PATH = "app/src/main/java/org/example/ticket/database/tickets.journal";
+
+    /** Journal entries after which the tickets journal is compacted into tickets.json. */
+    public static final int COMPACTION_THRESHOLD = 1_000;
+
+    private final ObjectMapper objectMapper;
+    private final Map<String, Ticket> ticketsById = new ConcurrentHashMap<>();
+    private final Map<String, List<String>> idsByBooker = new ConcurrentHashMap<>();    // Booker ID -> ticket IDs, booking order; append-only
+    private final Map<TrainDate, List<String>> idsByTrainDate = new ConcurrentHashMap<>();
+    private final GroupCommitter committer;   // Null when not persistent
+    private final Path snapshotPath;
+    private final Path journalPath;
+    private Journal<Ticket> journal;          // Null when not persistent or the journal cannot be opened
+    private final boolean hadSnapshot;        // False on the first start, before migration
+
+    // Read: index and queue a save; write: flush, snapshot and reset the journal
+    private final ReadWriteLock journalLock = new ReentrantReadWriteLock();
+
+    /** Index key for the tickets of one train on one date. */
+    private record TrainDate(String trainId, LocalDate journeyDate) {
+    }
+
+    /** A ticket and its position among its booker's tickets. */
+    private record Booked(int position, Ticket ticket) {
+    }
+
+    public TicketRepository(GroupCommitter committer) {
+        this(committer, Path.of(FILE_PATH), Path.of(JOURNAL_PATH));
+    }
+
+    /** Repository on other snapshot and journal files, e.g. in a test directory. */
+    TicketRepository(GroupCommitter committer, Path snapshotPath, Path journalPath) {
+        this.committer = committer;
+        this.snapshotPath = snapshotPath;
+        this.journalPath = journalPath;
+        this.objectMapper = createObjectMapper();
+        this.hadSnapshot = snapshotExists();
+
+        loadTickets();
+        openJournal();
+        if (hadSnapshot && needsConversion()) saveTickets(); // Switch the snapshot to the configured format now
+    }
+
+    private TicketRepository() {
+        this.committer = null;
+        this.snapshotPath = null;
+        this.journalPath = null;
+        this.objectMapper = createObjectMapper();
+        this.hadSnapshot = true;
+    }
+
+    /** Creates a repository that keeps tickets in memory only. */
+    public static TicketRepository inMemory() {
+        return new TicketRepository();
+    }
+
+    private static ObjectMapper createObjectMapper() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        return objectMapper;
+    }
+
+    /** Reads the newest tickets snapshot, JSON or Smile. */
+    private void loadTickets() {
+        try {
+            List<Ticket> tickets = SnapshotFiles.readLatest(snapshotPath, objectMapper, new TypeReference<List<Ticket>>() {});
+            if (tickets != null) tickets.forEach(this::index);
+        } catch (IOException e) {
+            System.out.println("Error loading tickets from file : " + e.getMessage());
+        }
+    }
+
+    /** Opens tickets.journal and replays it on top of the loaded snapshot. */
+    private void openJournal() {
+        try {
+            journal = new Journal<>(journalPath, objectMapper, Ticket.class);
+            journal.replay(this::index);
+            committer.addSyncAction(journal::sync);
+        } catch (IOException e) {
+            System.out.println("⚠ Ticket journal unavailable, falling back to full saves: " + e.getMessage());
+            journal = null;
+        }
+    }
+
+    // ------------------- Queries -------------------
+
+    /** Returns the ticket with this ID, or null. */
+    public Ticket findById(String ticketId) {
+        return ticketId == null ? null : ticketsById.get(ticketId);
+    }
+
+    /** Tickets booked by one user, oldest first. */
+    public List<Ticket> findByBooker(String bookerId) {
+        return resolve(idsByBooker.get(bookerId));
+    }
+
+    /**
+     * One page of a user's tickets, newest first. The cursor holds the position of the last
+     * ticket shown; a user's ticket list only grows, so positions never shift between pages.
+     *
+     * @param cursor {@link Page#nextCursor()} of the previous page, or null for the first page
+     * @throws IllegalArgumentException if the cursor is invalid
+     */
+    public Page<Ticket> findByBooker(String bookerId, String cursor, int pageSize) {
+        Page.checkSize(pageSize);
+        List<String> ids = idsByBooker.getOrDefault(bookerId, List.of());
+        int end = (cursor == null) ? sizeOf(ids) : decodeBookerCursor(cursor, ids);
+        Stream<Booked> newestFirst = IntStream.iterate(end - 1, position -> position >= 0, position -> position - 1)
+                .mapToObj(position -> new Booked(position, ticketsById.get(idAt(ids, position))))
+                .filter(booked -> booked.ticket() != null);
+        return Page.ofOrdered(newestFirst, pageSize, booked -> Page.encodeCursor(booked.position(), booked.ticket().getId()))
+                .map(Booked::ticket);
+    }
+
+    /** Tickets, cancelled ones included, for one train on one journey date. */
+    public Stream<Ticket> streamByTrainAndDate(String trainId, LocalDate journeyDate) {
+        return resolve(idsByTrainDate.get(new TrainDate(trainId, journeyDate))).stream();
+    }
+
+    /** Every ticket, in no particular order. */
+    public Stream<Ticket> stream() {
+        return ticketsById.values().stream();
+    }
+
+    public int size() {
+        return ticketsById.size();
+    }
+
+    // ------------------- Changes -------------------
+
+    /**
+     * Adds a new ticket or stores a changed one.
+     *
+     * @return future that completes when the ticket is durable
+     */
+    public CompletableFuture<Void> save(Ticket ticket) {
+        if (journal != null && journal.getEntryCount() >= COMPACTION_THRESHOLD) writeSnapshot(COMPACTION_THRESHOLD);
+        journalLock.readLock().lock();
+        try {
+            index(ticket);
+            return persist(ticket);
+        } finally {
+            journalLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Moves tickets still embedded in users into this repository, then clears them from the
+     * users. Runs on every start until tickets.json exists; the user shards keep the embedded
+     * tickets until then, so a crash before the snapshot is written just repeats the move.
+     */
+    public void migrateFrom(LoginService loginService) {
+        if (hadSnapshot) return;
+
+        List<User> owners = new ArrayList<>();
+        for (User user : loginService.getUsers()) {
+            if (user.getTickets() == null || user.getTickets().isEmpty()) continue;
+            user.getTickets().forEach(this::index);
+            owners.add(user);
+        }
+        saveTickets(); // Tickets are safe before any user drops them
+        for (User user : owners) {
+            synchronized (user) {
+                user.getTickets().clear();
+            }
+            loginService.updateUser(user);
+        }
+        if (!owners.isEmpty()) {
+            System.out.println("Migrated " + size() + " tickets from " + owners.size() + " users");
+        }
+    }
+
+    // ------------------- Helper Methods -------------------
+
+    private void index(Ticket ticket) {
+        if (ticketsById.put(ticket.getId(), ticket) != null) return; // A changed ticket keeps its booker, train and date
+        addId(idsByBooker.computeIfAbsent(ticket.getBookerId(), key -> new ArrayList<>()), ticket.getId());
+        TrainDate key = new TrainDate(ticket.getTrainId(), ticket.getJourneyDate());
+        addId(idsByTrainDate.computeIfAbsent(key, k -> new ArrayList<>()), ticket.getId());
+    }
+
+    private boolean snapshotExists() {
+        try {
+            return SnapshotFiles.exists(snapshotPath);
+        } catch (IOException e) {
+            return true; // A snapshot file is there but unreadable; never migrate over it
+        }
+    }
+
+    private boolean needsConversion() {
+        try {
+            return SnapshotFiles.needsConversion(snapshotPath);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static void addId(List<String> ids, String id) {
+        synchronized (ids) {
+            ids.add(id);
+        }
+    }
+
+    private static int sizeOf(List<String> ids) {
+        synchronized (ids) {
+            return ids.size();
+        }
+    }
+
+    private static String idAt(List<String> ids, int position) {
+        synchronized (ids) {
+            return ids.get(position);
+        }
+    }
+
+    /** Returns the position after which the next page starts, checking it still holds the same ticket. */
+    private static int decodeBookerCursor(String cursor, List<String> ids) {
+        String[] parts = Page.decodeCursor(cursor, 2);
+        try {
+            int position = Integer.parseInt(parts[0]);
+            if (position >= 0 && position < sizeOf(ids) && idAt(ids, position).equals(parts[1])) return position;
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new IllegalArgumentException("Invalid page cursor");
+    }
+
+    private List<Ticket> resolve(Collection<String> ids) {
+        if (ids == null) return List.of();
+        List<String> snapshot;
+        synchronized (ids) {
+            snapshot = new ArrayList<>(ids);
+        }
+        return snapshot.stream().map(ticketsById::get).filter(Objects::nonNull).toList();
+    }
+
+    private CompletableFuture<Void> persist(Ticket ticket) {
+        if (committer == null) return CompletableFuture.completedFuture(null);
+        if (journal == null) {
+            saveTickets();
+            return CompletableFuture.completedFuture(null);
+        }
+        try {
+            byte[] json;
+            synchronized (ticket) { // A cancellation may be changing this ticket
+                json = journal.serialize(ticket);
+            }
+            return committer.markDirty("ticket:" + ticket.getId(), () -> journal.appendSerialized(json));
+        } catch (IOException e) {
+            System.out.println("Error writing ticket journal : " + e.getMessage());
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Writes a snapshot now if the journal holds any changes, so the next start replays nothing.
+     * Called on shutdown.
+     */
+    public void compact() {
+        if (committer == null) return;
+        if ((journal != null && journal.getEntryCount() > 0) || needsConversion()) writeSnapshot(0);
+    }
+
+    /**
+     * Makes queued appends durable, then writes a snapshot and empties the journal, unless
+     * another thread compacted it below {@code minEntries} first. Holds the write lock so no
+     * save is appended between the flush and the reset and then wiped by it.
+     */
+    private void writeSnapshot(long minEntries) {
+        journalLock.writeLock().lock();
+        try {
+            if (journal != null && journal.getEntryCount() < minEntries) return;
+            committer.flush().join();
+            saveTickets();
+        } catch (CompletionException e) {
+            // Writer already reported the error; keep the journal and retry on a later change
+        } finally {
+            journalLock.writeLock().unlock();
+        }
+    }
+
+    private synchronized void saveTickets() {
+        if (committer == null) return;
+        try {
+            ArrayNode array = objectMapper.createArrayNode();
+            for (Ticket ticket : ticketsById.values()) {
+                synchronized (ticket) { // A cancellation or promotion may be changing this ticket
+                    array.add(objectMapper.valueToTree(ticket));
+                }
+            }
+            SnapshotFiles.write(snapshotPath, objectMapper, array);
+            if (journal != null) journal.reset();
+        } catch (IOException e) {
+            System.out.println("Error saving tickets to file : " + e.getMessage());
+        }
+    }
+}
@@ -1,80 +1,484 @@
 package org.example.ticket.services;
 
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import org.example.ticket.entities.Coach;
+import org.example.ticket.entities.Leg;
+import org.example.ticket.entities.Passenger;
+import org.example.ticket.entities.SeatInventory;
 import org.example.ticket.entities.Ticket;
 import org.example.ticket.entities.Train;
+import org.example.ticket.entities.User;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
-import java.io.File;
+import org.example.ticket.persistence.BookingEvent;
+import org.example.ticket.persistence.GroupCommitter;
+import org.example.ticket.persistence.Journal;
+import org.example.ticket.persistence.SnapshotFiles;
+import org.example.ticket.persistence.SnapshotFormat;
+
 import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
+/**
+ * Holds the train catalogue. Lookups by ID and name/ID search go through a {@link TrainIndex}
+ * instead of scanning the list.
+ * <p>
+ * trains.json (or trains.smile, see {@link SnapshotFormat}) is a snapshot. Seat bookings and cancellations are appended to trains.journal
+ * as {@link BookingEvent}s, and startup replays the journal on top of the snapshot. The
+ * appends and fsyncs run on the shared {@link GroupCommitter} thread, so concurrent bookings
+ * share one fsync. Once the journal passes {@link #COMPACTION_THRESHOLD} entries, the next
+ * commit writes a fresh snapshot and drops the records it contains from the journal.
+ * <p>
+ * The service is shared by concurrent sessions. Seat changes go through a striped
+ * {@link BookingEngine}; lookups and seat changes share a read lock, while catalogue updates
+ * take the write lock, and snapshots take it just long enough to copy a state with no
+ * half-applied booking.
+ */
 public class TicketService {
 
     final String FILE_PATH = "app/src/main/java/org/example/ticket/database/trains.json";
+    final String JOURNAL_PATH = "app/src/main/java/org/example/ticket/database/trains.journal";
+
+    /** Journal entries after which the next commit compacts them into trains.json. */
+    public static final int COMPACTION_THRESHOLD = 1_000;
+
     private final ObjectMapper objectMapper;
-    final UserService userService;
-    final List<Train> trains;
+    final TrainIndex trainIndex;
+    final RouteService routeService;
+    private final boolean persistent;              // False for in-memory catalogues
+    private final Journal<BookingEvent> journal;   // Null when not persistent or the journal cannot be opened
+    private final GroupCommitter committer;        // Null when not persistent
+    private final TicketRepository ticketRepository;
+    private final BookingEngine bookingEngine = new BookingEngine(this::record);
+    private final WaitlistService waitlistService = new WaitlistService(this);
+    private final SeatHoldService seatHoldService = new SeatHoldService(this);
+    private final AdmissionGate admissionGate = new AdmissionGate();
+    private final FareEngine fareEngine = FareEngine.standard();
+    private final ReadWriteLock catalogueLock = new ReentrantReadWriteLock();
+    private final AtomicBoolean compacting = new AtomicBoolean();
+    private final Object snapshotMonitor = new Object();  // One snapshot write and journal cut-over at a time
 
-    public TicketService(UserService userService) {
-        this.userService = userService;
-        this.objectMapper = new ObjectMapper();
+    public TicketService(GroupCommitter committer, TicketRepository ticketRepository) {
+        this.ticketRepository = ticketRepository;
+        this.objectMapper = createObjectMapper();
+        this.persistent = true;
+        this.committer = committer;
+
+        this.trainIndex = new TrainIndex(loadTrains());
+        this.journal = openJournal();
+        if (journal != null) committer.addSyncAction(journal::sync);
+        this.routeService = new RouteService(new StationService(), trainIndex.all());
+        evictDepartedJourneys();
+        waitlistService.restore(ticketRepository);
+        System.out.println("Loaded trains: " + this.trainIndex.size());
+        if (needsConversion()) writeSnapshot(); // Switch the snapshot to the configured format now
+    }
+
+    /** Creates a service over an in-memory catalogue and ticket store, without reading any files. */
+    public TicketService(List<Train> trains) {
+        this.ticketRepository = TicketRepository.inMemory();
+        this.objectMapper = createObjectMapper();
+        this.persistent = false;
+        this.journal = null;
+        this.committer = null;
+        this.trainIndex = new TrainIndex(trains);
+        this.routeService = new RouteService(new StationService(List.of()), trainIndex.all());
+    }
+
+    private static ObjectMapper createObjectMapper() {
+        ObjectMapper objectMapper = new ObjectMapper();
         // --- FIX: Register JavaTimeModule for LocalDate, LocalDateTime etc ---
         objectMapper.registerModule(new JavaTimeModule());
         objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
-
-        this.trains = loadTrains();
-        System.out.println("Loaded trains: " + this.trains.size());
-        for (Train t : this.trains) {
-            System.out.println(t.getName() + " | " + t.getId());
-        }
+        return objectMapper;
     }
 
+    /** Reads the newest trains snapshot, JSON or Smile. */
     public List<Train> loadTrains() {
-        File file = new File(FILE_PATH);
-        if (!file.exists()) {
+        try {
+            List<Train> trains = SnapshotFiles.readLatest(Path.of(FILE_PATH), objectMapper, new TypeReference<List<Train>>() {});
+            return trains != null ? trains : new ArrayList<>();
+        } catch (IOException e) {
+            System.out.println("Error loading trains from file : " + e.getMessage());
             return new ArrayList<>();
         }
+    }
 
+    /** Opens trains.journal and replays it on top of the loaded snapshot. */
+    private Journal<BookingEvent> openJournal() {
         try {
-            return objectMapper.<List<Train>>readValue(file, new TypeReference<List<Train>>() {});
+            Journal<BookingEvent> journal = new Journal<>(Path.of(JOURNAL_PATH), objectMapper, BookingEvent.class);
+            journal.replay(this::apply);
+            if (journal.getEntryCount() > 0) {
+                System.out.println("Replayed booking events: " + journal.getEntryCount());
+            }
+            return journal;
         } catch (IOException e) {
-            System.out.println("Error loading trains from file : " + e.getMessage());
-            return new ArrayList<>();
+            System.out.println("⚠ Booking journal unavailable, falling back to full saves: " + e.getMessage());
+            return null;
         }
     }
 
+    /** Applies one journaled seat change. Replaying an event twice leaves the same state. */
+    private void apply(BookingEvent event) {
+        Train train = trainIndex.get(event.getTrainId());
+        Coach coach = (train != null) ? train.getCoach(event.getCoachId()) : null;
+        if (coach == null || event.getJourneyDate() == null) return;
+
+        SeatInventory inventory = coach.getInventory(event.getJourneyDate());
+        if (event.getType() == BookingEvent.Type.BOOK) {
+            Passenger passenger = event.getPassenger();
+            int from = passenger != null ? stopOrEnd(train, passenger.getFrom(), 0) : 0;
+            int to = passenger != null ? stopOrEnd(train, passenger.getTo(), train.getSegmentCount()) : train.getSegmentCount();
+            if (from >= 0 && to > from) inventory.book(event.getSeatNumber(), from, to, passenger);
+        } else {
+            int from = stopOrEnd(train, event.getFrom(), 0);
+            if (from >= 0) inventory.cancel(event.getSeatNumber(), from);
+        }
+    }
+
+    /** Stop index of a code, the given end for a null code, or -1 if the train no longer stops there. */
+    private static int stopOrEnd(Train train, String code, int end) {
+        return code == null ? end : train.stopIndex(code);
+    }
+
+    /**
+     * Drops seat inventories of journeys that have already left, so memory stays
+     * bounded as the booking window rolls forward. Tickets keep their own copy.
+     *
+     * @return number of (coach, date) inventories dropped
+     */
+    public int evictDepartedJourneys() {
+        LocalDate today = LocalDate.now();
+        return trainIndex.all().stream().mapToInt(t -> t.evictJourneysBefore(today)).sum();
+    }
+
+    /** Returns trains whose name or ID contains the query (case-insensitive), in catalogue order. */
     public List<Train> searchTrains(String query) {
-        if (query == null) query = "";
-        final String q = query.trim().toLowerCase();
+        catalogueLock.readLock().lock();
+        try {
+            return trainIndex.search(query);
+        } finally {
+            catalogueLock.readLock().unlock();
+        }
+    }
 
-        if (q.isEmpty()) return new ArrayList<>(this.trains);
+    /** Returns trains running from one station to another on the given date. */
+    public List<Train> searchTrains(String fromCode, String toCode, LocalDate journeyDate) {
+        catalogueLock.readLock().lock();
+        try {
+            return routeService.findTrains(fromCode, toCode, journeyDate);
+        } finally {
+            catalogueLock.readLock().unlock();
+        }
+    }
 
-        List<Train> results = new ArrayList<>();
-        for (Train train : this.trains) {
-            if (train.getName().toLowerCase().contains(q) || train.getId().toLowerCase().contains(q)) {
-                results.add(train);
-            }
+    /**
+     * One page of trains whose name or ID contains the query. Availability is counted on each
+     * train's next running date. In catalogue order the search starts right after the cursor's
+     * slot and reads only the page's matches; other orders scan all matches but keep just one
+     * page of them.
+     *
+     * @param cursor {@link Page#nextCursor()} of the previous page, or null for the first page
+     * @throws IllegalArgumentException if the cursor is invalid or belongs to another sort order
+     */
+    public Page<Train> searchTrains(String query, TrainSort sort, String cursor, int pageSize) {
+        LocalDate today = LocalDate.now();
+        // A catalogue cursor's key is the last slot shown, so the index can seek past it
+        int afterSlot = (sort == TrainSort.CATALOGUE && cursor != null)
+                ? (int) Math.max(-1, Math.min(decodeTrainCursor(cursor, sort).key(), Integer.MAX_VALUE)) : -1;
+        catalogueLock.readLock().lock();
+        try {
+            return pageOf(trainIndex.stream(query, afterSlot), true, sort, train -> train.nextRunningDate(today), Train::getWholeRun,
+                    cursor, pageSize);
+        } finally {
+            catalogueLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * One page of trains running from one station to another on the given date. Availability
+     * and fares are those of the leg between the two stations.
+     */
+    public Page<Train> searchTrains(String fromCode, String toCode, LocalDate journeyDate,
+                                    TrainSort sort, String cursor, int pageSize) {
+        catalogueLock.readLock().lock();
+        try {
+            return pageOf(routeService.streamTrains(fromCode, toCode, journeyDate), false, sort,
+                    train -> journeyDate, train -> train.leg(fromCode, toCode), cursor, pageSize);
+        } finally {
+            catalogueLock.readLock().unlock();
+        }
+    }
+
+    /** A search result with its sort key; ordered by key, then train ID. */
+    private record RankedTrain(long key, String id, Train train) {
+        static final Comparator<RankedTrain> ORDER =
+                Comparator.comparingLong(RankedTrain::key).thenComparing(RankedTrain::id);
+    }
+
+    /**
+     * Pages trains by sort key. The cursor holds the key and ID of the last train shown; a train
+     * whose key changed since, such as its free seats, may move to a page already seen.
+     *
+     * @param inCatalogueOrder whether the stream already arrives in catalogue order
+     */
+    private Page<Train> pageOf(Stream<Train> trains, boolean inCatalogueOrder, TrainSort sort,
+                               Function<Train, LocalDate> dateOf, Function<Train, Leg> legOf, String cursor, int pageSize) {
+        Page.checkSize(pageSize);
+        Stream<RankedTrain> ranked = trains.map(train -> new RankedTrain(
+                sort.key(train, dateOf.apply(train), legOf.apply(train), trainIndex.slotOf(train.getId()), fareEngine),
+                train.getId(), train));
+        if (cursor != null) {
+            RankedTrain last = decodeTrainCursor(cursor, sort);
+            ranked = ranked.filter(candidate -> RankedTrain.ORDER.compare(candidate, last) > 0);
         }
-        return results;
+        Function<RankedTrain, String> cursorOf = r -> Page.encodeCursor(sort, r.key(), r.id());
+        Page<RankedTrain> page = (inCatalogueOrder && sort == TrainSort.CATALOGUE)
+                ? Page.ofOrdered(ranked, pageSize, cursorOf)
+                : Page.ofSorted(ranked, RankedTrain.ORDER, pageSize, cursorOf);
+        return page.map(RankedTrain::train);
+    }
+
+    private static RankedTrain decodeTrainCursor(String cursor, TrainSort sort) {
+        String[] parts = Page.decodeCursor(cursor, 3);
+        if (!parts[0].equals(sort.name())) {
+            throw new IllegalArgumentException("Page cursor belongs to another sort order");
+        }
+        try {
+            return new RankedTrain(Long.parseLong(parts[1]), parts[2], null);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid page cursor");
+        }
+    }
+
+    public RouteService getRouteService() {
+        return routeService;
+    }
+
+    /** Returns all trains in catalogue order. Read-only view. */
+    public List<Train> getTrains() {
+        return trainIndex.all();
+    }
+
+    /** Tickets booked by a user, oldest first. */
+    public List<Ticket> getBookedTickets(User user) {
+        return ticketRepository.findByBooker(user.getId());
+    }
+
+    /** One page of a user's tickets, newest first. */
+    public Page<Ticket> getBookedTickets(User user, String cursor, int pageSize) {
+        return ticketRepository.findByBooker(user.getId(), cursor, pageSize);
+    }
+
+    public TicketRepository getTicketRepository() {
+        return ticketRepository;
+    }
+
+    public WaitlistService getWaitlistService() {
+        return waitlistService;
     }
 
-    public List<Ticket> getBookedTickets() {
-        return userService.getCurrentUser().getTickets();
+    public SeatHoldService getSeatHoldService() {
+        return seatHoldService;
+    }
+
+    public FareEngine getFareEngine() {
+        return fareEngine;
+    }
+
+    public AdmissionGate getAdmissionGate() {
+        return admissionGate;
     }
 
     public Train getTrainByNumber(String trainNumber) {
-        for (Train t : this.trains) {
-            if (t.getId().equals(trainNumber)) return t;
+        catalogueLock.readLock().lock();
+        try {
+            return trainIndex.get(trainNumber);
+        } finally {
+            catalogueLock.readLock().unlock();
+        }
+    }
+
+    // ------------------- Seat Changes -------------------
+
+    /**
+     * Atomically allocates the best-fitting free seats in a coach to all passengers, or to none.
+     * Passengers must share their boarding and alighting stops. Sets each passenger's seat number. Call {@link #commit()} to make it durable.
+     *
+     * @return allocated seat numbers, or an empty list if the coach cannot seat everyone
+     */
+    public List<Integer> allocateSeats(Train train, String coachId, LocalDate journeyDate, List<Passenger> passengers) {
+        catalogueLock.readLock().lock();
+        try {
+            return bookingEngine.allocateSeats(train, coachId, journeyDate, passengers);
+        } finally {
+            catalogueLock.readLock().unlock();
+        }
+    }
+
+    /** Holds free seats for a leg for an unpaid booking. Holds live in memory only; see {@link SeatHoldService}. */
+    public List<Integer> holdSeats(Train train, String coachId, LocalDate journeyDate, Leg leg, int count) {
+        catalogueLock.readLock().lock();
+        try {
+            return bookingEngine.holdSeats(train, coachId, journeyDate, leg, count);
+        } finally {
+            catalogueLock.readLock().unlock();
+        }
+    }
+
+    /** Frees seats held with {@link #holdSeats}. */
+    public void releaseHold(Train train, String coachId, LocalDate journeyDate, Leg leg, List<Integer> seats) {
+        catalogueLock.readLock().lock();
+        try {
+            bookingEngine.releaseHold(train, coachId, journeyDate, leg, seats);
+        } finally {
+            catalogueLock.readLock().unlock();
+        }
+    }
+
+    /** Books held seats for the passengers in one step. Call {@link #commit()} to make it durable. */
+    public List<Integer> confirmHeldSeats(Train train, String coachId, LocalDate journeyDate, Leg leg,
+                                          List<Integer> seats, List<Passenger> passengers) {
+        catalogueLock.readLock().lock();
+        try {
+            return bookingEngine.confirmHeldSeats(train, coachId, journeyDate, leg, seats, passengers);
+        } finally {
+            catalogueLock.readLock().unlock();
+        }
+    }
+
+    /** Books a seat and records it in the journal. Call {@link #commit()} to make it durable. */
+    public boolean bookSeat(Train train, String coachId, LocalDate journeyDate, int seatNumber, Passenger passenger) {
+        catalogueLock.readLock().lock();
+        try {
+            return bookingEngine.bookSeat(train, coachId, journeyDate, seatNumber, passenger);
+        } finally {
+            catalogueLock.readLock().unlock();
+        }
+    }
+
+    /** Frees a seat booked from the source and records it in the journal. Call {@link #commit()} to make it durable. */
+    public boolean cancelSeat(Train train, String coachId, LocalDate journeyDate, int seatNumber) {
+        return cancelSeat(train, coachId, journeyDate, seatNumber, null);
+    }
+
+    /** Frees the booking of a seat boarding at a stop, null for the source, and records it in the journal. */
+    public boolean cancelSeat(Train train, String coachId, LocalDate journeyDate, int seatNumber, String fromCode) {
+        catalogueLock.readLock().lock();
+        try {
+            return bookingEngine.cancelSeat(train, coachId, journeyDate, seatNumber, fromCode);
+        } finally {
+            catalogueLock.readLock().unlock();
+        }
+    }
+
+    /** Serializes the event here, so later changes cannot leak into it, and queues the append. */
+    private void record(BookingEvent event) {
+        if (journal == null) return;
+        try {
+            byte[] json = journal.serialize(event);
+            committer.submit(() -> journal.appendSerialized(json));
+        } catch (IOException e) {
+            System.out.println("❌ Error writing booking journal: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Returns a future for the seat changes recorded so far, which completes once they are
+     * fsynced; callers may wait on it or not. The writer flushes them with its next batch, on
+     * its interval or size threshold, so concurrent bookings share one fsync.
+     * Compacts the journal into trains.json once it has passed {@link #COMPACTION_THRESHOLD}.
+     */
+    public CompletableFuture<Void> commit() {
+        if (!persistent) return CompletableFuture.completedFuture(null);
+        if (journal == null) {
+            writeSnapshot();
+            return CompletableFuture.completedFuture(null);
+        }
+        // One session compacts; the others wait only while it copies the catalogue
+        if (journal.getEntryCount() >= COMPACTION_THRESHOLD && compacting.compareAndSet(false, true)) {
+            try {
+                writeSnapshot();
+            } finally {
+                compacting.set(false);
+            }
+        }
+        return committer.whenDurable();
+    }
+
+    /**
+     * Writes a snapshot now if the journal holds any seat changes, so the next start replays
+     * nothing. Called on shutdown.
+     */
+    public void compact() {
+        if (!persistent) return;
+        if ((journal != null && journal.getEntryCount() > 0) || needsConversion()) writeSnapshot();
+    }
+
+    private boolean needsConversion() {
+        try {
+            return SnapshotFiles.needsConversion(Path.of(FILE_PATH));
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Writes the trains snapshot atomically, in the configured {@link SnapshotFormat},
+     * and drops the journal records it now contains. The write lock is held only to copy the
+     * catalogue and queue a journal mark behind the events recorded so far; the file write
+     * and fsync happen after it is released, so sessions keep booking into the journal.
+     */
+    private boolean writeSnapshot() {
+        synchronized (snapshotMonitor) {
+            JsonNode snapshot;
+            CompletableFuture<Journal.Mark> cutOver = new CompletableFuture<>();
+            CompletableFuture<Void> marked = CompletableFuture.completedFuture(null);
+            catalogueLock.writeLock().lock();
+            try {
+                evictDepartedJourneys();
+                snapshot = objectMapper.valueToTree(trainIndex.all());
+                // Queued behind every event recorded so far, ahead of any recorded after the copy
+                if (journal != null) marked = committer.submit(() -> cutOver.complete(journal.mark()));
+            } finally {
+                catalogueLock.writeLock().unlock();
+            }
+
+            try {
+                if (journal != null) {
+                    committer.flush();
+                    marked.join(); // Events before the mark are durable
+                }
+                SnapshotFiles.write(Path.of(FILE_PATH), objectMapper, snapshot);
+                if (journal != null) journal.dropThrough(cutOver.join());
+                return true;
+            } catch (CompletionException e) {
+                // Writer failed (and reported it) or is closed; keep the journal and retry on a later commit
+                return false;
+            } catch (IOException e) {
+                System.out.println("❌ Error saving trains: " + e.getMessage());
+                return false;
+            }
         }
-        return null;
     }
 
     // ------------------- NEW FUNCTION -------------------
     /**
-     * Saves or updates a single train in memory and writes to JSON file.
+     * Saves or updates a single train in memory and writes a new trains.json snapshot.
      * If train already exists (by ID), it will replace the old one.
      * Otherwise, it will add a new train.
      *
@@ -86,26 +490,18 @@ public class TicketService {
             return;
         }
 
-        // Check if train exists
-        boolean updated = false;
-        for (int i = 0; i < trains.size(); i++) {
-            if (trains.get(i).getId().equals(train.getId())) {
-                trains.set(i, train); // update
-                updated = true;
-                break;
-            }
-        }
-
-        if (!updated) {
-            trains.add(train); // new train
+        // Replace by ID or append as a new train
+        catalogueLock.writeLock().lock();
+        try {
+            trainIndex.put(train);
+            routeService.index(train);
+        } finally {
+            catalogueLock.writeLock().unlock();
         }
 
         // Save to file
-        try {
-            objectMapper.writerWithDefaultPrettyPrinter().writeValue(new File(FILE_PATH), trains);
+        if (persistent && writeSnapshot()) {
             System.out.println("✅ Train " + train.getId() + " saved/updated successfully.");
-        } catch (Exception e) {
-            System.out.println("❌ Error saving train: " + e.getMessage());
         }
     }
 }
@@ -0,0 +1,196 @@
+package org.example.ticket.services;
+
+import org.example.ticket.entities.Train;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * In-memory index over the train catalogue.
+ * <p>
+ * Trains keep their catalogue order in slots. Each slot has a precomputed, lower-cased
+ * search key ("name\0id"), and every 1-, 2- and 3-gram of that key points back to the
+ * slots containing it. A query of up to three characters is a single posting lookup;
+ * longer queries verify only the slots of their rarest trigram. Search cost therefore
+ * follows the number of candidate trains, not the catalogue size.
+ */
+class TrainIndex {
+
+    private static final int MAX_GRAM = 3;
+    private static final char KEY_SEPARATOR = '\0'; // Never part of a query, so no match spans name and ID
+
+    private final List<Train> slots = new ArrayList<>();
+    private final List<String> keys = new ArrayList<>();
+    private final Map<String, Integer> slotById = new HashMap<>();
+    private final Map<String, IntList> postings = new HashMap<>();
+
+    TrainIndex(List<Train> trains) {
+        trains.forEach(this::put);
+    }
+
+    // ------------------- Lookups -------------------
+
+    /** Returns the train with exactly this ID, or null. */
+    Train get(String id) {
+        Integer slot = slotById.get(id);
+        return slot == null ? null : slots.get(slot);
+    }
+
+    /** All trains in catalogue order. Read-only view. */
+    List<Train> all() {
+        return Collections.unmodifiableList(slots);
+    }
+
+    int size() {
+        return slots.size();
+    }
+
+    /** Catalogue position of a train, or -1 if it is not in the catalogue. */
+    int slotOf(String id) {
+        Integer slot = slotById.get(id);
+        return slot == null ? -1 : slot;
+    }
+
+    /** Trains whose name or ID contains the query (case-insensitive), in catalogue order. */
+    List<Train> search(String query) {
+        return stream(query).collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    /**
+     * Lazy form of {@link #search}: matches are found as the stream is read, so reading only a
+     * page of them costs only that page. Read it before the index changes.
+     */
+    Stream<Train> stream(String query) {
+        return stream(query, -1);
+    }
+
+    /**
+     * Matches in slots after {@code afterSlot} only, found by seeking in the postings rather
+     * than skipping earlier matches, so a later page costs no more than the first.
+     */
+    Stream<Train> stream(String query, int afterSlot) {
+        int from = (int) Math.min(slots.size(), Math.max(0L, afterSlot + 1L));
+        String q = normalize(query);
+        if (q.isEmpty()) return slots.subList(from, slots.size()).stream();
+
+        IntList candidates = candidates(q);
+        if (candidates == null) return Stream.empty();
+        IntStream matches = candidates.streamFrom(from);
+        if (q.length() > MAX_GRAM) matches = matches.filter(slot -> keys.get(slot).contains(q));
+        return matches.mapToObj(slots::get);
+    }
+
+    /** Number of slots a search for the query looks at, matching or not. */
+    int candidateCount(String query) {
+        String q = normalize(query);
+        if (q.isEmpty()) return slots.size();
+        IntList candidates = candidates(q);
+        return candidates == null ? 0 : candidates.size;
+    }
+
+    // ------------------- Updates -------------------
+
+    /** Adds a new train or replaces the one with the same ID, keeping its catalogue position. */
+    void put(Train train) {
+        Integer existing = slotById.get(train.getId());
+        String key = keyOf(train);
+
+        if (existing == null) {
+            int slot = slots.size();
+            slots.add(train);
+            keys.add(key);
+            slotById.put(train.getId(), slot);
+            grams(key).forEach(gram -> postings.computeIfAbsent(gram, g -> new IntList()).add(slot));
+            return;
+        }
+
+        int slot = existing;
+        String oldKey = keys.get(slot);
+        slots.set(slot, train);
+        if (!oldKey.equals(key)) {
+            keys.set(slot, key);
+            for (String gram : grams(oldKey)) {
+                IntList posting = postings.get(gram);
+                posting.remove(slot);
+                if (posting.size == 0) postings.remove(gram);
+            }
+            grams(key).forEach(gram -> postings.computeIfAbsent(gram, g -> new IntList()).add(slot));
+        }
+    }
+
+    // ------------------- Helper Methods -------------------
+
+    /**
+     * The query's own posting if it is at most {@link #MAX_GRAM} characters long, otherwise the
+     * smallest posting among its trigrams, whose slots still need verifying. Null if some gram
+     * has no posting, so nothing can match.
+     */
+    private IntList candidates(String q) {
+        if (q.length() <= MAX_GRAM) return postings.get(q);
+        IntList rarest = null;
+        for (int i = 0; i + MAX_GRAM <= q.length(); i++) {
+            IntList posting = postings.get(q.substring(i, i + MAX_GRAM));
+            if (posting == null) return null;
+            if (rarest == null || posting.size < rarest.size) rarest = posting;
+        }
+        return rarest;
+    }
+
+    static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase();
+    }
+
+    private static String keyOf(Train train) {
+        return normalize(train.getName()) + KEY_SEPARATOR + normalize(train.getId());
+    }
+
+    /** Distinct 1..MAX_GRAM character grams of a key, never spanning the separator. */
+    private static Set<String> grams(String key) {
+        Set<String> grams = new HashSet<>();
+        for (int start = 0; start < key.length(); start++) {
+            for (int len = 1; len <= MAX_GRAM && start + len <= key.length(); len++) {
+                if (key.charAt(start + len - 1) == KEY_SEPARATOR) break;
+                grams.add(key.substring(start, start + len));
+            }
+        }
+        return grams;
+    }
+
+    /** Sorted, growable list of slot numbers. */
+    private static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            int pos = Arrays.binarySearch(values, 0, size, value);
+            if (pos >= 0) return;
+            pos = -pos - 1;
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            System.arraycopy(values, pos, values, pos + 1, size - pos);
+            values[pos] = value;
+            size++;
+        }
+
+        /** Values from {@code min} up, located by binary search. */
+        IntStream streamFrom(int min) {
+            int pos = Arrays.binarySearch(values, 0, size, min);
+            return Arrays.stream(values, pos >= 0 ? pos : -pos - 1, size);
+        }
+
+        void remove(int value) {
+            int pos = Arrays.binarySearch(values, 0, size, value);
+            if (pos < 0) return;
+            System.arraycopy(values, pos + 1, values, pos, size - pos - 1);
+            size--;
+        }
+    }
+}
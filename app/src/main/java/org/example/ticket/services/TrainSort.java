@@ -0,0 +1,48 @@
+package org.example.ticket.services;
+
+import org.example.ticket.entities.Leg;
+import org.example.ticket.entities.Train;
+
+import java.time.LocalDate;
+import java.util.Locale;
+
+/**
+ * Sort orders for train search results. Each order maps a train to a number, smallest first;
+ * ties are broken by train ID so that every order is total and page cursors are exact.
+ */
+public enum TrainSort {
+    /** Catalogue order. */
+    CATALOGUE,
+    /** Earliest departure first; trains without a timetable come last. */
+    DEPARTURE,
+    /** Most seats free for the leg searched on the journey date first. */
+    AVAILABILITY,
+    /** Cheapest adult fare for the leg searched first, as quoted by the {@link FareEngine}. */
+    FARE;
+
+    /**
+     * Sort key of a train.
+     *
+     * @param date journey date the availability is counted for, or null if the train never runs
+     * @param leg  part of the run searched
+     * @param slot catalogue position of the train
+     */
+    long key(Train train, LocalDate date, Leg leg, int slot, FareEngine fares) {
+        return switch (this) {
+            case CATALOGUE -> slot;
+            case DEPARTURE -> train.getDepartureTime() != null ? train.getDepartureTime().toSecondOfDay() : Long.MAX_VALUE;
+            case AVAILABILITY -> date != null ? -train.getAvailableSeats(date, leg) : 0;
+            case FARE -> fares.lowestFare(train, leg, date);
+        };
+    }
+
+    /** Parses a sort name in any case; null or blank means {@link #CATALOGUE}. */
+    public static TrainSort parse(String name) {
+        if (name == null || name.isBlank()) return CATALOGUE;
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown sort '" + name + "', expected departure, availability or fare");
+        }
+    }
+}
@@ -2,7 +2,6 @@ package org.example.ticket.services;
 
 import lombok.Getter;
 import org.example.ticket.entities.User;
-import org.mindrot.jbcrypt.BCrypt;
 
 public class UserService {
     private final LoginService loginService;
@@ -26,13 +25,7 @@ public class UserService {
     }
 
     public void changePassword(String oldPassword, String newPassword) {
-        if (BCrypt.checkpw(oldPassword, currentUser.getPasswordHash())) {
-            String newHash = BCrypt.hashpw(newPassword, BCrypt.gensalt());
-            currentUser.setPasswordHash(newHash);
-            loginService.updateUser(currentUser);
-        } else {
-            throw new IllegalArgumentException("Old password incorrect");
-        }
+        loginService.changePassword(currentUser, oldPassword, newPassword);
     }
 
     public void logout() {
@@ -0,0 +1,152 @@
+package org.example.ticket.services;
+
+import org.example.ticket.entities.Coach;
+import org.example.ticket.entities.Leg;
+import org.example.ticket.entities.Passenger;
+import org.example.ticket.entities.Ticket;
+import org.example.ticket.entities.Train;
+import org.example.ticket.utils.IdGenerator;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Waitlist per (train, coach type, journey date), promoted automatically when seats free up.
+ * <p>
+ * Each queue is a priority queue ordered by waitlist number, so joining and promoting the head
+ * cost O(log n) however long the list is. Promotion is strict FIFO: it stops at the first
+ * ticket that does not fit in any one coach, instead of scanning for smaller groups behind it.
+ * Cancelled waitlisted tickets are dropped lazily when they reach the head.
+ * <p>
+ * Waitlisted tickets are ordinary tickets in the {@link TicketRepository}, so the queues are
+ * rebuilt from it on startup. Promotions run on one background thread and are committed
+ * through the {@link TicketService} like any other booking.
+ */
+public class WaitlistService implements AutoCloseable {
+
+    private static final Comparator<Ticket> QUEUE_ORDER = Comparator.comparingLong(Ticket::getWaitlistNumber);
+
+    /** Identifies one waitlist. */
+    private record QueueKey(String trainId, String coachType, LocalDate journeyDate) {
+    }
+
+    private final TicketService ticketService;
+    private final Map<QueueKey, PriorityQueue<Ticket>> queues = new ConcurrentHashMap<>();
+    private final ExecutorService promoter = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "waitlist-promoter");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public WaitlistService(TicketService ticketService) {
+        this.ticketService = ticketService;
+    }
+
+    /** Re-queues waitlisted tickets from the repository and promotes any that fit already. */
+    public void restore(TicketRepository ticketRepository) {
+        ticketRepository.stream()
+                .filter(ticket -> ticket.isWaitlisted() && !ticket.isHasCancelled())
+                .forEach(this::enqueue);
+        queues.keySet().forEach(key -> seatsFreed(key.trainId(), key.coachType(), key.journeyDate()));
+    }
+
+    // ------------------- Public API -------------------
+
+    /**
+     * Puts a new ticket on the waitlist for a coach type and saves it. The caller commits.
+     *
+     * @return the ticket's position in the queue when it joined, starting at 1
+     */
+    public int join(Ticket ticket, String coachType, List<Passenger> passengers) {
+        ticket.joinWaitlist(coachType, IdGenerator.getDefault().nextId(), passengers);
+        ticketService.getTicketRepository().save(ticket); // Before the promoter can see it
+        return enqueue(ticket);
+    }
+
+    /** Number of tickets waiting, cancelled ones not yet dropped included. */
+    public int getLength(String trainId, String coachType, LocalDate journeyDate) {
+        PriorityQueue<Ticket> queue = queues.get(new QueueKey(trainId, coachType, journeyDate));
+        if (queue == null) return 0;
+        synchronized (queue) {
+            return queue.size();
+        }
+    }
+
+    /** Schedules promotion for a waitlist after seats of that coach type were freed. */
+    public void seatsFreed(String trainId, String coachType, LocalDate journeyDate) {
+        QueueKey key = new QueueKey(trainId, coachType, journeyDate);
+        if (!queues.containsKey(key)) return;
+        promoter.execute(() -> promote(key));
+    }
+
+    @Override
+    public void close() {
+        promoter.shutdown();
+    }
+
+    // ------------------- Promotion -------------------
+
+    private int enqueue(Ticket ticket) {
+        QueueKey key = new QueueKey(ticket.getTrainId(), ticket.getCoachType(), ticket.getJourneyDate());
+        PriorityQueue<Ticket> queue = queues.computeIfAbsent(key, k -> new PriorityQueue<>(QUEUE_ORDER));
+        synchronized (queue) {
+            queue.add(ticket);
+            return queue.size();
+        }
+    }
+
+    /** Seats waitlisted tickets from the head of one queue until the next one does not fit. */
+    private void promote(QueueKey key) {
+        PriorityQueue<Ticket> queue = queues.get(key);
+        Train train = ticketService.getTrainByNumber(key.trainId());
+        if (queue == null || train == null) return;
+
+        boolean promoted = false;
+        synchronized (queue) {
+            while (!queue.isEmpty()) {
+                Ticket head = queue.peek();
+                synchronized (head) { // Its booker may be cancelling it right now
+                    if (head.isWaitlisted() && !head.isHasCancelled() && !seat(train, key, head)) break;
+                }
+                queue.poll();
+                promoted |= !head.isWaitlisted() && !head.isHasCancelled();
+            }
+        }
+        if (promoted) ticketService.commit();
+    }
+
+    /**
+     * Tries each coach of the type in turn; the whole ticket goes into one coach or stays waiting.
+     * Seats only need to be free for the leg the ticket's passengers travel.
+     */
+    private boolean seat(Train train, QueueKey key, Ticket ticket) {
+        List<Passenger> waiting = ticket.getWaitlistedPassengers();
+        if (waiting.isEmpty()) return false;
+        Leg leg = train.legOf(waiting.get(0));
+        if (train.getAvailableSeats(key.journeyDate(), key.coachType(), leg) < waiting.size()) return false; // No coach can fit it
+        for (Coach coach : train.getCoaches()) {
+            if (!key.coachType().equals(coach.getType())) continue;
+            if (coach.getAvailableSeats(key.journeyDate(), leg) < waiting.size()) continue;
+
+            List<Passenger> passengers = new ArrayList<>(waiting.size());
+            for (Passenger passenger : waiting) {
+                Passenger seated = new Passenger(passenger.getName(), passenger.getAge(), coach.getId(), 0);
+                seated.travel(passenger.getFrom(), passenger.getTo());
+                passengers.add(seated);
+            }
+            if (ticketService.allocateSeats(train, coach.getId(), key.journeyDate(), passengers).isEmpty()) continue;
+
+            ticket.confirmFromWaitlist(coach.getId(), passengers);
+            ticketService.getTicketRepository().save(ticket);
+            return true;
+        }
+        return false;
+    }
+}
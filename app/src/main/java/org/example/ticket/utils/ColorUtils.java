@@ -2,6 +2,10 @@ package org.example.ticket.utils;
 
 public class ColorUtils {
 
+    // Off with NO_COLOR (https://no-color.org), -Dirctc.color=false or the --no-color option
+    private static volatile boolean enabled = isBlank(System.getenv("NO_COLOR"))
+            && Boolean.parseBoolean(System.getProperty("irctc.color", "true"));
+
     // Reset
     public static final String RESET = "\u001B[0m";
 
@@ -29,4 +33,17 @@ public class ColorUtils {
     public static String colorize(String text, String color) {
         return color + text + RESET;
     }
+
+    /** Whether terminals may show colours at all. Each {@link Terminal} further decides for itself. */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean enabled) {
+        ColorUtils.enabled = enabled;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isEmpty();
+    }
 }
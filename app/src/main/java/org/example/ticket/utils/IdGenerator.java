@@ -0,0 +1,92 @@
+package org.example.ticket.utils;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free, Snowflake-style generator of unique 64-bit IDs.
+ * <p>
+ * Layout: 41 bits of milliseconds since {@link #EPOCH}, 10 bits of node ID and 12 bits of
+ * sequence, so one node can issue 4096 IDs per millisecond. IDs from one generator always
+ * increase; if the clock steps back, the generator keeps counting from its last timestamp.
+ * When a millisecond's sequence is used up before the clock moves on, the generator moves its
+ * timestamp one millisecond ahead instead of waiting, and the clock catches up later.
+ * Nodes sharing data must use different node IDs, set with the {@code irctc.node.id} system
+ * property. IDs stay unique across restarts as long as the wall clock does not move back by
+ * more than the restart took.
+ * <p>
+ * {@link #nextIdString()} renders IDs in upper-case base 36 (about 11 characters).
+ */
+public final class IdGenerator {
+
+    /** Start of the timestamp range: 2024-01-01T00:00:00Z. Good for about 69 years. */
+    public static final long EPOCH = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+
+    public static final int NODE_BITS = 10;
+    public static final int SEQUENCE_BITS = 12;
+    public static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private static final IdGenerator DEFAULT = new IdGenerator(Integer.getInteger("irctc.node.id", 0));
+
+    private final long nodeBits;
+    private final LongSupplier clock;   // Milliseconds since the Unix epoch
+    private final AtomicLong lastState = new AtomicLong(); // (timestamp << SEQUENCE_BITS) | sequence
+
+    public IdGenerator(int nodeId) {
+        this(nodeId, System::currentTimeMillis);
+    }
+
+    /** Generator on another clock, e.g. a frozen one in tests. */
+    IdGenerator(int nodeId, LongSupplier clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node ID must be between 0 and " + MAX_NODE_ID);
+        }
+        this.nodeBits = (long) nodeId << SEQUENCE_BITS;
+        this.clock = clock;
+    }
+
+    /** Shared generator for this JVM, using the {@code irctc.node.id} system property. */
+    public static IdGenerator getDefault() {
+        return DEFAULT;
+    }
+
+    /** Returns the next unique ID without waiting. */
+    public long nextId() {
+        while (true) {
+            long last = lastState.get();
+            long lastTimestamp = last >>> SEQUENCE_BITS;
+            long now = clock.getAsLong() - EPOCH;
+
+            long next;
+            if (now > lastTimestamp) {
+                next = now << SEQUENCE_BITS;
+            } else if ((last & SEQUENCE_MASK) < SEQUENCE_MASK) {
+                next = last + 1; // Same millisecond, or the clock moved back
+            } else {
+                next = (lastTimestamp + 1) << SEQUENCE_BITS; // Sequence used up; borrow the next millisecond
+            }
+            if (lastState.compareAndSet(last, next)) {
+                long timestamp = next >>> SEQUENCE_BITS;
+                return (timestamp << (NODE_BITS + SEQUENCE_BITS)) | nodeBits | (next & SEQUENCE_MASK);
+            }
+        }
+    }
+
+    /** Returns the next unique ID in upper-case base 36. */
+    public String nextIdString() {
+        return Long.toString(nextId(), 36).toUpperCase();
+    }
+
+    /** Time at which an ID was issued. */
+    public static Instant timestampOf(long id) {
+        return Instant.ofEpochMilli((id >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH);
+    }
+
+    /** Node that issued an ID. */
+    public static int nodeOf(long id) {
+        return (int) ((id >>> SEQUENCE_BITS) & MAX_NODE_ID);
+    }
+}
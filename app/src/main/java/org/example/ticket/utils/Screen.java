@@ -0,0 +1,104 @@
+package org.example.ticket.utils;
+
+import java.io.PrintStream;
+
+/**
+ * One block of output, such as a menu or a ticket list, built in a reused {@link StringBuilder}
+ * and written to the terminal with a single print and flush instead of a flush per line.
+ * <p>
+ * Each {@link Terminal} owns one screen; {@link Terminal#screen()} returns it cleared. Colour
+ * codes are left out when the terminal shows no colours. A screen is used only by the thread
+ * of its session, so it is not thread-safe.
+ */
+public final class Screen {
+
+    /** Heavy and light horizontal rules used by the menus. */
+    public static final String RULE = "====================================================";
+    public static final String DIVIDER = "----------------------------------------------------";
+
+    private static final int INITIAL_CAPACITY = 2 * 1024;
+    private static final int MAX_RETAINED_CAPACITY = 64 * 1024; // Drop buffers grown by one huge listing
+
+    private final Terminal terminal;
+    private StringBuilder sb = new StringBuilder(INITIAL_CAPACITY);
+
+    Screen(Terminal terminal) {
+        this.terminal = terminal;
+    }
+
+    Screen clear() {
+        sb.setLength(0);
+        return this;
+    }
+
+    // ------------------- Building -------------------
+
+    /** Appends an ANSI colour code, or nothing if the terminal shows no colours. */
+    public Screen color(String code) {
+        if (terminal.isAnsi()) sb.append(code);
+        return this;
+    }
+
+    public Screen reset() {
+        return color(ColorUtils.RESET);
+    }
+
+    public Screen append(String text) {
+        sb.append(text);
+        return this;
+    }
+
+    public Screen append(Object value) {
+        sb.append(value);
+        return this;
+    }
+
+    public Screen append(int value) {
+        sb.append(value);
+        return this;
+    }
+
+    public Screen newline() {
+        sb.append('\n');
+        return this;
+    }
+
+    public Screen line(String text) {
+        sb.append(text).append('\n');
+        return this;
+    }
+
+    /** Appends a whole line in one colour. */
+    public Screen line(String color, String text) {
+        return color(color).append(text).reset().newline();
+    }
+
+    /** Appends {@code label} in a colour followed by the plain value, as one line. */
+    public Screen field(String color, String label, Object value) {
+        return color(color).append(label).reset().append(value).newline();
+    }
+
+    public Screen row(TableFormat format, Object... cells) {
+        format.appendRow(sb, cells);
+        return this;
+    }
+
+    /** The underlying builder, for renderers that append to a {@link StringBuilder} directly. */
+    public StringBuilder builder() {
+        return sb;
+    }
+
+    // ------------------- Output -------------------
+
+    /** Writes everything built so far in one go, flushes, and clears the screen for reuse. */
+    public void print() {
+        PrintStream out = terminal.getOut();
+        out.append(sb);
+        out.flush();
+        if (sb.capacity() > MAX_RETAINED_CAPACITY) {
+            sb = new StringBuilder(INITIAL_CAPACITY);
+        } else {
+            sb.setLength(0);
+        }
+    }
+}
@@ -1,42 +1,33 @@
 package org.example.ticket.utils;
 
 import org.example.ticket.entities.Coach;
-import java.util.*;
+
+import java.time.LocalDate;
+import java.util.List;
 
 public class SeatUtils {
 
     /**
-     * Returns list of available seat numbers for a given coach.
+     * Returns list of available seat numbers for a given coach on a journey date.
      * Indexing starts from 1 (not 0).
      *
-     * @param coach the coach object
+     * @param coach       the coach object
+     * @param journeyDate the date of the journey
      * @return list of seat numbers that are not booked
      */
-    public static List<Integer> getAvailableSeatNumbers(Coach coach) {
-        List<Integer> availableSeats = new ArrayList<>();
-
-        for (int seatNum = 1; seatNum <= coach.getTotalSeats(); seatNum++) {
-            if (!coach.getSeats().containsKey(seatNum)) {
-                availableSeats.add(seatNum); // seat not booked
-            }
-        }
-
-        return availableSeats;
+    public static List<Integer> getAvailableSeatNumbers(Coach coach, LocalDate journeyDate) {
+        return coach.getInventory(journeyDate).availableSeatNumbers();
     }
 
     /**
-     * Returns the first available seat number in the given coach.
+     * Returns the first available seat number in the given coach on a journey date.
      * Indexing starts from 1 (not 0).
      *
-     * @param coach the coach object
+     * @param coach       the coach object
+     * @param journeyDate the date of the journey
      * @return first available seat number, or -1 if no seats available
      */
-    public static int getFirstAvailableSeat(Coach coach) {
-        for (int seatNum = 1; seatNum <= coach.getTotalSeats(); seatNum++) {
-            if (!coach.getSeats().containsKey(seatNum)) {
-                return seatNum; // first empty seat found
-            }
-        }
-        return -1; // no seat available
+    public static int getFirstAvailableSeat(Coach coach, LocalDate journeyDate) {
+        return coach.getInventory(journeyDate).firstAvailable(); // -1 when no seat available
     }
 }
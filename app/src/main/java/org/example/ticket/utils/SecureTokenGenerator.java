@@ -0,0 +1,45 @@
+package org.example.ticket.utils;
+
+import java.security.SecureRandom;
+
+/**
+ * Unguessable short tokens, such as a ticket's security number.
+ * <p>
+ * Tokens use the Crockford base-32 alphabet (no I, L, O or U), so they are easy to read out
+ * and type. Each character carries 5 random bits; the default 8 characters give 40 bits. One
+ * shared {@link SecureRandom} serves every thread; it is thread-safe and a token needs at most
+ * a few draws.
+ */
+public final class SecureTokenGenerator {
+
+    public static final int DEFAULT_LENGTH = 8;
+
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private SecureTokenGenerator() {
+    }
+
+    /** Returns a random token of {@link #DEFAULT_LENGTH} characters. */
+    public static String nextToken() {
+        return nextToken(DEFAULT_LENGTH);
+    }
+
+    /** Returns a random token of the given length. */
+    public static String nextToken(int length) {
+        if (length < 1) throw new IllegalArgumentException("Token length must be at least 1");
+        char[] token = new char[length];
+        long bits = 0;
+        int available = 0;
+        for (int i = 0; i < length; i++) {
+            if (available < 5) {
+                bits = RANDOM.nextLong();
+                available = 64;
+            }
+            token[i] = ALPHABET[(int) (bits & 31)];
+            bits >>>= 5;
+            available -= 5;
+        }
+        return new String(token);
+    }
+}
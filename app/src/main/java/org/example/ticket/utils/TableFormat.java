@@ -0,0 +1,38 @@
+package org.example.ticket.utils;
+
+/**
+ * Layout of a fixed-width text table: {@code | cell | cell |} rows with left-aligned, space-padded
+ * cells. Built once per table shape and reused, so rows are padded by hand instead of parsing a
+ * {@link String#format} pattern for every row. Longer cells are not cut, as with {@code %-Ns}.
+ */
+public final class TableFormat {
+
+    private final int[] widths;
+    private final String border;
+
+    public TableFormat(int... widths) {
+        this.widths = widths.clone();
+        StringBuilder sb = new StringBuilder("+");
+        for (int width : widths) {
+            sb.append("-".repeat(width + 2)).append('+');
+        }
+        this.border = sb.append('\n').toString();
+    }
+
+    /** Border line such as {@code +------+----+}, ending in a newline. */
+    public String getBorder() {
+        return border;
+    }
+
+    /** Appends one row and a newline. Cells beyond the column count are ignored. */
+    public void appendRow(StringBuilder sb, Object... cells) {
+        sb.append('|');
+        for (int i = 0; i < widths.length; i++) {
+            String cell = i < cells.length ? String.valueOf(cells[i]) : "";
+            sb.append(' ').append(cell);
+            for (int pad = widths[i] - cell.length(); pad > 0; pad--) sb.append(' ');
+            sb.append(" |");
+        }
+        sb.append('\n');
+    }
+}
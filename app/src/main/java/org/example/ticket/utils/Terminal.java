@@ -0,0 +1,246 @@
+package org.example.ticket.utils;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Scanner;
+
+/**
+ * Input and output of one user session.
+ * <p>
+ * Menus and services read from {@link #scanner()} and print to {@code System.out} as they always
+ * have. In server mode each session thread binds its own terminal, and {@link #installSessionOutput()}
+ * swaps {@code System.out} for a stream that writes to the terminal bound to the calling thread.
+ * Threads with no terminal bound (startup, background writers) keep using the process console.
+ * <p>
+ * Session output is buffered and flushed when the session next waits for input, or by
+ * {@link Screen#print()}, rather than once per line. Terminals without colour strip ANSI codes
+ * from everything printed; {@link Screen} leaves them out to begin with.
+ */
+public final class Terminal implements AutoCloseable {
+
+    private static volatile PrintStream consoleOut = System.out;
+    private static volatile Terminal console;  // Created on first use so System.in is only wrapped when read
+    private static final ThreadLocal<Terminal> CURRENT = new ThreadLocal<>();
+
+    private final Scanner scanner;
+    private final PrintStream out;
+    private final boolean ansi;
+    private final Screen screen = new Screen(this);
+
+    public Terminal(InputStream in, OutputStream out) {
+        this(in, out, ColorUtils.isEnabled());
+    }
+
+    public Terminal(InputStream in, OutputStream out, boolean ansi) {
+        this.out = new PrintStream(ansi ? out : new AnsiStrippingOutputStream(out), false, StandardCharsets.UTF_8);
+        this.scanner = new Scanner(new FlushingInputStream(in, this.out), StandardCharsets.UTF_8);
+        this.ansi = ansi;
+    }
+
+    private Terminal(InputStream in, PrintStream out, boolean ansi) {
+        this.scanner = new Scanner(in);
+        this.out = out;
+        this.ansi = ansi;
+    }
+
+    // ------------------- Current Session -------------------
+
+    /** The terminal bound to this thread, or the process console. */
+    public static Terminal current() {
+        Terminal terminal = CURRENT.get();
+        return terminal != null ? terminal : console();
+    }
+
+    /** Scanner of the current session. */
+    public static Scanner scanner() {
+        return current().scanner;
+    }
+
+    /** The cleared {@link Screen} of the current session. */
+    public static Screen screen() {
+        return current().screen.clear();
+    }
+
+    /** Makes this the terminal of the calling thread until {@link #unbind()}. */
+    public void bind() {
+        CURRENT.set(this);
+    }
+
+    public static void unbind() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Strips colours from the process console when they are disabled or stdout is not a terminal,
+     * such as a pipe or a file. Call at startup, before anything is printed.
+     */
+    public static synchronized void installConsoleOutput() {
+        if (ColorUtils.isEnabled() && System.console() != null) return;
+        Charset charset = Charset.forName(System.getProperty("stdout.encoding", Charset.defaultCharset().name()));
+        consoleOut = new PrintStream(new AnsiStrippingOutputStream(System.out), true, charset);
+        System.setOut(consoleOut);
+    }
+
+    /** Routes {@code System.out} to the terminal of the printing thread. Safe to call more than once. */
+    public static synchronized void installSessionOutput() {
+        if (!(System.out instanceof SessionPrintStream)) System.setOut(new SessionPrintStream());
+    }
+
+    public PrintStream getOut() {
+        return out;
+    }
+
+    /** Whether this terminal shows ANSI colours. */
+    public boolean isAnsi() {
+        return ansi;
+    }
+
+    @Override
+    public void close() {
+        out.flush();
+        scanner.close();
+        out.close();
+    }
+
+    // ------------------- Helper Methods -------------------
+
+    private static Terminal console() {
+        Terminal terminal = console;
+        if (terminal == null) {
+            synchronized (Terminal.class) {
+                if (console == null) {
+                    console = new Terminal(System.in, consoleOut, ColorUtils.isEnabled() && System.console() != null);
+                }
+                terminal = console;
+            }
+        }
+        return terminal;
+    }
+
+    private static PrintStream out() {
+        Terminal terminal = CURRENT.get();
+        return terminal != null ? terminal.out : consoleOut;
+    }
+
+    /** Flushes the session's output before blocking for input, so prompts are always visible. */
+    private static final class FlushingInputStream extends FilterInputStream {
+        private final PrintStream out;
+
+        FlushingInputStream(InputStream in, PrintStream out) {
+            super(in);
+            this.out = out;
+        }
+
+        @Override
+        public int read() throws IOException {
+            out.flush();
+            return super.read();
+        }
+
+        @Override
+        public int read(byte[] buf, int off, int len) throws IOException {
+            out.flush();
+            return super.read(buf, off, len);
+        }
+    }
+
+    /** Drops ANSI escape sequences ({@code ESC [ ... letter}) from the bytes passing through. */
+    private static final class AnsiStrippingOutputStream extends FilterOutputStream {
+        private static final int TEXT = 0, ESCAPE = 1, SEQUENCE = 2;
+        private int state = TEXT; // Sequences may be split across writes
+        private byte[] kept = new byte[512];
+
+        AnsiStrippingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (keep((byte) b)) out.write(b);
+        }
+
+        /** Copies the kept bytes and passes them on in one write, so the stream below flushes once. */
+        @Override
+        public void write(byte[] buf, int off, int len) throws IOException {
+            if (kept.length < len) kept = new byte[Math.max(len, kept.length * 2)];
+            int count = 0;
+            for (int i = off; i < off + len; i++) {
+                if (keep(buf[i])) kept[count++] = buf[i];
+            }
+            if (count > 0) out.write(kept, 0, count);
+        }
+
+        private boolean keep(byte b) {
+            switch (state) {
+                case ESCAPE -> {
+                    state = (b == '[') ? SEQUENCE : TEXT;
+                    return false;
+                }
+                case SEQUENCE -> {
+                    if (b >= 0x40 && b <= 0x7E) state = TEXT; // Final byte ends the sequence
+                    return false;
+                }
+                default -> {
+                    if (b != 0x1B) return true;
+                    state = ESCAPE;
+                    return false;
+                }
+            }
+        }
+    }
+
+    /**
+     * {@code System.out} replacement that forwards every call to the current thread's stream.
+     * Each method is overridden so sessions never share PrintStream's internal lock, which would
+     * let one slow client hold up output for everyone.
+     */
+    private static final class SessionPrintStream extends PrintStream {
+
+        SessionPrintStream() {
+            super(OutputStream.nullOutputStream(), true, StandardCharsets.UTF_8);
+        }
+
+        @Override public void write(int b) { out().write(b); }
+        @Override public void write(byte[] buf, int off, int len) { out().write(buf, off, len); }
+        @Override public void flush() { out().flush(); }
+        @Override public boolean checkError() { return out().checkError(); }
+        @Override public void close() { out().flush(); }
+
+        @Override public void print(boolean b) { out().print(b); }
+        @Override public void print(char c) { out().print(c); }
+        @Override public void print(int i) { out().print(i); }
+        @Override public void print(long l) { out().print(l); }
+        @Override public void print(float f) { out().print(f); }
+        @Override public void print(double d) { out().print(d); }
+        @Override public void print(char[] s) { out().print(s); }
+        @Override public void print(String s) { out().print(s); }
+        @Override public void print(Object obj) { out().print(obj); }
+
+        @Override public void println() { out().println(); }
+        @Override public void println(boolean x) { out().println(x); }
+        @Override public void println(char x) { out().println(x); }
+        @Override public void println(int x) { out().println(x); }
+        @Override public void println(long x) { out().println(x); }
+        @Override public void println(float x) { out().println(x); }
+        @Override public void println(double x) { out().println(x); }
+        @Override public void println(char[] x) { out().println(x); }
+        @Override public void println(String x) { out().println(x); }
+        @Override public void println(Object x) { out().println(x); }
+
+        @Override public PrintStream printf(String format, Object... args) { return out().printf(format, args); }
+        @Override public PrintStream printf(Locale l, String format, Object... args) { return out().printf(l, format, args); }
+        @Override public PrintStream format(String format, Object... args) { return out().format(format, args); }
+        @Override public PrintStream format(Locale l, String format, Object... args) { return out().format(l, format, args); }
+
+        @Override public PrintStream append(CharSequence csq) { return out().append(csq); }
+        @Override public PrintStream append(CharSequence csq, int start, int end) { return out().append(csq, start, end); }
+        @Override public PrintStream append(char c) { return out().append(c); }
+    }
+}
@@ -0,0 +1,62 @@
+package org.example.ticket;
+
+import org.example.ticket.entities.Coach;
+import org.example.ticket.entities.Passenger;
+import org.example.ticket.entities.Station;
+import org.example.ticket.entities.Train;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+/**
+ * Trains, passengers and a journey date shared by the tests.
+ */
+public final class TestFixtures {
+
+    /** Next Monday: always in the future and inside the booking window. */
+    public static final LocalDate JOURNEY_DATE = LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.MONDAY));
+
+    private TestFixtures() {
+    }
+
+    // ------------------- Trains -------------------
+
+    /** Daily New Delhi to Mumbai Central train "Express {id}" with the given coaches. */
+    public static Train train(String id, List<Coach> coaches) {
+        Station source = new Station("NDLS", "New Delhi", "Delhi", "Delhi", 16);
+        Station destination = new Station("BCT", "Mumbai Central", "Mumbai", "Maharashtra", 12);
+        return new Train(id, "Express " + id, source, destination, new ArrayList<>(coaches), EnumSet.allOf(DayOfWeek.class));
+    }
+
+    /** Daily train with SL coaches S1, S2, ... of {@code seatsPerCoach} seats each, at ₹500 a seat. */
+    public static Train train(String id, int coachCount, int seatsPerCoach) {
+        List<Coach> coaches = new ArrayList<>();
+        for (int c = 1; c <= coachCount; c++) {
+            coaches.add(new Coach("S" + c, id, "SL", seatsPerCoach, 500));
+        }
+        return train(id, coaches);
+    }
+
+    /** Daily train T1 with one SL coach S1 of the given number of seats. */
+    public static Train train(int seats) {
+        return train("T1", 1, seats);
+    }
+
+    // ------------------- Passengers -------------------
+
+    /** Adult passengers "{prefix} 0", "{prefix} 1", ... for a coach, with no seat yet. */
+    public static List<Passenger> passengers(String prefix, String coachId, int count) {
+        List<Passenger> passengers = new ArrayList<>();
+        for (int i = 0; i < count; i++) passengers.add(new Passenger(prefix + " " + i, 30, coachId, 0));
+        return passengers;
+    }
+
+    /** Adult passengers for coach S1, with no seat yet. */
+    public static List<Passenger> passengers(int count) {
+        return passengers("Passenger", "S1", count);
+    }
+}
@@ -0,0 +1,101 @@
+package org.example.ticket.api;
+
+import org.example.ticket.api.BookingApi.BookingRequest;
+import org.example.ticket.api.BookingApi.CancelRequest;
+import org.example.ticket.api.BookingApi.LoginRequest;
+import org.example.ticket.api.BookingApi.PassengerRequest;
+import org.example.ticket.api.BookingApi.RegisterRequest;
+import org.example.ticket.api.BookingApi.TicketView;
+import org.example.ticket.api.BookingApi.UpdateUserRequest;
+import org.example.ticket.entities.Train;
+import org.example.ticket.entities.User;
+import org.example.ticket.services.LoginService;
+import org.example.ticket.services.TicketService;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.function.ThrowingRunnable;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+
+import static org.example.ticket.TestFixtures.JOURNEY_DATE;
+import static org.example.ticket.TestFixtures.train;
+import static org.junit.Assert.*;
+
+/**
+ * Walks the API through register, login, booking and cancellation without any console I/O.
+ */
+public class BookingApiTest {
+
+    private Train train;
+    private BookingApi api;
+
+    @Before
+    public void setUp() {
+        System.setProperty("irctc.bcrypt.cost", "4");
+        train = train(3);
+        api = new BookingApi(new LoginService(List.of()), new TicketService(List.of(train)));
+    }
+
+    @Test
+    public void bookAndCancelWithBearerToken() {
+        api.register(new RegisterRequest("amit@example.com", "Amit", "secret1"));
+        String token = api.login(new LoginRequest("amit@example.com", "secret1")).token();
+        User user = api.authenticate(token);
+        api.updateUser(user, new UpdateUserRequest(null, "9999999999", "123412341234"));
+
+        TicketView ticket = api.book(user, new BookingRequest("T1", "S1", JOURNEY_DATE,
+                List.of(new PassengerRequest("Amit", 30), new PassengerRequest("Bina", 28))));
+        assertEquals("CONFIRMED", ticket.status());
+        assertEquals(List.of(1, 2), ticket.passengers().stream().map(BookingApi.PassengerView::seatNumber).toList());
+        assertEquals(1, api.getAvailability("T1", JOURNEY_DATE).coaches().get(0).availableSeats());
+
+        TicketView cancelled = api.cancel(user, ticket.id(), new CancelRequest(ticket.securityNumber()));
+        assertEquals("CANCELLED", cancelled.status());
+        assertEquals(3, train.getCoach("S1").getAvailableSeats(JOURNEY_DATE));
+        assertStatus(409, () -> api.cancel(user, ticket.id(), new CancelRequest(ticket.securityNumber())));
+    }
+
+    @Test
+    public void rejectsBadCredentialsAndOtherUsersTickets() {
+        api.register(new RegisterRequest("amit@example.com", "Amit", "secret1"));
+        api.register(new RegisterRequest("bina@example.com", "Bina", "secret2"));
+        assertStatus(401, () -> api.login(new LoginRequest("amit@example.com", "wrong")));
+        assertStatus(401, () -> api.authenticate("not-a-token"));
+
+        User amit = api.authenticate(api.login(new LoginRequest("amit@example.com", "secret1")).token());
+        User bina = api.authenticate(api.login(new LoginRequest("bina@example.com", "secret2")).token());
+        api.updateUser(amit, new UpdateUserRequest(null, "9999999999", "123412341234"));
+        TicketView ticket = api.book(amit, new BookingRequest("T1", "S1", JOURNEY_DATE, List.of(new PassengerRequest("Amit", 30))));
+
+        assertStatus(404, () -> api.getTicket(bina, ticket.id()));
+        assertStatus(400, () -> api.book(bina, new BookingRequest("T1", "S1", JOURNEY_DATE, List.of(new PassengerRequest("Bina", 28)))));
+    }
+
+    @Test
+    public void serverAnswersWithTheStatusOfApiErrors() throws Exception {
+        try (HttpApiServer server = new HttpApiServer(api, 0)) {
+            server.start();
+            HttpClient client = HttpClient.newHttpClient();
+            String base = "http://localhost:" + server.getPort() + "/api/";
+
+            assertEquals(405, client.send(HttpRequest.newBuilder(URI.create(base + "login")).GET().build(),
+                    HttpResponse.BodyHandlers.discarding()).statusCode());
+            assertEquals(404, client.send(HttpRequest.newBuilder(URI.create(base + "nothing")).GET().build(),
+                    HttpResponse.BodyHandlers.discarding()).statusCode());
+            HttpResponse<String> badDate = client.send(HttpRequest.newBuilder(URI.create(base + "trains/T1/availability?date=soon"))
+                    .GET().build(), HttpResponse.BodyHandlers.ofString());
+            assertEquals(400, badDate.statusCode());
+            assertTrue(badDate.body().contains("yyyy-MM-dd"));
+        }
+    }
+
+    // ------------------- Helper Methods -------------------
+
+    private static void assertStatus(int status, ThrowingRunnable call) {
+        assertEquals(status, assertThrows(ApiException.class, call).getStatus());
+    }
+}
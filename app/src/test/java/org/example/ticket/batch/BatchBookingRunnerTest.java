@@ -0,0 +1,90 @@
+package org.example.ticket.batch;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.ticket.entities.Train;
+import org.example.ticket.entities.User;
+import org.example.ticket.services.LoginService;
+import org.example.ticket.services.TicketService;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.example.ticket.TestFixtures.JOURNEY_DATE;
+import static org.example.ticket.TestFixtures.train;
+import static org.junit.Assert.*;
+
+/**
+ * Runs a small JSONL file with good and bad lines through the batch runner and checks that
+ * every line gets exactly one result.
+ */
+public class BatchBookingRunnerTest {
+
+    private Path directory;
+    private Train train;
+    private BatchBookingRunner runner;
+
+    @Before
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory("batch");
+        train = train(3);
+        User amit = new User("U1", "Amit", "amit@example.com", "$2a$04$hash");
+        amit.setPhoneNumber("9999999999");
+        amit.setAadhaarUid("123412341234");
+        runner = new BatchBookingRunner(new LoginService(List.of(amit)), new TicketService(List.of(train)), 2);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) Files.deleteIfExists(path);
+        }
+    }
+
+    @Test
+    public void writesOneResultPerRequestLine() throws Exception {
+        Path input = directory.resolve("requests.jsonl");
+        Path output = directory.resolve("results.jsonl");
+        Files.write(input, List.of(
+                request("ok-1", "amit@example.com", "S1", "{\"name\":\"Amit\",\"age\":30}"),
+                request("ok-2", "amit@example.com", "S1", "{\"name\":\"Bina\",\"age\":28},{\"name\":\"Chetan\",\"age\":5}"),
+                "",
+                request("no-user", "nobody@example.com", "S1", "{\"name\":\"Dev\",\"age\":40}"),
+                "{not json",
+                request("no-coach", "amit@example.com", "X9", "{\"name\":\"Esha\",\"age\":22}")));
+
+        assertFalse(runner.run(input, output));
+
+        Map<String, JsonNode> results = new HashMap<>();
+        ObjectMapper objectMapper = new ObjectMapper();
+        for (String line : Files.readAllLines(output)) {
+            JsonNode result = objectMapper.readTree(line);
+            assertNull("one result per request", results.put(result.get("requestId").asText(), result));
+        }
+        assertEquals(List.of("line-5", "no-coach", "no-user", "ok-1", "ok-2"), results.keySet().stream().sorted().toList());
+
+        assertEquals("BOOKED", results.get("ok-1").get("status").asText());
+        assertEquals(2, results.get("ok-2").get("seats").size());
+        assertEquals("FAILED", results.get("no-user").get("status").asText());
+        assertTrue(results.get("no-user").get("error").asText().contains("nobody@example.com"));
+        assertEquals("FAILED", results.get("line-5").get("status").asText());
+        assertEquals(5, results.get("line-5").get("line").asInt());
+        assertTrue(results.get("no-coach").get("error").asText().contains("Invalid coach ID"));
+        assertEquals(0, train.getCoach("S1").getAvailableSeats(JOURNEY_DATE));
+    }
+
+    // ------------------- Helper Methods -------------------
+
+    private static String request(String requestId, String email, String coachId, String passengers) {
+        return "{\"requestId\":\"" + requestId + "\",\"email\":\"" + email + "\",\"trainId\":\"T1\",\"coachId\":\"" + coachId
+                + "\",\"journeyDate\":\"" + JOURNEY_DATE + "\",\"passengers\":[" + passengers + "]}";
+    }
+}
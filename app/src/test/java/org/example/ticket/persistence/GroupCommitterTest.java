@@ -0,0 +1,54 @@
+package org.example.ticket.persistence;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that waiting for durability shares the writer's batches instead of forcing one per caller.
+ */
+public class GroupCommitterTest {
+
+    private GroupCommitter committer;
+
+    @After
+    public void tearDown() {
+        if (committer != null) committer.close();
+    }
+
+    @Test
+    public void writesQueuedBeforeTheIntervalShareOneSync() {
+        committer = new GroupCommitter(1_000, 1_000);
+        AtomicInteger syncs = new AtomicInteger();
+        AtomicInteger writes = new AtomicInteger();
+        committer.addSyncAction(syncs::incrementAndGet);
+        assertTrue(committer.whenDurable().isDone()); // Nothing queued
+
+        committer.submit(writes::incrementAndGet);
+        CompletableFuture<Void> first = committer.whenDurable();
+        committer.submit(writes::incrementAndGet);
+        CompletableFuture<Void> second = committer.whenDurable();
+
+        assertSame(first, second);
+        assertFalse(first.isDone()); // No flush until the interval passes
+        second.join();
+        assertEquals(2, writes.get());
+        assertEquals(1, syncs.get());
+        assertTrue(committer.whenDurable().isDone());
+    }
+
+    @Test
+    public void fullBatchIsWrittenWithoutWaitingForTheInterval() {
+        committer = new GroupCommitter(60_000, 3);
+        AtomicInteger syncs = new AtomicInteger();
+        committer.addSyncAction(syncs::incrementAndGet);
+
+        for (int i = 0; i < 3; i++) committer.submit(() -> { });
+        committer.whenDurable().join(); // Would hang for a minute if only the interval flushed
+        assertEquals(1, syncs.get());
+    }
+}
@@ -0,0 +1,144 @@
+package org.example.ticket.persistence;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks crash recovery on replay (a torn last line is cut off, a corrupt line in the middle is
+ * skipped) and that dropping the journal up to a mark keeps the records appended after it.
+ */
+public class JournalTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private Path directory;
+    private Path path;
+
+    @Before
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory("journal");
+        path = directory.resolve("events.journal");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(path);
+        Files.deleteIfExists(path.resolveSibling(path.getFileName() + ".tmp"));
+        Files.deleteIfExists(directory);
+    }
+
+    @Test
+    public void replayCutsOffATornLastLine() throws Exception {
+        try (Journal<String> journal = open()) {
+            journal.append("a");
+            journal.append("b");
+        }
+        long complete = Files.size(path);
+        appendRaw("\"c"); // Crash in the middle of a write
+
+        try (Journal<String> journal = open()) {
+            List<String> records = new ArrayList<>();
+            journal.replay(records::add);
+            assertEquals(List.of("a", "b"), records);
+            assertEquals(2, journal.getEntryCount());
+        }
+        assertEquals(complete, Files.size(path));
+    }
+
+    @Test
+    public void replayCutsOffAParseableLastLineWithoutItsNewline() throws Exception {
+        try (Journal<String> journal = open()) {
+            journal.append("a");
+        }
+        appendRaw("\"b\""); // The newline never made it to disk
+
+        assertEquals(List.of("a"), replay());
+        assertEquals(List.of("a"), replay());
+    }
+
+    @Test
+    public void replaySkipsACorruptLineInTheMiddle() throws Exception {
+        try (Journal<String> journal = open()) {
+            journal.append("a");
+        }
+        appendRaw("{not json\n");
+        try (Journal<String> journal = open()) {
+            journal.append("b");
+        }
+
+        try (Journal<String> journal = open()) {
+            List<String> records = new ArrayList<>();
+            journal.replay(records::add);
+            assertEquals(List.of("a", "b"), records);
+            assertEquals(2, journal.getEntryCount());
+        }
+        assertEquals(List.of("a", "b"), replay()); // The bad line is kept but still skipped
+    }
+
+    @Test
+    public void appendsAfterTruncationStartOnAFreshLine() throws Exception {
+        try (Journal<String> journal = open()) {
+            journal.append("a");
+        }
+        appendRaw("\"tor");
+
+        try (Journal<String> journal = open()) {
+            journal.replay(record -> { });
+            journal.append("b");
+            journal.append("c");
+        }
+        assertEquals(List.of("a", "b", "c"), replay());
+    }
+
+    @Test
+    public void dropThroughKeepsRecordsAppendedAfterTheMark() throws Exception {
+        try (Journal<String> journal = open()) {
+            journal.append("a");
+            journal.append("b");
+            Journal.Mark mark = journal.mark();
+            journal.append("c"); // Arrives while the snapshot is being written
+
+            journal.dropThrough(mark);
+            assertEquals(1, journal.getEntryCount());
+            journal.append("d");
+        }
+        assertEquals(List.of("c", "d"), replay());
+    }
+
+    @Test
+    public void dropThroughWithNothingAfterTheMarkEmptiesTheJournal() throws Exception {
+        try (Journal<String> journal = open()) {
+            journal.append("a");
+            journal.dropThrough(journal.mark());
+            assertEquals(0, journal.getEntryCount());
+        }
+        assertEquals(0, Files.size(path));
+    }
+
+    // ------------------- Helper Methods -------------------
+
+    private Journal<String> open() throws Exception {
+        return new Journal<>(path, objectMapper, String.class);
+    }
+
+    private void appendRaw(String text) throws Exception {
+        Files.writeString(path, text, StandardOpenOption.APPEND);
+    }
+
+    private List<String> replay() throws Exception {
+        List<String> records = new ArrayList<>();
+        try (Journal<String> journal = open()) {
+            journal.replay(records::add);
+        }
+        return records;
+    }
+}
@@ -0,0 +1,92 @@
+package org.example.ticket.persistence;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.example.ticket.TestFixtures;
+import org.example.ticket.entities.Coach;
+import org.example.ticket.entities.Passenger;
+import org.example.ticket.entities.Train;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that Smile snapshots round-trip seat maps and that the newest file wins when switching formats.
+ */
+public class SnapshotFilesTest {
+
+    private static final TypeReference<List<Train>> TRAIN_LIST = new TypeReference<>() {};
+    private static final LocalDate DATE = LocalDate.now().plusDays(3);
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    private Path directory;
+    private Path snapshot;
+
+    @Before
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory("snapshots");
+        snapshot = directory.resolve("trains.json");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        System.clearProperty("irctc.snapshot.format");
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) Files.deleteIfExists(path);
+        }
+    }
+
+    @Test
+    public void smileSnapshotKeepsBookings() throws Exception {
+        System.setProperty("irctc.snapshot.format", "smile");
+        Path written = SnapshotFiles.write(snapshot, objectMapper, List.of(train("T1", 3)));
+
+        assertEquals(directory.resolve("trains.smile"), written);
+        assertFalse(Files.exists(snapshot));
+        List<Train> loaded = SnapshotFiles.readLatest(snapshot, objectMapper, TRAIN_LIST);
+        Coach coach = loaded.get(0).getCoach("S1");
+        assertFalse(coach.getInventory(DATE).isAvailable(1));
+        assertEquals("Passenger 3", coach.getInventory(DATE).getPassenger(3).getName());
+        assertEquals(coach.getTotalSeats() - 3, loaded.get(0).getAvailableSeats(DATE));
+    }
+
+    @Test
+    public void newestFormatWins() throws Exception {
+        SnapshotFiles.write(snapshot, objectMapper, List.of(train("OLD", 0)));
+        System.setProperty("irctc.snapshot.format", "smile");
+        assertTrue(SnapshotFiles.needsConversion(snapshot));
+
+        Path smile = SnapshotFiles.write(snapshot, objectMapper, List.of(train("NEW", 0)));
+        Files.setLastModifiedTime(smile, FileTime.fromMillis(Files.getLastModifiedTime(snapshot).toMillis() + 1000));
+        assertFalse(SnapshotFiles.needsConversion(snapshot));
+
+        System.setProperty("irctc.snapshot.format", "json");
+        assertEquals(smile, SnapshotFiles.locate(snapshot)); // The stale JSON is ignored after switching back
+        assertEquals("NEW", SnapshotFiles.readLatest(snapshot, objectMapper, TRAIN_LIST).get(0).getId());
+        assertTrue(SnapshotFiles.needsConversion(snapshot));
+    }
+
+    // ------------------- Helper Methods -------------------
+
+    private static Train train(String id, int bookedSeats) {
+        Coach coach = new Coach("S1", id, "SL", 72, 500);
+        for (int seat = 1; seat <= bookedSeats; seat++) {
+            coach.getInventory(DATE).book(seat, new Passenger("Passenger " + seat, 30, "S1", seat));
+        }
+        return TestFixtures.train(id, List.of(coach));
+    }
+}
@@ -0,0 +1,183 @@
+package org.example.ticket.persistence;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.example.ticket.entities.Ticket;
+import org.example.ticket.entities.User;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the move from users.json to shards, lazy shard reads, dirty-shard rewrites and that a
+ * store keeps the shard count it was created with.
+ */
+public class UserShardStoreTest {
+
+    private static final FileTime LONG_AGO = FileTime.fromMillis(0);
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    private Path directory;
+    private Path shards;
+    private Path legacyFile;
+    private Path legacyJournal;
+    private GroupCommitter committer;
+
+    @Before
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory("users");
+        shards = directory.resolve("users");
+        legacyFile = directory.resolve("users.json");
+        legacyJournal = directory.resolve("users.journal");
+        committer = new GroupCommitter(5, 64);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        System.clearProperty("irctc.user.shards");
+        committer.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) Files.deleteIfExists(path);
+        }
+    }
+
+    @Test
+    public void migratesLegacyFileAndJournal() throws Exception {
+        objectMapper.writeValue(legacyFile.toFile(), List.of(user("U1", "Amit@Example.com"), user("U2", "bina@example.com")));
+        try (Journal<User> journal = new Journal<>(legacyJournal, objectMapper, User.class)) {
+            User renamed = user("U2", "bina@example.com");
+            renamed.setName("Bina Rao");
+            journal.append(renamed);
+            journal.append(user("U3", "chetan@example.com"));
+        }
+
+        UserShardStore store = open();
+        assertEquals(3, store.loadAll().size());
+        assertEquals("Bina Rao", store.get("U2").getName()); // Journal wins over the old file
+        assertEquals("U1", store.getEmailIndex().get("amit@example.com"));
+        assertFalse(Files.exists(legacyFile));
+        assertTrue(Files.exists(directory.resolve("users.json.migrated")));
+        assertFalse(Files.exists(legacyJournal));
+
+        UserShardStore reopened = open(); // The index marks the migration as done
+        assertEquals(3, reopened.getEmailIndex().size());
+        assertEquals("chetan@example.com", reopened.get("U3").getEmail());
+    }
+
+    @Test
+    public void keepsEmbeddedTicketsInTheShardsUntilTheyAreMovedOut() throws Exception {
+        User withTicket = user("U1", "amit@example.com");
+        withTicket.addTicket(new Ticket("TK1", "T1", "U1", "1234", 500, 1, LocalDate.of(2030, 1, 7), false,
+                Map.of(), false, 0, null, 50_000));
+        objectMapper.writeValue(legacyFile.toFile(), List.of(withTicket, user("U2", "bina@example.com")));
+        open();
+
+        UserShardStore reopened = open(); // As after a crash before tickets.json is written
+        assertEquals(List.of("TK1"), reopened.get("U1").getTickets().stream().map(Ticket::getId).toList());
+
+        User moved = reopened.get("U1");
+        moved.getTickets().clear();
+        reopened.put(moved).join();
+        assertTrue(open().get("U1").getTickets().isEmpty());
+        for (Path file : shardFiles()) assertFalse(Files.readString(file).contains("tickets")); // Empty lists are not written
+    }
+
+    @Test
+    public void readsOnlyTheShardsThatAreUsed() throws Exception {
+        saveUsers(open(), 50);
+
+        UserShardStore reopened = open();
+        assertEquals(50, reopened.getEmailIndex().size());
+        assertEquals(0, reopened.getLoadedShardCount());
+        assertNotNull(reopened.get(reopened.getEmailIndex().get("user7@example.com")));
+        assertEquals(1, reopened.getLoadedShardCount());
+    }
+
+    @Test
+    public void rewritesOnlyTheDirtyShard() throws Exception {
+        UserShardStore store = open();
+        saveUsers(store, 50);
+        List<Path> files = shardFiles();
+        assertTrue(files.size() > 1);
+        for (Path file : files) Files.setLastModifiedTime(file, LONG_AGO);
+
+        User user = store.get(store.getEmailIndex().get("user7@example.com"));
+        user.setPhoneNumber("9999999999");
+        store.put(user).join();
+
+        List<Path> rewritten = files.stream().filter(this::modifiedSinceLongAgo).toList();
+        assertEquals(1, rewritten.size());
+        assertEquals("9999999999", open().get(user.getId()).getPhoneNumber());
+    }
+
+    @Test
+    public void reopensWithTheShardCountInTheIndex() throws Exception {
+        System.setProperty("irctc.user.shards", "4");
+        UserShardStore store = open();
+        assertEquals(4, store.getShardCount());
+        saveUsers(store, 20);
+
+        System.clearProperty("irctc.user.shards"); // Default would be 16
+        UserShardStore reopened = open();
+        assertEquals(4, reopened.getShardCount());
+        assertEquals(20, reopened.loadAll().size());
+        for (int i = 0; i < 20; i++) {
+            assertNotNull(reopened.get(reopened.getEmailIndex().get("user" + i + "@example.com")));
+        }
+        assertTrue(shardFiles().size() <= 4);
+    }
+
+    // ------------------- Helper Methods -------------------
+
+    private UserShardStore open() throws Exception {
+        return UserShardStore.open(shards, legacyFile, legacyJournal, objectMapper, committer,
+                email -> email.trim().toLowerCase(Locale.ROOT));
+    }
+
+    /** Registers users the way LoginService does and waits until they are on disk. */
+    private static void saveUsers(UserShardStore store, int count) {
+        List<CompletableFuture<Void>> writes = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            User user = user("ID" + i, "user" + i + "@example.com");
+            store.getEmailIndex().put(user.getEmail(), user.getId());
+            writes.add(store.put(user));
+        }
+        writes.add(store.saveIndex());
+        writes.forEach(CompletableFuture::join);
+    }
+
+    private List<Path> shardFiles() throws Exception {
+        try (Stream<Path> files = Files.list(shards)) {
+            return files.filter(path -> path.getFileName().toString().startsWith("shard-")).sorted().toList();
+        }
+    }
+
+    private boolean modifiedSinceLongAgo(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).compareTo(LONG_AGO) > 0;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static User user(String id, String email) {
+        return new User(id, "Name " + id, email, "$2a$04$hash");
+    }
+}
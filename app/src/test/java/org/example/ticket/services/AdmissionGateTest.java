@@ -0,0 +1,171 @@
+package org.example.ticket.services;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+/**
+ * Drives the flash-sale gate on a manual clock: the waiter at the front only "sleeps" when the
+ * test lets it, and time moves only by what it slept or what the test adds.
+ */
+public class AdmissionGateTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    private final ManualClock clock = new ManualClock();
+
+    @Test
+    public void waitersAreAdmittedInArrivalOrder() throws Exception {
+        AdmissionGate gate = new AdmissionGate("T1", 1, 1, 100, clock);
+        assertTrue(gate.admit("T1", 10, TimeUnit.SECONDS)); // Uses up the only token
+
+        List<Thread> waiters = new ArrayList<>();
+        AtomicBoolean allAdmitted = new AtomicBoolean(true);
+        for (int i = 0; i < 5; i++) {
+            Thread waiter = new Thread(() -> {
+                try {
+                    if (!gate.admit("T1", 60, TimeUnit.SECONDS)) allAdmitted.set(false);
+                } catch (InterruptedException e) {
+                    allAdmitted.set(false);
+                }
+            }, "waiter-" + i);
+            waiter.start();
+            awaitParked(waiter); // The first sleeps at the front, the rest queue on the fair lock
+            waiters.add(waiter);
+        }
+        assertEquals(5, gate.getQueueLength("T1"));
+
+        clock.release();
+        for (Thread waiter : waiters) waiter.join(10_000);
+        assertTrue(allAdmitted.get());
+        assertEquals(List.of("waiter-0", "waiter-1", "waiter-2", "waiter-3", "waiter-4"), clock.sleepers());
+        assertEquals(6, gate.getAdmittedCount());
+    }
+
+    @Test
+    public void arrivalsBeyondMaxQueueAreTurnedAway() throws Exception {
+        AdmissionGate gate = new AdmissionGate("T1", 1, 1, 2, clock);
+        assertTrue(gate.admit("T1", 10, TimeUnit.SECONDS));
+        Thread front = startWaiter(gate);
+        Thread second = startWaiter(gate);
+
+        assertThrows(ServerBusyException.class, () -> gate.admit("T1", 10, TimeUnit.SECONDS));
+        assertEquals(1, gate.getRejectedCount());
+        assertEquals(2, gate.getQueueLength("T1"));
+        assertTrue(gate.admit("T2", 10, TimeUnit.SECONDS)); // Other trains are not gated
+
+        clock.release();
+        front.join(10_000);
+        second.join(10_000);
+        assertEquals(0, gate.getQueueLength("T1"));
+        assertEquals(3, gate.getAdmittedCount());
+    }
+
+    @Test
+    public void tokensRefillAtTheConfiguredRate() throws Exception {
+        clock.release();
+        AdmissionGate gate = new AdmissionGate("T1", 4, 2, 100, clock);
+
+        assertTrue(gate.admit("T1", 10, TimeUnit.SECONDS));
+        assertTrue(gate.admit("T1", 10, TimeUnit.SECONDS)); // A burst of two goes through at once
+        assertEquals(List.of(), clock.sleeps());
+
+        assertTrue(gate.admit("T1", 10, TimeUnit.SECONDS));
+        assertEquals(List.of(SECOND / 4), clock.sleeps()); // Next token after 1/rate seconds
+
+        clock.advance(10 * SECOND); // Refills up to the burst, not beyond
+        assertTrue(gate.admit("T1", 10, TimeUnit.SECONDS));
+        assertTrue(gate.admit("T1", 10, TimeUnit.SECONDS));
+        assertEquals(1, clock.sleeps().size());
+        assertTrue(gate.admit("T1", 10, TimeUnit.SECONDS));
+        assertEquals(List.of(SECOND / 4, SECOND / 4), clock.sleeps());
+    }
+
+    @Test
+    public void waitLongerThanTimeoutReturnsFalse() throws Exception {
+        AdmissionGate gate = new AdmissionGate("T1", 1, 1, 100, clock);
+        assertTrue(gate.admit("T1", 10, TimeUnit.SECONDS));
+
+        // Next token is a second away: refused without sleeping
+        assertFalse(gate.admit("T1", 500, TimeUnit.MILLISECONDS));
+        assertEquals(List.of(), clock.sleeps());
+
+        // Behind a waiter that holds the front spot: refused once the timeout passes
+        Thread front = startWaiter(gate);
+        assertFalse(gate.admit("T1", 50, TimeUnit.MILLISECONDS));
+        assertEquals(2, gate.getRejectedCount());
+
+        clock.release();
+        front.join(10_000);
+        assertEquals(2, gate.getAdmittedCount());
+    }
+
+    // ------------------- Helper Methods -------------------
+
+    private static Thread startWaiter(AdmissionGate gate) throws InterruptedException {
+        Thread waiter = new Thread(() -> {
+            try {
+                gate.admit("T1", 60, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        waiter.start();
+        awaitParked(waiter);
+        return waiter;
+    }
+
+    /** Waits until the thread blocks, in the clock's sleep or on the gate's lock. */
+    private static void awaitParked(Thread thread) throws InterruptedException {
+        for (int i = 0; i < 1_000; i++) {
+            Thread.State state = thread.getState();
+            if (state == Thread.State.WAITING || state == Thread.State.TIMED_WAITING) return;
+            Thread.sleep(5);
+        }
+        fail(thread.getName() + " never blocked");
+    }
+
+    /** Clock whose sleeps block until {@link #release()} and then move time by the amount slept. */
+    private static final class ManualClock implements AdmissionGate.Clock {
+        private final CountDownLatch released = new CountDownLatch(1);
+        private final List<String> sleepers = Collections.synchronizedList(new ArrayList<>());
+        private final List<Long> sleeps = Collections.synchronizedList(new ArrayList<>());
+        private long now;
+
+        @Override
+        public synchronized long nanoTime() {
+            return now;
+        }
+
+        @Override
+        public void sleepNanos(long nanos) throws InterruptedException {
+            sleepers.add(Thread.currentThread().getName());
+            released.await();
+            sleeps.add(nanos);
+            advance(nanos);
+        }
+
+        synchronized void advance(long nanos) {
+            now += nanos;
+        }
+
+        void release() {
+            released.countDown();
+        }
+
+        List<String> sleepers() {
+            return List.copyOf(sleepers);
+        }
+
+        List<Long> sleeps() {
+            return List.copyOf(sleeps);
+        }
+    }
+}
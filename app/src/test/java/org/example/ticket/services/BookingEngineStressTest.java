@@ -0,0 +1,183 @@
+package org.example.ticket.services;
+
+import org.example.ticket.entities.Coach;
+import org.example.ticket.entities.Passenger;
+import org.example.ticket.entities.SeatInventory;
+import org.example.ticket.entities.Train;
+import org.example.ticket.persistence.BookingEvent;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.example.ticket.TestFixtures.JOURNEY_DATE;
+import static org.example.ticket.TestFixtures.passengers;
+import static org.example.ticket.TestFixtures.train;
+import static org.junit.Assert.*;
+
+/**
+ * Hammers the booking engine from many threads and checks that no seat is ever
+ * handed out twice and that the inventories match the recorded events.
+ */
+public class BookingEngineStressTest {
+
+    private static final int THREADS = Math.max(8, Runtime.getRuntime().availableProcessors() * 2);
+
+    @Test
+    public void contendedCoachIsNeverOverbooked() throws Exception {
+        Train train = train("T1", 1, 72);
+        ConcurrentLinkedQueue<BookingEvent> events = new ConcurrentLinkedQueue<>();
+        BookingEngine engine = new BookingEngine(events::add);
+
+        Map<Integer, String> seatOwners = new ConcurrentHashMap<>();
+        AtomicInteger duplicates = new AtomicInteger();
+        AtomicInteger seated = new AtomicInteger();
+
+        runConcurrently(THREADS, threadId -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < 200; i++) {
+                List<Passenger> group = passengers(threadId + "-" + i, "S1", 1 + random.nextInt(4));
+                List<Integer> seats = engine.allocateSeats(train, "S1", JOURNEY_DATE, group);
+                for (int seat : seats) {
+                    if (seatOwners.putIfAbsent(seat, threadId + "-" + i) != null) duplicates.incrementAndGet();
+                }
+                seated.addAndGet(seats.size());
+            }
+        });
+
+        SeatInventory inventory = train.getCoach("S1").findInventory(JOURNEY_DATE);
+        assertEquals("seat allocated twice", 0, duplicates.get());
+        assertTrue("more passengers seated than seats", seated.get() <= 72);
+        assertEquals(seated.get(), inventory.getBookedCount());
+        assertEquals(seated.get(), events.size());
+        assertTrue("demand far exceeds supply, so the coach should be nearly full", inventory.getAvailableCount() < 4);
+    }
+
+    @Test
+    public void groupAllocationIsAllOrNothing() throws Exception {
+        Train train = train("T1", 1, 10);
+        BookingEngine engine = new BookingEngine(event -> { });
+        ConcurrentLinkedQueue<Integer> groupSizes = new ConcurrentLinkedQueue<>();
+
+        runConcurrently(THREADS, threadId -> {
+            List<Passenger> group = passengers("G" + threadId, "S1", 3);
+            List<Integer> seats = engine.allocateSeats(train, "S1", JOURNEY_DATE, group);
+            if (!seats.isEmpty()) groupSizes.add(seats.size());
+        });
+
+        groupSizes.forEach(size -> assertEquals("partial group allocation", 3, size.intValue()));
+        assertEquals(groupSizes.size() * 3, train.getCoach("S1").findInventory(JOURNEY_DATE).getBookedCount());
+        assertEquals(3, groupSizes.size()); // 10 seats fit three groups of three
+    }
+
+    @Test
+    public void bookAndCancelChurnKeepsInventoryConsistent() throws Exception {
+        List<Train> trains = new ArrayList<>();
+        for (int t = 0; t < 8; t++) trains.add(train("T" + t, 4, 64));
+        ConcurrentLinkedQueue<BookingEvent> events = new ConcurrentLinkedQueue<>();
+        BookingEngine engine = new BookingEngine(events::add);
+
+        runConcurrently(THREADS, threadId -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < 5_000; i++) {
+                Train train = trains.get(random.nextInt(trains.size()));
+                String coachId = "S" + (1 + random.nextInt(4));
+                int seat = 1 + random.nextInt(64);
+                if (random.nextBoolean()) {
+                    engine.bookSeat(train, coachId, JOURNEY_DATE, seat, new Passenger("P" + threadId, 30, coachId, seat));
+                } else {
+                    engine.cancelSeat(train, coachId, JOURNEY_DATE, seat);
+                }
+            }
+        });
+
+        // Replaying the recorded events in order must reproduce every inventory exactly
+        Map<String, Set<Integer>> replayed = new ConcurrentHashMap<>();
+        for (BookingEvent event : events) {
+            Set<Integer> seats = replayed.computeIfAbsent(event.getTrainId() + "/" + event.getCoachId(), k -> new HashSet<>());
+            if (event.getType() == BookingEvent.Type.BOOK) {
+                assertTrue("seat booked twice: " + event, seats.add(event.getSeatNumber()));
+            } else {
+                assertTrue("free seat cancelled: " + event, seats.remove(event.getSeatNumber()));
+            }
+        }
+        for (Train train : trains) {
+            for (Coach coach : train.getCoaches()) {
+                SeatInventory inventory = coach.findInventory(JOURNEY_DATE);
+                Set<String> expected = replayed.getOrDefault(train.getId() + "/" + coach.getId(), Set.of()).stream()
+                        .map(String::valueOf)
+                        .collect(Collectors.toSet());
+                assertEquals(expected, inventory == null ? Set.of() : inventory.toMap().keySet());
+            }
+            // The incrementally kept train and coach-type counters must match a full recount
+            int free = train.getCoaches().stream().mapToInt(c -> c.getAvailableSeats(JOURNEY_DATE)).sum();
+            assertEquals("train counter drifted", free, train.getAvailableSeats(JOURNEY_DATE));
+            assertEquals("coach-type counter drifted", free, train.getAvailableSeats(JOURNEY_DATE, "SL"));
+        }
+    }
+
+    @Test
+    public void ticketServiceAllocatesAcrossTrainsWithoutOverbooking() throws Exception {
+        List<Train> trains = new ArrayList<>();
+        for (int t = 0; t < 16; t++) trains.add(train(String.format("T%02d", t), 2, 50));
+        TicketService ticketService = new TicketService(trains);
+
+        runConcurrently(THREADS, threadId -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < 500; i++) {
+                Train train = ticketService.getTrainByNumber(String.format("T%02d", random.nextInt(16)));
+                String coachId = random.nextBoolean() ? "S1" : "s2"; // Coach IDs are case-insensitive
+                ticketService.allocateSeats(train, coachId, JOURNEY_DATE, passengers("P" + threadId, coachId, 2));
+            }
+        });
+
+        for (Train train : trains) {
+            for (Coach coach : train.getCoaches()) {
+                SeatInventory inventory = coach.findInventory(JOURNEY_DATE);
+                assertEquals("coach " + train.getId() + "/" + coach.getId() + " should be full", 50, inventory.getBookedCount());
+                Set<Passenger> distinct = new HashSet<>();
+                inventory.toMap().values().forEach(p -> assertTrue(distinct.add(p)));
+            }
+        }
+    }
+
+    // ------------------- Helper Methods -------------------
+
+    private interface Worker {
+        void run(int threadId) throws Exception;
+    }
+
+    /** Starts all workers at the same moment and rethrows the first failure. */
+    private static void runConcurrently(int threads, Worker worker) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int threadId = t;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    worker.run(threadId);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) future.get(60, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
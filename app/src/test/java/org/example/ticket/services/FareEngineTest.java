@@ -0,0 +1,45 @@
+package org.example.ticket.services;
+
+import org.example.ticket.entities.Coach;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks fares against hand-worked examples of the slab, concession and occupancy rules.
+ */
+public class FareEngineTest {
+
+    private final FareEngine fares = FareEngine.standard();
+    private final Coach sleeper = new Coach("S1", "T1", "Sleeper", 100, 500);
+
+    @Test
+    public void distanceFareTapersOverSlabs() {
+        // 500 km at 45 paise + 500 km at 85% + 384 km at 70% = 53,721 paise, up to ₹540, plus ₹20
+        assertEquals(56_000, fares.quote(sleeper, 1_384, 30, 0));
+        assertEquals(fares.quote(sleeper, 200, 30, 0), fares.quote(sleeper, 50, 30, 0)); // Minimum distance
+        assertEquals(fares.quote(sleeper, FareEngine.MAX_DISTANCE_KM, 30, 0), fares.quote(sleeper, 9_000, 30, 0));
+    }
+
+    @Test
+    public void concessionsApplyToTheDistanceFareOnly() {
+        assertEquals(29_000, fares.quote(sleeper, 1_384, 8, 0));   // Half of 53,721 up to ₹270, plus ₹20
+        assertEquals(34_500, fares.quote(sleeper, 1_384, 65, 0));  // 60% of it up to ₹325, plus ₹20
+    }
+
+    @Test
+    public void fareRisesWithOccupancy() {
+        assertEquals(56_000, fares.quote(sleeper, 1_384, 30, 59));
+        assertEquals(61_500, fares.quote(sleeper, 1_384, 30, 60));  // 10% dearer
+        assertEquals(83_000, fares.quote(sleeper, 1_384, 30, 100)); // 50% dearer
+    }
+
+    @Test
+    public void unknownCoachTypeIsChargedItsListedPrice() {
+        Coach vistadome = new Coach("V1", "T1", "Vistadome", 40, 750.5);
+        assertEquals(75_500, fares.quote(vistadome, 1_384, 30, 0));
+        assertEquals(fares.quote(sleeper, 1_384, 30, 0), fares.quote(new Coach("S2", "T1", "SLEEPER", 100, 1), 1_384, 30, 0));
+        assertEquals("₹755", FareEngine.format(75_500));
+        assertEquals("₹7.05", FareEngine.format(705));
+    }
+}
@@ -0,0 +1,115 @@
+package org.example.ticket.services;
+
+import org.example.ticket.entities.User;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that an email is owned by one user at a time, however sign-ups and email changes race.
+ */
+public class LoginServiceTest {
+
+    private LoginService loginService;
+
+    @Before
+    public void setUp() {
+        System.setProperty("irctc.bcrypt.cost", "4");
+        loginService = new LoginService(List.of());
+    }
+
+    @Test
+    public void concurrentSignUpsWithOneEmailHaveOneWinner() throws Exception {
+        int attempts = 16;
+        List<Callable<Object>> signUps = new ArrayList<>();
+        for (int i = 0; i < attempts; i++) {
+            String email = (i % 2 == 0 ? "Amit@Example.com" : " amit@example.com ");
+            String name = "Amit " + i;
+            signUps.add(() -> loginService.registerUser(email, name, "secret1"));
+        }
+
+        List<Object> results = runTogether(signUps);
+        List<User> winners = results.stream().filter(User.class::isInstance).map(User.class::cast).toList();
+        assertEquals(1, winners.size());
+        assertEquals(attempts - 1, results.stream().filter(IllegalArgumentException.class::isInstance).count());
+        assertEquals(winners.get(0).getId(), loginService.findUserByEmail("AMIT@example.com").getId());
+    }
+
+    @Test
+    public void emailChangeRacingSignUpHasOneWinner() throws Exception {
+        for (int round = 0; round < 20; round++) {
+            User bina = loginService.registerUser("bina" + round + "@example.com", "Bina", "secret1");
+            String contested = "shared" + round + "@example.com";
+
+            List<Object> results = runTogether(List.of(
+                    () -> loginService.changeEmail(bina, contested),
+                    () -> loginService.registerUser(contested, "Chetan", "secret1")));
+
+            User owner = loginService.findUserByEmail(contested);
+            if (results.get(0) instanceof IllegalArgumentException) {
+                // Lost the race: the user never showed the other user's email
+                assertEquals("bina" + round + "@example.com", bina.getEmail());
+                assertSame(bina, loginService.findUserByEmail(bina.getEmail()));
+                assertNotEquals(bina.getId(), owner.getId());
+            } else {
+                assertTrue(results.get(1) instanceof IllegalArgumentException);
+                assertEquals(contested, bina.getEmail());
+                assertEquals(bina.getId(), owner.getId());
+                assertNull(loginService.findUserByEmail("bina" + round + "@example.com"));
+            }
+        }
+    }
+
+    @Test
+    public void takenEmailLeavesUserUnchanged() {
+        User amit = loginService.registerUser("amit@example.com", "Amit", "secret1");
+        loginService.registerUser("bina@example.com", "Bina", "secret1");
+
+        assertThrows(IllegalArgumentException.class, () -> loginService.changeEmail(amit, "BINA@example.com"));
+        assertEquals("amit@example.com", amit.getEmail());
+        assertSame(amit, loginService.findUserByEmail("amit@example.com"));
+
+        loginService.changeEmail(amit, "Amit.K@example.com").join();
+        assertSame(amit, loginService.findUserByEmail("amit.k@example.com"));
+        assertNull(loginService.findUserByEmail("amit@example.com"));
+    }
+
+    // ------------------- Helper Methods -------------------
+
+    /** Starts all calls at once and returns each result, or the exception it threw, in order. */
+    private static List<Object> runTogether(List<Callable<Object>> calls) throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(calls.size());
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Object>> futures = new ArrayList<>();
+            for (Callable<Object> call : calls) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    return call.call();
+                }));
+            }
+            start.countDown();
+            List<Object> results = new ArrayList<>();
+            for (Future<Object> future : futures) {
+                try {
+                    results.add(future.get());
+                } catch (ExecutionException e) {
+                    results.add(e.getCause());
+                }
+            }
+            return results;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package org.example.ticket.services;
+
+import org.example.ticket.TestFixtures;
+import org.example.ticket.entities.Coach;
+import org.example.ticket.entities.Passenger;
+import org.example.ticket.entities.Ticket;
+import org.example.ticket.entities.Train;
+import org.example.ticket.entities.User;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that train and ticket pages cover every result exactly once, in the requested order.
+ */
+public class PaginationTest {
+
+    private static final LocalDate JOURNEY_DATE = LocalDate.now().plusDays(5);
+
+    private final User user = new User("U1", "Tester", "tester@example.com", "hash");
+    private TicketService ticketService;
+
+    @Before
+    public void setUp() {
+        List<Train> trains = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            // Distances, and so fares, repeat every five trains, so ties must be broken by train ID
+            trains.add(createTrain(String.format("T%03d", i), 300 + (i * 7) % 5 * 250, LocalTime.of(23 - i % 24, 0)));
+        }
+        ticketService = new TicketService(trains);
+    }
+
+    @Test
+    public void catalogueOrderPagesThroughEveryTrain() {
+        List<String> seen = collect(TrainSort.CATALOGUE, 10);
+        assertEquals(25, seen.size());
+        assertEquals(ticketService.searchTrains("").stream().map(Train::getId).toList(), seen);
+    }
+
+    @Test
+    public void catalogueCursorSeeksPastEarlierMatches() {
+        // Short queries read one posting list, longer ones verify their rarest trigram
+        for (String query : List.of("1", "t01", "express t01", "nothing")) {
+            List<String> expected = ticketService.searchTrains(query).stream().map(Train::getId).toList();
+            assertEquals(query, expected, collect(query, TrainSort.CATALOGUE, 2));
+        }
+
+        TrainIndex index = new TrainIndex(ticketService.getTrains());
+        assertEquals(List.of("T011", "T012"), index.stream("t01", 10).limit(2).map(Train::getId).toList());
+        assertEquals(0, index.stream("", 24).count());
+        assertEquals(0, index.stream("t0", Integer.MAX_VALUE).count());
+    }
+
+    @Test
+    public void sortedPagesFollowTheSortKey() {
+        List<String> byFare = collect(TrainSort.FARE, 7);
+        assertEquals(25, byFare.size());
+        FareEngine fares = ticketService.getFareEngine();
+        LocalDate today = LocalDate.now();
+        List<String> expected = ticketService.searchTrains("").stream()
+                .sorted(Comparator.comparingLong((Train train) -> fares.lowestFare(train, today)).thenComparing(Train::getId))
+                .map(Train::getId)
+                .toList();
+        assertEquals(expected, byFare);
+
+        List<String> byDeparture = collect(TrainSort.DEPARTURE, 10);
+        assertEquals("T023", byDeparture.get(0)); // Departs at 00:00
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void cursorOfAnotherSortIsRejected() {
+        Page<Train> page = ticketService.searchTrains("", TrainSort.FARE, null, 5);
+        ticketService.searchTrains("", TrainSort.DEPARTURE, page.nextCursor(), 5);
+    }
+
+    @Test
+    public void ticketHistoryPagesNewestFirst() {
+        Train train = ticketService.getTrainByNumber("T000");
+        List<String> booked = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            List<Passenger> passengers = List.of(new Passenger("Passenger " + i, 30, "S1", 0));
+            booked.add(BookingService.issueTicket(user, train, train.getCoach("S1"), JOURNEY_DATE, passengers,
+                    ticketService).getId());
+        }
+
+        Page<Ticket> first = ticketService.getBookedTickets(user, null, 5);
+        // A ticket booked after the first page does not shift the pages that follow
+        Ticket late = BookingService.issueTicket(user, train, train.getCoach("S1"), JOURNEY_DATE,
+                List.of(new Passenger("Late", 30, "S1", 0)), ticketService);
+
+        List<String> seen = new ArrayList<>(first.items().stream().map(Ticket::getId).toList());
+        Page<Ticket> page = first;
+        while (page.hasNext()) {
+            page = ticketService.getBookedTickets(user, page.nextCursor(), 5);
+            page.items().forEach(ticket -> seen.add(ticket.getId()));
+        }
+        Collections.reverse(booked);
+        assertEquals(booked, seen);
+        assertEquals(late.getId(), ticketService.getBookedTickets(user, null, 1).items().get(0).getId());
+    }
+
+    // ------------------- Helper Methods -------------------
+
+    private List<String> collect(TrainSort sort, int pageSize) {
+        return collect("", sort, pageSize);
+    }
+
+    private List<String> collect(String query, TrainSort sort, int pageSize) {
+        List<String> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            Page<Train> page = ticketService.searchTrains(query, sort, cursor, pageSize);
+            assertTrue(page.items().size() <= pageSize);
+            page.items().forEach(train -> ids.add(train.getId()));
+            cursor = page.nextCursor();
+        } while (cursor != null);
+        return ids;
+    }
+
+    private static Train createTrain(String id, int distanceKm, LocalTime departureTime) {
+        Train train = TestFixtures.train(id, List.of(new Coach("S1", id, "Sleeper", 72, 500)));
+        train.setDepartureTime(departureTime);
+        train.setDistanceKm(distanceKm);
+        return train;
+    }
+}
@@ -0,0 +1,59 @@
+package org.example.ticket.services;
+
+import org.example.ticket.entities.User;
+import org.junit.After;
+import org.junit.Test;
+import org.mindrot.jbcrypt.BCrypt;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that a full hashing queue turns work away instead of growing, and that a login with
+ * a hash of another cost upgrades it in the background.
+ */
+public class PasswordHasherTest {
+
+    @After
+    public void tearDown() {
+        System.clearProperty("irctc.bcrypt.cost");
+    }
+
+    @Test
+    public void fullQueueRejectsNewWork() {
+        try (PasswordHasher hasher = new PasswordHasher(10, 1, 1)) {
+            CompletableFuture<String> running = hasher.hash("first");   // Taken by the only thread
+            CompletableFuture<String> queued = hasher.hash("second");   // Fills the queue
+            CompletableFuture<String> rejected = hasher.hash("third");
+
+            CompletionException e = assertThrows(CompletionException.class, rejected::join);
+            assertTrue(e.getCause() instanceof RejectedExecutionException);
+            assertEquals(1, hasher.getRejected());
+            assertTrue(BCrypt.checkpw("first", running.join()));
+            assertTrue(BCrypt.checkpw("second", queued.join()));
+            assertTrue(hasher.metricsReport().contains("rejected=1"));
+        }
+    }
+
+    @Test
+    public void loginUpgradesHashMadeWithAnotherCost() throws Exception {
+        User user = new User("U1", "Amit", "amit@example.com", BCrypt.hashpw("secret1", BCrypt.gensalt(4)));
+        System.setProperty("irctc.bcrypt.cost", "5");
+        LoginService loginService = new LoginService(List.of(user));
+        PasswordHasher hasher = loginService.getPasswordHasher();
+        assertTrue(hasher.needsRehash(user.getPasswordHash()));
+
+        loginService.login("amit@example.com", "secret1");
+        for (int i = 0; i < 500 && hasher.getRehashes() == 0; i++) Thread.sleep(10); // Rehash runs off the login path
+
+        assertEquals(1, hasher.getRehashes());
+        assertFalse(hasher.needsRehash(user.getPasswordHash()));
+        assertTrue(user.getPasswordHash().startsWith("$2a$05$"));
+        assertSame(user, loginService.login("amit@example.com", "secret1"));
+        assertEquals(1, hasher.getRehashes());
+    }
+}
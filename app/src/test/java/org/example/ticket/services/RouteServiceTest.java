@@ -0,0 +1,75 @@
+package org.example.ticket.services;
+
+import org.example.ticket.entities.Stop;
+import org.example.ticket.entities.Train;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.DayOfWeek;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.example.ticket.TestFixtures.JOURNEY_DATE;
+import static org.example.ticket.TestFixtures.train;
+import static org.junit.Assert.*;
+
+/**
+ * Checks route lookups by stop pair and day, and that re-indexing a train drops its old routes.
+ */
+public class RouteServiceTest {
+
+    private StationService stations;
+    private RouteService routes;
+    private Train express;
+
+    @Before
+    public void setUp() {
+        stations = new StationService(List.of());
+        express = withStops(train("T1", List.of()), "NDLS", "KOTA", "BRC", "BCT");
+        routes = new RouteService(stations, List.of(express));
+    }
+
+    @Test
+    public void everyPairOfStopsInRunningOrderIsARoute() {
+        assertEquals(List.of(express), routes.findTrains("NDLS", "BCT", JOURNEY_DATE));
+        assertEquals(List.of(express), routes.findTrains("KOTA", "BRC", JOURNEY_DATE));
+        assertEquals(List.of(express), routes.findTrains("kota", " bct ")); // Codes are normalized
+        assertTrue(routes.findTrains("BCT", "NDLS", JOURNEY_DATE).isEmpty());
+        assertTrue(routes.findTrains("BRC", "KOTA").isEmpty());
+        assertEquals(List.of(express), routes.getDepartures("NDLS"));
+        assertEquals(List.of(express), routes.getArrivals("BCT"));
+        assertNotNull(stations.getStation("NDLS")); // Endpoints are registered
+    }
+
+    @Test
+    public void routesFollowRunningDays() {
+        Train weekly = withStops(train("T2", List.of()), "NDLS", "BRC");
+        weekly.setRunningDays(EnumSet.of(DayOfWeek.TUESDAY));
+        routes.index(weekly);
+
+        assertEquals(List.of(express), routes.findTrains("NDLS", "BRC", JOURNEY_DATE)); // A Monday
+        assertEquals(List.of(express, weekly), routes.findTrains("NDLS", "BRC", JOURNEY_DATE.plusDays(1)));
+        assertEquals(List.of(express, weekly), routes.findTrains("NDLS", "BRC"));
+    }
+
+    @Test
+    public void reindexingReplacesTheOldStops() {
+        Train rerouted = withStops(train("T1", List.of()), "NDLS", "AGC", "BCT");
+        routes.index(rerouted);
+
+        assertTrue(routes.findTrains("KOTA", "BRC", JOURNEY_DATE).isEmpty());
+        assertEquals(List.of(rerouted), routes.findTrains("AGC", "BCT", JOURNEY_DATE));
+        assertEquals(List.of(rerouted), routes.findTrains("NDLS", "BCT", JOURNEY_DATE));
+        assertEquals(List.of(rerouted), routes.getDepartures("NDLS"));
+    }
+
+    // ------------------- Helper Methods -------------------
+
+    private static Train withStops(Train train, String... codes) {
+        List<Stop> stops = new ArrayList<>();
+        for (int i = 0; i < codes.length; i++) stops.add(new Stop(codes[i], i * 100));
+        train.setStops(stops);
+        return train;
+    }
+}
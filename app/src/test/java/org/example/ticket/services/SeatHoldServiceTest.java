@@ -0,0 +1,74 @@
+package org.example.ticket.services;
+
+import org.example.ticket.entities.Passenger;
+import org.example.ticket.entities.Train;
+import org.example.ticket.services.SeatHoldService.SeatHold;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.example.ticket.TestFixtures.JOURNEY_DATE;
+import static org.example.ticket.TestFixtures.passengers;
+import static org.example.ticket.TestFixtures.train;
+import static org.junit.Assert.*;
+
+/**
+ * Checks that held seats are skipped by other bookings, come back when the hold expires,
+ * and can only be confirmed while the hold is live.
+ */
+public class SeatHoldServiceTest {
+
+    private Train train;
+    private TicketService ticketService;
+    private SeatHoldService holds;
+
+    @Before
+    public void setUp() {
+        train = train(4);
+        ticketService = new TicketService(List.of(train));
+        holds = new SeatHoldService(ticketService, Duration.ofMillis(200));
+    }
+
+    @After
+    public void tearDown() {
+        holds.close();
+    }
+
+    @Test
+    public void heldSeatsAreNotAvailableToOthers() {
+        SeatHold hold = holds.hold(train, "S1", JOURNEY_DATE, 3);
+        assertNotNull(hold);
+        assertEquals(1, train.getCoach("S1").getAvailableSeats(JOURNEY_DATE));
+        assertNull(holds.hold(train, "S1", JOURNEY_DATE, 2));
+
+        assertEquals(List.of(1, 2, 3), hold.getSeatNumbers());
+
+        // A direct booking while the hold is open gets the one seat nobody holds
+        List<Integer> other = ticketService.allocateSeats(train, "S1", JOURNEY_DATE, passengers(1));
+        assertEquals(List.of(4), other);
+
+        List<Passenger> passengers = passengers(3);
+        assertEquals(List.of(1, 2, 3), holds.confirm(hold, passengers));
+        assertEquals(0, train.getCoach("S1").getAvailableSeats(JOURNEY_DATE));
+        assertEquals(3, passengers.get(2).getSeatNumber());
+    }
+
+    @Test
+    public void expiredHoldGivesSeatsBackAndCannotBeConfirmed() throws Exception {
+        SeatHold hold = holds.hold(train, "S1", JOURNEY_DATE, 4);
+        assertEquals(0, train.getCoach("S1").getAvailableSeats(JOURNEY_DATE));
+
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (hold.getState() == SeatHoldService.State.HELD) {
+            if (System.nanoTime() > deadline) fail("Hold was not reaped");
+            Thread.sleep(10);
+        }
+        assertEquals(SeatHoldService.State.EXPIRED, hold.getState());
+        assertEquals(4, train.getCoach("S1").getAvailableSeats(JOURNEY_DATE));
+        assertTrue(holds.confirm(hold, passengers(4)).isEmpty());
+        assertEquals(1, holds.getExpiredCount());
+    }
+}
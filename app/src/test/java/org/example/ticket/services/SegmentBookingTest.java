@@ -0,0 +1,172 @@
+package org.example.ticket.services;
+
+import org.example.ticket.entities.Coach;
+import org.example.ticket.entities.Leg;
+import org.example.ticket.entities.Passenger;
+import org.example.ticket.entities.SeatInventory;
+import org.example.ticket.entities.Station;
+import org.example.ticket.entities.Stop;
+import org.example.ticket.entities.Train;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.DayOfWeek;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.example.ticket.TestFixtures.JOURNEY_DATE;
+import static org.junit.Assert.*;
+
+/**
+ * Checks that a seat is sold once per segment, that allocation packs legs into the tightest gap,
+ * and that partial bookings survive the JSON layout and a change of stops.
+ */
+public class SegmentBookingTest {
+
+    private Train train;
+    private TicketService ticketService;
+
+    @Before
+    public void setUp() {
+        train = createTrain(2);
+        ticketService = new TicketService(List.of(train));
+    }
+
+    @Test
+    public void seatIsSoldOncePerSegment() {
+        assertEquals(List.of(1), ticketService.allocateSeats(train, "S1", JOURNEY_DATE, passengers("AAA", "BBB", 1)));
+        // Seat 1 is free again from BBB, so the later leg fits behind the first one
+        assertEquals(List.of(1), ticketService.allocateSeats(train, "S1", JOURNEY_DATE, passengers("BBB", null, 1)));
+
+        Coach coach = train.getCoach("S1");
+        assertEquals(1, coach.getAvailableSeats(JOURNEY_DATE));
+        assertEquals(1, coach.getAvailableSeats(JOURNEY_DATE, train.leg("BBB", "CCC")));
+        assertTrue(ticketService.allocateSeats(train, "S1", JOURNEY_DATE, passengers("AAA", "CCC", 2)).isEmpty());
+
+        // Cancelling by boarding stop frees only that booking
+        assertTrue(ticketService.cancelSeat(train, "S1", JOURNEY_DATE, 1, "BBB"));
+        assertEquals(2, coach.getAvailableSeats(JOURNEY_DATE, train.leg("BBB", null)));
+        assertEquals(1, coach.getAvailableSeats(JOURNEY_DATE, train.leg(null, "BBB")));
+    }
+
+    @Test
+    public void allocationKeepsWholeRunSeatsFree() {
+        assertEquals(List.of(1), ticketService.allocateSeats(train, "S1", JOURNEY_DATE, passengers(null, "BBB", 1)));
+        // Seat 1 leaves a gap of one segment before CCC-DDD, seat 2 a gap of two
+        assertEquals(List.of(1), ticketService.allocateSeats(train, "S1", JOURNEY_DATE, passengers("CCC", null, 1)));
+        assertEquals(List.of(2), ticketService.allocateSeats(train, "S1", JOURNEY_DATE, passengers(null, null, 1)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void passengersBookedTogetherShareTheirStops() {
+        List<Passenger> passengers = passengers(null, null, 2);
+        passengers.get(1).travel("BBB", null);
+        ticketService.allocateSeats(train, "S1", JOURNEY_DATE, passengers);
+    }
+
+    @Test
+    public void partialBookingsSurviveJsonLayoutAndNewStops() {
+        SeatInventory inventory = new SeatInventory(10, 3);
+        inventory.book(5, new Passenger("Whole", 30, "S1", 5));
+        inventory.book(6, 1, 3, new Passenger("Tail", 30, "S1", 6));
+        inventory.book(7, 0, 2, new Passenger("Head", 30, "S1", 7));
+        assertEquals(List.of("5", "6@1", "7@0-2"), new ArrayList<>(inventory.toMap().keySet()));
+
+        SeatInventory loaded = new SeatInventory(10, 3);
+        loaded.load(inventory.toMap());
+        assertEquals(inventory.toMap(), loaded.toMap());
+
+        // A stop added before the terminus: bookings to the terminus still run to it
+        loaded.setSegmentCount(4);
+        assertFalse(loaded.isAvailable(6, 3, 4));
+        assertTrue(loaded.isAvailable(7, 2, 4));
+        assertEquals(List.of("5", "6@1", "7@0-2"), new ArrayList<>(loaded.toMap().keySet()));
+        assertEquals("Tail", loaded.toMap().get("6@1").getName());
+    }
+
+    @Test
+    public void holdIsReleasedOnlyForItsExactLeg() {
+        SeatInventory inventory = new SeatInventory(2, 3);
+        assertTrue(inventory.hold(1, 0, 3));
+        assertFalse(inventory.release(1, 0, 2));
+        assertFalse(inventory.release(1, 1, 3));
+        assertEquals(1, inventory.getHeldCount());
+        assertTrue(inventory.isHeld(1, 0, 3));
+
+        // Two holds back to back stay two holds
+        assertTrue(inventory.hold(2, 0, 1));
+        assertTrue(inventory.hold(2, 1, 3));
+        assertEquals(3, inventory.getHeldCount());
+        assertFalse(inventory.release(2, 0, 3));
+        assertTrue(inventory.release(2, 1, 3));
+        assertTrue(inventory.isAvailable(2, 1, 3));
+
+        inventory.hold(2, 1, 3);
+        inventory.resize(1); // Drops both holds of seat 2
+        assertEquals(1, inventory.getHeldCount());
+        assertTrue(inventory.release(1, 0, 3));
+        assertEquals(0, inventory.getHeldCount());
+        assertEquals(0, inventory.getOccupiedCount());
+    }
+
+    @Test
+    public void bestFitMatchesExhaustiveSearch() {
+        int segments = 20;
+        int seats = 1_000;
+        Random random = new Random(42);
+        SeatInventory inventory = new SeatInventory(seats, segments);
+        for (int i = 0; i < 8_000; i++) {
+            int from = random.nextInt(segments);
+            int to = from + 1 + random.nextInt(Math.min(4, segments - from));
+            inventory.book(1 + random.nextInt(seats), from, to, null);
+        }
+
+        for (int i = 0; i < 200; i++) {
+            int from = random.nextInt(segments);
+            int to = from + 1 + random.nextInt(segments - from);
+            assertEquals("leg " + from + "-" + to, exhaustiveBestFit(inventory, new Leg(from, to)), inventory.bestFit(from, to));
+        }
+    }
+
+    // ------------------- Helper Methods -------------------
+
+    /** Seat with the fewest free segments around the leg, lowest first, checked seat by seat. */
+    private static int exhaustiveBestFit(SeatInventory inventory, Leg leg) {
+        int best = -1;
+        int bestSlack = Integer.MAX_VALUE;
+        for (int seat = 1; seat <= inventory.getCapacity(); seat++) {
+            if (!inventory.isAvailable(seat, leg.from(), leg.to())) continue;
+            int slack = 0;
+            for (int s = leg.from() - 1; s >= 0 && inventory.isAvailable(seat, s, s + 1); s--) slack++;
+            for (int s = leg.to(); s < inventory.getSegmentCount() && inventory.isAvailable(seat, s, s + 1); s++) slack++;
+            if (slack < bestSlack) {
+                bestSlack = slack;
+                best = seat;
+            }
+        }
+        return best;
+    }
+
+    private static List<Passenger> passengers(String from, String to, int count) {
+        List<Passenger> passengers = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Passenger passenger = new Passenger("Passenger " + i, 30, "S1", 0);
+            passenger.travel(from, to);
+            passengers.add(passenger);
+        }
+        return passengers;
+    }
+
+    private static Train createTrain(int seats) {
+        Station source = new Station("AAA", "Alpha", "Alpha", "State", 4);
+        Station destination = new Station("DDD", "Delta", "Delta", "State", 4);
+        Train train = new Train("T1", "Stopping Express", source, destination,
+                new ArrayList<>(List.of(new Coach("S1", "T1", "Sleeper", seats, 500))), EnumSet.of(DayOfWeek.MONDAY));
+        train.setStops(new ArrayList<>(List.of(new Stop("AAA", 0), new Stop("BBB", 120), new Stop("CCC", 250),
+                new Stop("DDD", 400))));
+        train.setDistanceKm(400);
+        return train;
+    }
+}
@@ -0,0 +1,124 @@
+package org.example.ticket.services;
+
+import org.example.ticket.entities.Ticket;
+import org.example.ticket.persistence.GroupCommitter;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that saved tickets come back from the journal, that compaction folds them into the
+ * snapshot, and that saves racing a compaction are not lost in the journal reset.
+ */
+public class TicketRepositoryTest {
+
+    private static final LocalDate DATE = LocalDate.now().plusDays(3);
+
+    private Path directory;
+    private Path snapshot;
+    private Path journal;
+    private GroupCommitter committer;
+
+    @Before
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory("tickets");
+        snapshot = directory.resolve("tickets.json");
+        journal = directory.resolve("tickets.journal");
+        committer = new GroupCommitter(5, 64);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        committer.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) Files.deleteIfExists(path);
+        }
+    }
+
+    @Test
+    public void savedTicketsAreReplayedFromTheJournal() {
+        TicketRepository repository = open();
+        repository.save(ticket("PNR1", "U1", false));
+        repository.save(ticket("PNR2", "U1", false));
+        repository.save(ticket("PNR1", "U1", true)).join(); // A change to a ticket replays over the first save
+
+        TicketRepository reopened = open();
+        assertFalse(Files.exists(snapshot));
+        assertEquals(2, reopened.size());
+        assertTrue(reopened.findById("PNR1").isHasCancelled());
+        assertEquals(List.of("PNR1", "PNR2"), reopened.findByBooker("U1").stream().map(Ticket::getId).toList());
+    }
+
+    @Test
+    public void journalIsCompactedIntoSnapshot() throws Exception {
+        TicketRepository repository = open();
+        CompletableFuture<Void> durable = null;
+        for (int i = 0; i < TicketRepository.COMPACTION_THRESHOLD; i++) durable = repository.save(ticket("PNR" + i, "U1", false));
+        durable.join(); // The journal is full once the writer has appended every save
+        repository.save(ticket("LAST", "U2", false)).join();
+
+        assertTrue(Files.exists(snapshot));
+        assertEquals(1, Files.readAllLines(journal).size()); // Only the save after the compaction
+
+        repository.compact();
+        assertEquals(0, Files.size(journal));
+        assertEquals(TicketRepository.COMPACTION_THRESHOLD + 1, open().size());
+    }
+
+    @Test
+    public void savesDuringCompactionSurviveTheReset() throws Exception {
+        TicketRepository repository = open();
+        int threads = 4;
+        int perThread = 500;
+        AtomicBoolean saving = new AtomicBoolean(true);
+        ExecutorService pool = Executors.newFixedThreadPool(threads + 1);
+        try {
+            Future<?> compactor = pool.submit(() -> {
+                while (saving.get()) repository.compact();
+            });
+            List<Future<List<CompletableFuture<Void>>>> savers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                String booker = "U" + t;
+                savers.add(pool.submit(() -> {
+                    List<CompletableFuture<Void>> durable = new ArrayList<>();
+                    for (int i = 0; i < perThread; i++) durable.add(repository.save(ticket(booker + "-" + i, booker, false)));
+                    return durable;
+                }));
+            }
+            for (Future<List<CompletableFuture<Void>>> saver : savers) saver.get().forEach(CompletableFuture::join);
+            saving.set(false);
+            compactor.get();
+        } finally {
+            pool.shutdownNow();
+        }
+
+        // Every save reported durable must be in the snapshot or the journal
+        assertEquals(threads * perThread, open().size());
+    }
+
+    // ------------------- Helper Methods -------------------
+
+    private TicketRepository open() {
+        return new TicketRepository(committer, snapshot, journal);
+    }
+
+    private static Ticket ticket(String id, String bookerId, boolean cancelled) {
+        return new Ticket(id, "T1", bookerId, "1234", 500, 1, DATE, cancelled, Map.of(), false, 0, null, 50_000);
+    }
+}
@@ -0,0 +1,100 @@
+package org.example.ticket.services;
+
+import org.example.ticket.entities.Train;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.example.ticket.TestFixtures.train;
+import static org.junit.Assert.*;
+
+/**
+ * Checks which postings a search looks at, that matches never span a train's name and ID,
+ * that renames move postings, and that searches can resume after a catalogue slot.
+ */
+public class TrainIndexTest {
+
+    @Test
+    public void shortQueryReadsOnlyItsOwnPosting() {
+        TrainIndex index = new TrainIndex(List.of(named("12951", "Rajdhani Express"),
+                named("12002", "Shatabdi Express"), named("12259", "Duronto")));
+
+        assertEquals(List.of("12951", "12002"), ids(index.search("ex")));
+        assertEquals(2, index.candidateCount("ex"));
+        assertEquals(List.of("12951"), ids(index.search("RAJ"))); // Case-insensitive
+        assertEquals(1, index.candidateCount("raj"));
+        assertEquals(List.of("12951"), ids(index.search("129")));
+        assertEquals(0, index.candidateCount("xyz"));
+    }
+
+    @Test
+    public void longQueryVerifiesOnlyTheRarestTrigram() {
+        List<Train> trains = new ArrayList<>();
+        trains.add(named("A", "abc-bcd"));   // Has both trigrams of "abcd", but apart
+        trains.add(named("B", "abcd"));
+        for (int i = 0; i < 10; i++) trains.add(named("C" + i, "bcd " + i));
+        TrainIndex index = new TrainIndex(trains);
+
+        assertEquals(2, index.candidateCount("abcd")); // Slots of "abc", not the 12 of "bcd"
+        assertEquals(List.of("B"), ids(index.search("abcd")));
+        assertEquals(0, index.candidateCount("abcz"));
+        assertTrue(index.search("abcz").isEmpty());
+    }
+
+    @Test
+    public void matchesNeverSpanNameAndId() {
+        TrainIndex index = new TrainIndex(List.of(named("12951", "Rajdhani")));
+
+        assertEquals(List.of("12951"), ids(index.search("dhani")));
+        assertEquals(List.of("12951"), ids(index.search("12951")));
+        assertTrue(index.search("i1").isEmpty());
+        assertTrue(index.search("ni12").isEmpty());
+        assertTrue(index.search("rajdhani12951").isEmpty());
+    }
+
+    @Test
+    public void renameMovesPostingsAndKeepsTheSlot() {
+        TrainIndex index = new TrainIndex(List.of(named("12951", "Rajdhani"), named("12002", "Shatabdi")));
+
+        index.put(named("12951", "Vande Bharat"));
+        assertEquals(0, index.slotOf("12951"));
+        assertEquals(2, index.size());
+        assertTrue(index.search("rajdhani").isEmpty());
+        assertEquals(0, index.candidateCount("raj")); // Emptied postings are dropped
+        assertEquals(List.of("12951"), ids(index.search("vande")));
+        assertEquals(List.of("12951", "12002"), ids(index.search("a"))); // Catalogue order kept
+    }
+
+    @Test
+    public void streamSeeksPastTheGivenSlot() {
+        List<Train> trains = new ArrayList<>();
+        for (int i = 0; i < 10; i++) trains.add(train("T" + i, List.of()));
+        TrainIndex index = new TrainIndex(trains);
+
+        assertEquals(List.of("T5", "T6", "T7", "T8", "T9"), ids(index.stream("express", 4)));
+        assertEquals(List.of("T8", "T9"), ids(index.stream("", 7)));
+        assertEquals(List.of("T3"), ids(index.stream("t3", 2)));
+        assertTrue(ids(index.stream("t3", 3)).isEmpty());
+        assertTrue(ids(index.stream("express", 9)).isEmpty());
+        assertTrue(ids(index.stream("express", 50)).isEmpty());
+        assertEquals(10, ids(index.stream("express", -5)).size());
+    }
+
+    // ------------------- Helper Methods -------------------
+
+    private static Train named(String id, String name) {
+        Train train = train(id, List.of());
+        train.setName(name);
+        return train;
+    }
+
+    private static List<String> ids(List<Train> trains) {
+        return ids(trains.stream());
+    }
+
+    private static List<String> ids(Stream<Train> trains) {
+        return trains.map(Train::getId).toList();
+    }
+}
@@ -0,0 +1,142 @@
+package org.example.ticket.services;
+
+import org.example.ticket.entities.Coach;
+import org.example.ticket.entities.Passenger;
+import org.example.ticket.entities.Ticket;
+import org.example.ticket.entities.Train;
+import org.example.ticket.entities.User;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.example.ticket.TestFixtures.JOURNEY_DATE;
+import static org.example.ticket.TestFixtures.passengers;
+import static org.example.ticket.TestFixtures.train;
+import static org.junit.Assert.*;
+
+/**
+ * Checks that cancellations promote waitlisted tickets in queue order, one whole ticket
+ * per coach, and that long waitlists stay cheap.
+ */
+public class WaitlistServiceTest {
+
+    private final User user = new User("U1", "Tester", "tester@example.com", "hash");
+    private Train train;
+    private TicketService ticketService;
+
+    @Before
+    public void setUp() {
+        train = train(2);
+        ticketService = new TicketService(List.of(train));
+    }
+
+    @Test
+    public void cancellationPromotesHeadOfQueue() throws Exception {
+        Ticket first = book(1);
+        Ticket second = book(1);
+        Ticket waiting = waitlist(1);
+        assertTrue(waiting.isWaitlisted());
+        assertEquals(1, ticketService.getWaitlistService().getLength("T1", "SL", JOURNEY_DATE));
+
+        cancel(first);
+        awaitTrue(() -> !waiting.isWaitlisted());
+
+        Passenger seated = waiting.getPassengersSafe().values().iterator().next();
+        assertEquals("S1", seated.getCoach());
+        assertTrue(seated.getSeatNumber() > 0);
+        assertEquals(0, train.getCoach("S1").getAvailableSeats(JOURNEY_DATE));
+        assertFalse(second.isHasCancelled());
+    }
+
+    @Test
+    public void joiningReportsPositionInQueue() {
+        book(2);
+        Coach coach = train.getCoach("S1");
+        for (int position = 1; position <= 3; position++) {
+            BookingService.WaitlistedTicket waitlisted = BookingService.issueWaitlistedTicket(user, train, coach,
+                    JOURNEY_DATE, passengers(1), ticketService);
+            assertEquals(position, waitlisted.position());
+        }
+    }
+
+    @Test
+    public void groupThatDoesNotFitBlocksLaterTickets() throws Exception {
+        Ticket first = book(1);
+        book(1);
+        Ticket group = waitlist(2);
+        Ticket single = waitlist(1);
+
+        cancel(first); // One seat free: the group at the head does not fit, so nobody moves
+        Thread.sleep(200);
+        assertTrue(group.isWaitlisted());
+        assertTrue(single.isWaitlisted());
+        assertEquals(1, train.getCoach("S1").getAvailableSeats(JOURNEY_DATE));
+    }
+
+    @Test
+    public void cancelledWaitlistEntriesAreSkipped() throws Exception {
+        Ticket first = book(1);
+        book(1);
+        Ticket dropped = waitlist(1);
+        Ticket next = waitlist(1);
+
+        synchronized (dropped) {
+            dropped.cancelTicket();
+        }
+        cancel(first);
+        awaitTrue(() -> !next.isWaitlisted());
+        assertTrue(dropped.isWaitlisted());
+        assertTrue(dropped.isHasCancelled());
+    }
+
+    @Test
+    public void longWaitlistPromotesInOrder() throws Exception {
+        train = train(100);
+        ticketService = new TicketService(List.of(train));
+        List<Ticket> confirmed = new ArrayList<>();
+        for (int i = 0; i < 100; i++) confirmed.add(book(1));
+        List<Ticket> waiting = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) waiting.add(waitlist(1));
+
+        for (Ticket ticket : confirmed) cancel(ticket);
+        awaitTrue(() -> !waiting.get(99).isWaitlisted());
+
+        for (int i = 0; i < 100; i++) assertFalse("ticket " + i + " should be seated", waiting.get(i).isWaitlisted());
+        assertTrue(waiting.get(100).isWaitlisted());
+        assertEquals(0, train.getCoach("S1").getAvailableSeats(JOURNEY_DATE));
+    }
+
+    // ------------------- Helper Methods -------------------
+
+    private Ticket book(int passengerCount) {
+        Coach coach = train.getCoach("S1");
+        return BookingService.issueTicket(user, train, coach, JOURNEY_DATE, passengers(passengerCount), ticketService);
+    }
+
+    private Ticket waitlist(int passengerCount) {
+        Coach coach = train.getCoach("S1");
+        return BookingService.issueWaitlistedTicket(user, train, coach, JOURNEY_DATE, passengers(passengerCount), ticketService).ticket();
+    }
+
+    /** What BookingService.cancelTicket does once the security number is verified. */
+    private void cancel(Ticket ticket) {
+        synchronized (ticket) {
+            for (Passenger passenger : ticket.getPassengersSafe().values()) {
+                ticketService.cancelSeat(train, passenger.getCoach(), JOURNEY_DATE, passenger.getSeatNumber());
+            }
+            ticket.cancelTicket();
+        }
+        ticketService.getWaitlistService().seatsFreed(train.getId(), "SL", JOURNEY_DATE);
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) fail("Timed out waiting for promotion");
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package org.example.ticket.utils;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that IDs stay unique and ordered under contention and that nodes never collide.
+ */
+public class IdGeneratorTest {
+
+    private static final int THREADS = Math.max(8, Runtime.getRuntime().availableProcessors() * 2);
+    private static final int IDS_PER_THREAD = 50_000;
+
+    @Test
+    public void concurrentIdsAreUnique() throws Exception {
+        IdGenerator generator = new IdGenerator(7);
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(pool.submit(() -> {
+                    long previous = Long.MIN_VALUE;
+                    for (int i = 0; i < IDS_PER_THREAD; i++) {
+                        long id = generator.nextId();
+                        assertTrue("IDs from one thread must increase", id > previous);
+                        previous = id;
+                        ids.add(id);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) future.get();
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(THREADS * IDS_PER_THREAD, ids.size());
+    }
+
+    @Test
+    public void nodesProduceDisjointIds() {
+        IdGenerator first = new IdGenerator(1);
+        IdGenerator second = new IdGenerator(2);
+        Set<Long> ids = new HashSet<>();
+        for (int i = 0; i < 100_000; i++) {
+            assertTrue(ids.add(first.nextId()));
+            assertTrue(ids.add(second.nextId()));
+        }
+    }
+
+    @Test
+    public void idCarriesNodeAndTimestamp() {
+        long before = System.currentTimeMillis();
+        long id = new IdGenerator(IdGenerator.MAX_NODE_ID).nextId();
+        assertEquals(IdGenerator.MAX_NODE_ID, IdGenerator.nodeOf(id));
+        assertTrue(IdGenerator.timestampOf(id).toEpochMilli() >= before);
+    }
+
+    @Test
+    public void usedUpSequenceMovesTimestampAheadOnAFrozenClock() {
+        long frozen = System.currentTimeMillis();
+        IdGenerator generator = new IdGenerator(3, () -> frozen);
+        long previous = Long.MIN_VALUE;
+        for (int i = 0; i < 3 * 4096; i++) { // Would spin forever if it waited for the clock
+            long id = generator.nextId();
+            assertTrue(id > previous);
+            previous = id;
+        }
+        assertEquals(frozen + 2, IdGenerator.timestampOf(previous).toEpochMilli());
+        assertEquals(3, IdGenerator.nodeOf(previous));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsOutOfRangeNode() {
+        new IdGenerator(IdGenerator.MAX_NODE_ID + 1);
+    }
+
+    @Test
+    public void tokensUseReadableAlphabet() {
+        for (int i = 0; i < 1_000; i++) {
+            String token = SecureTokenGenerator.nextToken();
+            assertEquals(SecureTokenGenerator.DEFAULT_LENGTH, token.length());
+            assertTrue(token, token.matches("[0-9A-HJKMNP-TV-Z]+"));
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package org.example.ticket.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares two JMH JSON result files and prints the score change of every benchmark.
+ * <p>
+ * Usage: {@code BaselineDiff <baseline.json> <current.json> [thresholdPercent]}. Changes beyond
+ * the threshold (default 10%) are marked, and the exit code is 1 if any benchmark got worse by more.
+ */
+public final class BaselineDiff {
+
+    private BaselineDiff() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: BaselineDiff <baseline.json> <current.json> [thresholdPercent]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 10.0;
+        Map<String, JsonNode> baseline = read(new File(args[0]));
+        Map<String, JsonNode> current = read(new File(args[1]));
+
+        boolean regressed = false;
+        System.out.printf("%-90s %14s %14s %9s%n", "Benchmark", "Baseline", "Current", "Change");
+        for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+            JsonNode now = entry.getValue();
+            JsonNode before = baseline.get(entry.getKey());
+            double score = now.path("primaryMetric").path("score").asDouble();
+            String unit = now.path("primaryMetric").path("scoreUnit").asText();
+            if (before == null) {
+                System.out.printf("%-90s %14s %14.3f %9s  %s%n", entry.getKey(), "-", score, "new", unit);
+                continue;
+            }
+
+            double baseScore = before.path("primaryMetric").path("score").asDouble();
+            double change = baseScore == 0 ? 0 : (score - baseScore) / baseScore * 100;
+            boolean higherIsBetter = "thrpt".equals(now.path("mode").asText());
+            boolean worse = higherIsBetter ? change < -threshold : change > threshold;
+            boolean better = higherIsBetter ? change > threshold : change < -threshold;
+            regressed |= worse;
+
+            System.out.printf("%-90s %14.3f %14.3f %+8.1f%%  %s%s%n", entry.getKey(), baseScore, score, change, unit,
+                    worse ? "  REGRESSION" : better ? "  improved" : "");
+        }
+        for (String missing : baseline.keySet()) {
+            if (!current.containsKey(missing)) System.out.printf("%-90s %14s%n", missing, "removed");
+        }
+        System.exit(regressed ? 1 : 0);
+    }
+
+    /** Reads results keyed by benchmark name plus its parameters, e.g. "...indexedSearch{query=raj, trainCount=10}". */
+    private static Map<String, JsonNode> read(File file) throws IOException {
+        Map<String, JsonNode> results = new LinkedHashMap<>();
+        for (JsonNode result : new ObjectMapper().readTree(file)) {
+            Map<String, String> params = new TreeMap<>();
+            Iterator<Map.Entry<String, JsonNode>> fields = result.path("params").fields();
+            fields.forEachRemaining(field -> params.put(field.getKey(), field.getValue().asText()));
+            String name = result.path("benchmark").asText().replace("org.example.ticket.benchmarks.", "");
+            results.put(params.isEmpty() ? name : name + params, result);
+        }
+        return results;
+    }
+}
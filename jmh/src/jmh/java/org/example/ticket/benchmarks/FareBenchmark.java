@@ -0,0 +1,53 @@
+package org.example.ticket.benchmarks;
+
+import org.example.ticket.entities.Coach;
+import org.example.ticket.entities.Train;
+import org.example.ticket.services.FareEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fare quotes as a search listing needs them: one passenger quote, and the lowest fare of each
+ * train in a page of results. Coaches are half booked, so occupancy pricing is looked up.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class FareBenchmark {
+
+    private static final int TRAINS = 10;
+
+    private final FareEngine fares = FareEngine.standard();
+    private List<Train> trains;
+    private Coach coach;
+    private int age;
+
+    @Setup
+    public void setUp() {
+        trains = SyntheticData.trains(TRAINS, 4, 72, 50);
+        coach = trains.get(0).getCoaches().get(0);
+    }
+
+    @Benchmark
+    public long quotePassenger() {
+        age = (age + 7) % 90; // Walks the child, adult and senior rates
+        return fares.quote(coach, 1_384, age, 36);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TRAINS)
+    public long lowestFarePerTrain() {
+        long sum = 0;
+        for (Train train : trains) sum += fares.lowestFare(train, SyntheticData.JOURNEY_DATE);
+        return sum;
+    }
+}
@@ -0,0 +1,53 @@
+package org.example.ticket.benchmarks;
+
+import org.example.ticket.utils.IdGenerator;
+import org.example.ticket.utils.SecureTokenGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ID and security-token throughput against the old UUID-substring approach.
+ * The {@code contended} variants share one generator across four threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class IdGenerationBenchmark {
+
+    private final IdGenerator generator = new IdGenerator(1);
+
+    @Benchmark
+    public long nextId() {
+        return generator.nextId();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long nextIdContended() {
+        return generator.nextId();
+    }
+
+    @Benchmark
+    public String nextIdString() {
+        return generator.nextIdString();
+    }
+
+    @Benchmark
+    public String secureToken() {
+        return SecureTokenGenerator.nextToken();
+    }
+
+    /** What ticket and user IDs used before. */
+    @Benchmark
+    public String uuidSubstring() {
+        return UUID.randomUUID().toString().substring(0, 4).toUpperCase();
+    }
+}
@@ -0,0 +1,56 @@
+package org.example.ticket.benchmarks;
+
+import org.example.ticket.entities.User;
+import org.example.ticket.services.LoginService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Login cost by user count. The bcrypt cost is kept at the minimum so the user lookup
+ * is visible; {@code login} at a realistic cost is dominated by bcrypt alone.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LoginBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    int userCount;
+
+    @Param({"4"})
+    int bcryptCost;
+
+    private LoginService loginService;
+
+    @Setup
+    public void setUp() {
+        System.setProperty("irctc.bcrypt.cost", String.valueOf(bcryptCost)); // Otherwise every login re-hashes
+        loginService = new LoginService(SyntheticData.users(userCount, 0, bcryptCost));
+    }
+
+    @Benchmark
+    public boolean isAlreadyRegistered() {
+        return loginService.isAlreadyRegistered(randomEmail());
+    }
+
+    /** What AppMenu does on login: the registration check, then the login itself. */
+    @Benchmark
+    public User login() throws Exception {
+        String email = randomEmail();
+        loginService.isAlreadyRegistered(email);
+        return loginService.login(email, SyntheticData.PASSWORD);
+    }
+
+    private String randomEmail() {
+        return SyntheticData.email(ThreadLocalRandom.current().nextInt(userCount));
+    }
+}
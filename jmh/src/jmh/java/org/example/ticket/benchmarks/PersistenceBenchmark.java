@@ -0,0 +1,138 @@
+package org.example.ticket.benchmarks;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.example.ticket.entities.Train;
+import org.example.ticket.entities.User;
+import org.example.ticket.persistence.SnapshotFiles;
+import org.example.ticket.persistence.SnapshotFormat;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson load and save of the trains.json and users.json snapshots, configured like the services,
+ * in each {@link SnapshotFormat}. {@code readTrainsSnapshot} reads the file from disk the way
+ * startup does.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PersistenceBenchmark {
+
+    private static final TypeReference<List<Train>> TRAIN_LIST = new TypeReference<>() {};
+    private static final TypeReference<List<User>> USER_LIST = new TypeReference<>() {};
+
+    @State(Scope.Benchmark)
+    public static class Trains {
+        @Param({"100", "1000"})
+        int trainCount;
+
+        @Param({"10", "90"})
+        int occupancyPercent;
+
+        @Param({"JSON", "SMILE"})
+        SnapshotFormat format;
+
+        ObjectMapper jsonMapper;
+        ObjectMapper objectMapper; // Mapper of the benchmarked format
+        List<Train> trains;
+        byte[] encoded;
+        Path directory;
+        Path snapshot;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            jsonMapper = createObjectMapper();
+            objectMapper = format.mapper(jsonMapper);
+            trains = SyntheticData.trains(trainCount, 8, 72, occupancyPercent);
+            encoded = objectMapper.writeValueAsBytes(trains);
+            directory = Files.createTempDirectory("jmh-trains");
+            snapshot = format.resolve(directory.resolve("trains.json"));
+            SnapshotFiles.writeAtomically(snapshot, objectMapper, trains);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            Files.deleteIfExists(directory.resolve("trains.json"));
+            Files.deleteIfExists(directory.resolve("trains.smile"));
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Users {
+        @Param({"1000", "10000"})
+        int userCount;
+
+        @Param({"5"})
+        int ticketsPerUser;
+
+        @Param({"JSON", "SMILE"})
+        SnapshotFormat format;
+
+        ObjectMapper objectMapper;
+        List<User> users;
+        byte[] encoded;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            objectMapper = format.mapper(createObjectMapper());
+            users = SyntheticData.users(userCount, ticketsPerUser, 4);
+            encoded = objectMapper.writeValueAsBytes(users);
+        }
+    }
+
+    @Benchmark
+    public List<Train> loadTrains(Trains state) throws IOException {
+        return state.objectMapper.readValue(state.encoded, TRAIN_LIST);
+    }
+
+    /** What TicketService does at startup: read the snapshot file, memory-mapped for Smile. */
+    @Benchmark
+    public List<Train> readTrainsSnapshot(Trains state) throws IOException {
+        return SnapshotFiles.read(state.snapshot, state.jsonMapper, TRAIN_LIST);
+    }
+
+    @Benchmark
+    public byte[] serializeTrains(Trains state) throws IOException {
+        return state.objectMapper.writeValueAsBytes(state.trains);
+    }
+
+    /** The full snapshot write TicketService does on compaction: encode, fsync, rename. */
+    @Benchmark
+    public void saveTrainsSnapshot(Trains state) throws IOException {
+        SnapshotFiles.writeAtomically(state.snapshot, state.objectMapper, state.trains);
+    }
+
+    @Benchmark
+    public List<User> loadUsers(Users state) throws IOException {
+        return state.objectMapper.readValue(state.encoded, USER_LIST);
+    }
+
+    @Benchmark
+    public byte[] serializeUsers(Users state) throws IOException {
+        return state.objectMapper.writeValueAsBytes(state.users);
+    }
+
+    private static ObjectMapper createObjectMapper() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        return objectMapper;
+    }
+}
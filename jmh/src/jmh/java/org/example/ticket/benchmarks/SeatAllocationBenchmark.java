@@ -0,0 +1,72 @@
+package org.example.ticket.benchmarks;
+
+import org.example.ticket.entities.Coach;
+import org.example.ticket.entities.Passenger;
+import org.example.ticket.entities.Train;
+import org.example.ticket.services.TicketService;
+import org.example.ticket.utils.SeatUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Seat lookup and allocation by coach size and occupancy. Allocations are cancelled again
+ * in the same operation so the occupancy stays at the configured level.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SeatAllocationBenchmark {
+
+    private static final int TRAINS = 64;
+
+    @Param({"72", "256", "1024"})
+    int seatsPerCoach;
+
+    @Param({"0", "50", "90", "99"})
+    int occupancyPercent;
+
+    private List<Train> trains;
+    private Coach coach;
+    private TicketService ticketService;
+
+    @Setup
+    public void setUp() {
+        trains = SyntheticData.trains(TRAINS, 4, seatsPerCoach, occupancyPercent);
+        coach = trains.get(0).getCoaches().get(0);
+        ticketService = new TicketService(trains);
+    }
+
+    @Benchmark
+    public int firstAvailableSeat() {
+        return SeatUtils.getFirstAvailableSeat(coach, SyntheticData.JOURNEY_DATE);
+    }
+
+    @Benchmark
+    public List<Integer> availableSeatNumbers() {
+        return SeatUtils.getAvailableSeatNumbers(coach, SyntheticData.JOURNEY_DATE);
+    }
+
+    /** One allocate + cancel round trip through the booking engine, on a random train. */
+    @Benchmark
+    @Threads(Threads.MAX)
+    public int allocateAndCancel() {
+        Train train = trains.get(ThreadLocalRandom.current().nextInt(TRAINS));
+        List<Passenger> passengers = List.of(new Passenger("Bench", 30, "C1", 0));
+        List<Integer> seats = ticketService.allocateSeats(train, "C1", SyntheticData.JOURNEY_DATE, passengers);
+        for (int seat : seats) {
+            ticketService.cancelSeat(train, "C1", SyntheticData.JOURNEY_DATE, seat);
+        }
+        return seats.size();
+    }
+}
@@ -0,0 +1,129 @@
+package org.example.ticket.benchmarks;
+
+import org.example.ticket.entities.Coach;
+import org.example.ticket.entities.Passenger;
+import org.example.ticket.entities.SeatInventory;
+import org.example.ticket.entities.Station;
+import org.example.ticket.entities.Stop;
+import org.example.ticket.entities.Train;
+import org.example.ticket.services.TicketService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.DayOfWeek;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Leg availability and best-fit allocation on trains with many stops, with a seat-by-seat search
+ * as reference. The coach is filled with random short legs up to the configured share of its
+ * seat-segments; allocations are cancelled again in the same operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SegmentAllocationBenchmark {
+
+    @Param({"2", "20", "40"})
+    int stops;
+
+    @Param({"1024"})
+    int seatsPerCoach;
+
+    @Param({"50", "90"})
+    int occupancyPercent;
+
+    private Train train;
+    private SeatInventory inventory;
+    private TicketService ticketService;
+
+    @Setup
+    public void setUp() {
+        List<Stop> route = new ArrayList<>(stops);
+        for (int i = 0; i < stops; i++) route.add(new Stop("S" + i, i * 60));
+        Coach coach = new Coach("C1", "T1", "Sleeper", seatsPerCoach, 500);
+        train = new Train("T1", "Stopping Express", station("S0"), station("S" + (stops - 1)),
+                new ArrayList<>(List.of(coach)), EnumSet.allOf(DayOfWeek.class));
+        train.setStops(route);
+        ticketService = new TicketService(List.of(train));
+
+        inventory = coach.getInventory(SyntheticData.JOURNEY_DATE);
+        int segments = train.getSegmentCount();
+        long toBook = (long) seatsPerCoach * segments * occupancyPercent / 100;
+        Random random = new Random(SyntheticData.SEED);
+        for (long booked = 0, attempts = 0; booked < toBook && attempts < toBook * 20; attempts++) {
+            int from = random.nextInt(segments);
+            int to = from + 1 + random.nextInt(Math.min(3, segments - from));
+            if (inventory.book(1 + random.nextInt(seatsPerCoach), from, to, null)) booked += to - from;
+        }
+    }
+
+    @Benchmark
+    public int availableForLeg() {
+        int[] leg = randomLeg();
+        return inventory.getAvailableCount(leg[0], leg[1]);
+    }
+
+    @Benchmark
+    public int bestFit() {
+        int[] leg = randomLeg();
+        return inventory.bestFit(leg[0], leg[1]);
+    }
+
+    @Benchmark
+    public int seatBySeatBestFit() {
+        int[] leg = randomLeg();
+        return seatBySeatBestFit(inventory, leg[0], leg[1]);
+    }
+
+    /** One allocate + cancel round trip on a random leg through the booking engine. */
+    @Benchmark
+    public int allocateAndCancel() {
+        int[] leg = randomLeg();
+        Passenger passenger = new Passenger("Bench", 30, "C1", 0);
+        passenger.travel(train.stopCode(leg[0]), train.stopCode(leg[1]));
+        List<Integer> seats = ticketService.allocateSeats(train, "C1", SyntheticData.JOURNEY_DATE, List.of(passenger));
+        for (int seat : seats) {
+            ticketService.cancelSeat(train, "C1", SyntheticData.JOURNEY_DATE, seat, passenger.getFrom());
+        }
+        return seats.size();
+    }
+
+    /** Best fit as a plain loop over seats and segments, for reference. */
+    static int seatBySeatBestFit(SeatInventory inventory, int from, int to) {
+        int best = -1;
+        int bestSlack = Integer.MAX_VALUE;
+        for (int seat = 1; seat <= inventory.getCapacity(); seat++) {
+            if (!inventory.isAvailable(seat, from, to)) continue;
+            int slack = 0;
+            for (int s = from - 1; s >= 0 && inventory.isAvailable(seat, s, s + 1); s--) slack++;
+            for (int s = to; s < inventory.getSegmentCount() && inventory.isAvailable(seat, s, s + 1); s++) slack++;
+            if (slack < bestSlack) {
+                bestSlack = slack;
+                best = seat;
+            }
+        }
+        return best;
+    }
+
+    private int[] randomLeg() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int segments = train.getSegmentCount();
+        int from = random.nextInt(segments);
+        return new int[]{from, from + 1 + random.nextInt(segments - from)};
+    }
+
+    private static Station station(String code) {
+        return new Station(code, code, code, "State", 4);
+    }
+}
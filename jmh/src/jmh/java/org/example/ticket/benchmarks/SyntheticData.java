@@ -0,0 +1,110 @@
+package org.example.ticket.benchmarks;
+
+import org.example.ticket.entities.Coach;
+import org.example.ticket.entities.Passenger;
+import org.example.ticket.entities.SeatInventory;
+import org.example.ticket.entities.Station;
+import org.example.ticket.entities.Ticket;
+import org.example.ticket.entities.Train;
+import org.example.ticket.entities.User;
+import org.mindrot.jbcrypt.BCrypt;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Deterministic synthetic catalogues and user bases for the benchmarks.
+ * The same seed always produces the same data, so runs on different commits are comparable.
+ */
+public final class SyntheticData {
+
+    public static final long SEED = 42;
+
+    /** A date every generated train runs on. */
+    public static final LocalDate JOURNEY_DATE = LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.MONDAY));
+
+    /** Password of every generated user. */
+    public static final String PASSWORD = "secret123";
+
+    private static final String[] WORDS = {
+            "Rajdhani", "Shatabdi", "Duronto", "Garib", "Rath", "Jan", "Humsafar", "Tejas",
+            "Vande", "Bharat", "Mail", "Express", "Superfast", "Sampark", "Kranti", "Mahanadi",
+            "Gitanjali", "Coromandel", "Konkan", "Kerala", "Deccan", "Queen", "Golden", "Temple"
+    };
+    private static final String[] STATIONS = {"NDLS", "BCT", "HWH", "MAS", "SBC", "PUNE", "LKO", "JP", "ADI", "BPL"};
+    private static final String[] COACH_TYPES = {"Sleeper", "AC 3 Tier", "AC 2 Tier", "AC Chair Car"};
+
+    private SyntheticData() {
+    }
+
+    /** Trains with random names and routes, every coach filled to the given occupancy on {@link #JOURNEY_DATE}. */
+    public static List<Train> trains(int count, int coachesPerTrain, int seatsPerCoach, int occupancyPercent) {
+        Random random = new Random(SEED);
+        List<Train> trains = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String id = String.format("T%06d", i);
+            String name = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)];
+            Station source = station(STATIONS[random.nextInt(STATIONS.length)]);
+            Station destination = station(STATIONS[random.nextInt(STATIONS.length)]);
+
+            List<Coach> coaches = new ArrayList<>(coachesPerTrain);
+            for (int c = 1; c <= coachesPerTrain; c++) {
+                Coach coach = new Coach("C" + c, id, COACH_TYPES[c % COACH_TYPES.length], seatsPerCoach, 500 + 100 * (c % 4));
+                fill(coach.getInventory(JOURNEY_DATE), occupancyPercent, random);
+                coaches.add(coach);
+            }
+            Set<DayOfWeek> runningDays = EnumSet.of(DayOfWeek.MONDAY);
+            while (runningDays.size() < 3) runningDays.add(DayOfWeek.of(1 + random.nextInt(7)));
+            Train train = new Train(id, name, source, destination, coaches, runningDays);
+            train.setDistanceKm(100 + random.nextInt(2_900));
+            trains.add(train);
+        }
+        return trains;
+    }
+
+    /** Books a random {@code occupancyPercent} share of the seats. */
+    public static void fill(SeatInventory inventory, int occupancyPercent, Random random) {
+        int toBook = inventory.getCapacity() * occupancyPercent / 100;
+        while (inventory.getBookedCount() < toBook) {
+            int seat = 1 + random.nextInt(inventory.getCapacity());
+            inventory.book(seat, new Passenger("P" + seat, 30, "C1", seat));
+        }
+    }
+
+    /**
+     * Users with unique emails, each holding a few tickets. All users share one password hash
+     * made with the given bcrypt cost, so generating a million users stays cheap.
+     */
+    public static List<User> users(int count, int ticketsPerUser, int bcryptCost) {
+        Random random = new Random(SEED);
+        String passwordHash = BCrypt.hashpw(PASSWORD, BCrypt.gensalt(bcryptCost));
+        List<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            User user = new User(String.format("U%07d", i), "User " + i, email(i), passwordHash);
+            user.setPhoneNumber(String.format("9%09d", i));
+            user.setAadhaarUid(String.format("%012d", i));
+            for (int t = 0; t < ticketsPerUser; t++) {
+                Ticket ticket = new Ticket(String.format("K%07d%02d", i, t), String.format("T%06d", random.nextInt(1000)),
+                        user.getId(), "SEC" + t, JOURNEY_DATE, 50_000, 1);
+                ticket.addPassenger("C1", String.valueOf(1 + random.nextInt(72)), new Passenger("Passenger " + t, 30, "C1", 1));
+                user.addTicket(ticket);
+            }
+            users.add(user);
+        }
+        return users;
+    }
+
+    public static String email(int index) {
+        return "user" + index + "@example.com";
+    }
+
+    private static Station station(String code) {
+        return new Station(code, code + " Junction", code, "State", 8);
+    }
+}
@@ -0,0 +1,84 @@
+package org.example.ticket.benchmarks;
+
+import org.example.ticket.entities.Train;
+import org.example.ticket.services.Page;
+import org.example.ticket.services.TicketService;
+import org.example.ticket.services.TrainSort;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Name/ID search and route search as the catalogue grows, with the old linear scan as reference.
+ * The paged searches build only the first page, in catalogue order and sorted by fare.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TrainSearchBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    int trainCount;
+
+    @Param({"raj", "queen exp", "t00", "no such train"})
+    String query;
+
+    private List<Train> trains;
+    private TicketService ticketService;
+
+    @Setup
+    public void setUp() {
+        trains = SyntheticData.trains(trainCount, 1, 8, 0);
+        ticketService = new TicketService(trains);
+    }
+
+    @Benchmark
+    public List<Train> indexedSearch() {
+        return ticketService.searchTrains(query);
+    }
+
+    @Benchmark
+    public Page<Train> pagedSearch() {
+        return ticketService.searchTrains(query, TrainSort.CATALOGUE, null, Page.DEFAULT_SIZE);
+    }
+
+    @Benchmark
+    public Page<Train> pagedSearchByFare() {
+        return ticketService.searchTrains(query, TrainSort.FARE, null, Page.DEFAULT_SIZE);
+    }
+
+    @Benchmark
+    public List<Train> linearSearch() {
+        return linearSearch(trains, query);
+    }
+
+    @Benchmark
+    public List<Train> routeSearch() {
+        return ticketService.searchTrains("NDLS", "BCT", SyntheticData.JOURNEY_DATE);
+    }
+
+    /** The search as TicketService implemented it before the index. */
+    static List<Train> linearSearch(List<Train> trains, String query) {
+        if (query == null) query = "";
+        final String q = query.trim().toLowerCase();
+
+        if (q.isEmpty()) return new ArrayList<>(trains);
+
+        List<Train> results = new ArrayList<>();
+        for (Train train : trains) {
+            if (train.getName().toLowerCase().contains(q) || train.getId().toLowerCase().contains(q)) {
+                results.add(train);
+            }
+        }
+        return results;
+    }
+}